@@ -0,0 +1,49 @@
+package backend;
+
+/**
+ * The state an IncrementalEvaluator keeps about the position of an IABoard,
+ * which the IABoard updates on every movement and undo, so the evaluation
+ * doesn't have to go over the whole board at each leaf. Every IABoard has its
+ * own Accumulator, and its clones get copies of it, so the threads of a
+ * search never share one.
+ */
+public interface Accumulator {
+
+	/**
+	 * Computes the state again from the Blobs of the board, forgetting the
+	 * movements made so far.
+	 * 
+	 * @param computer
+	 *            the bitboard of the computer Blobs.
+	 * @param player
+	 *            the bitboard of the player Blobs.
+	 */
+	void reset(long computer, long player);
+
+	/**
+	 * Updates the state after a movement.
+	 * 
+	 * @param origin
+	 *            the square left by a jump, or -1 for a copy.
+	 * @param destination
+	 *            the square the Blob moved to.
+	 * @param flipped
+	 *            the bitboard of the Blobs contaminated by the movement.
+	 * @param computer
+	 *            a boolean value that determines weather the Blob that moved
+	 *            is a computer one.
+	 */
+	void makeMove(int origin, int destination, long flipped, boolean computer);
+
+	/**
+	 * Reverts the state to the one before the last movement.
+	 */
+	void undoMove();
+
+	/**
+	 * Makes a copy of the current state, without the movements made so far.
+	 * 
+	 * @return the copy of the Accumulator.
+	 */
+	Accumulator copy();
+}
@@ -28,7 +28,7 @@ public class Board {
 
 	/**
 	 * This method uses the current Board object to build a simpler version: the
-	 * answer is an IABoard object, that is modeled through a char matrix. This
+	 * answer is an IABoard object, that is modeled through two bitboards. This
 	 * has been implemented so the AI can use it for its needs, in a more
 	 * efficient way.
 	 * 
@@ -38,14 +38,7 @@ public class Board {
 	 * @return an IABoard based on the current Board.
 	 */
 	public IABoard iaBoard(boolean willSwap) {
-		IABoard iaBoard = null;
-		if (willSwap) {
-			iaBoard = new IABoard(rows, columns, playerBlobs.size(),
-					computerBlobs.size());
-		} else {
-			iaBoard = new IABoard(rows, columns, computerBlobs.size(),
-					playerBlobs.size());
-		}
+		IABoard iaBoard = new IABoard(rows, columns);
 		for (int i = 0; i < board.length; i++) {
 			for (int j = 0; j < board[i].length; j++) {
 				iaBoard.put(i, j, at(i, j).toChar(willSwap));
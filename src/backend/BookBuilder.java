@@ -0,0 +1,194 @@
+package backend;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+
+/**
+ * Builds an OpeningBook by self-play from a starting position: every
+ * movement of a position is searched to a fixed depth, the best ones are
+ * kept as its candidates, and the positions they lead to are built the same
+ * way, up to the given amount of plies. The symmetric images of a position
+ * share its entries, so each position is only searched once.
+ */
+public class BookBuilder {
+
+	/**
+	 * The default amount of candidate movements kept for each position.
+	 */
+	public static final int DEFAULT_WIDTH = 2;
+
+	private static final int TABLE_BITS = 18;
+
+	private IABoard iaBoard;
+	private int plies;
+	private int depth;
+	private int width;
+	private TranspositionTable table = new TranspositionTable(TABLE_BITS);
+	private HashSet<Long> built = new HashSet<Long>();
+	private ArrayList<long[]> entries = new ArrayList<long[]>();
+
+	/**
+	 * Constructor for the BookBuilder class.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the starting position.
+	 * @param plies
+	 *            the amount of plies of the book.
+	 * @param depth
+	 *            the depth every movement is searched to, at least 2.
+	 * @param width
+	 *            the amount of candidate movements kept for each position.
+	 */
+	public BookBuilder(IABoard iaBoard, int plies, int depth, int width) {
+		if (plies <= 0 || depth < 2 || width <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible opening book values.");
+		}
+		this.iaBoard = iaBoard.clone();
+		this.plies = plies;
+		this.depth = depth;
+		this.width = width;
+	}
+
+	/**
+	 * Builds the book from the starting position.
+	 * 
+	 * @param side
+	 *            the char of the Blobs that move first.
+	 * @param cycles
+	 *            the Cycle object where the searches are registered.
+	 */
+	public void build(char side, Cycle cycles) {
+		build(side, 0, cycles);
+	}
+
+	private void build(char side, int ply, Cycle cycles) {
+		int symmetry = iaBoard.canonicalSymmetry(side);
+		long key = iaBoard.hash(side, symmetry);
+		if (ply == plies || !iaBoard.canMove(side) || !built.add(key)) {
+			return;
+		}
+		Negamax root = new Negamax(iaBoard, side, depth, 1, true, -1);
+		int[] moves = root.moves(side, -1);
+		final int[] scores = new int[moves.length];
+		Integer[] order = new Integer[moves.length];
+		table.clear();
+		for (int k = 0; k < moves.length; k++) {
+			scores[k] = score(side, moves[k], cycles);
+			order[k] = k;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return scores[b] > scores[a] ? 1 : scores[b] == scores[a] ? 0
+						: -1;
+			}
+		});
+		for (int k = 0; k < Math.min(width, moves.length); k++) {
+			int move = moves[order[k]];
+			int canonical = iaBoard.transform(symmetry, move / 64) * 64
+					+ iaBoard.transform(symmetry, move % 64);
+			entries.add(new long[] { key, canonical, depth,
+					scores[order[k]] });
+		}
+		for (int k = 0; k < Math.min(width, moves.length); k++) {
+			int move = moves[order[k]];
+			makeMove(move);
+			build(IABoard.opponent(side), ply + 1, cycles);
+			iaBoard.undoMove();
+		}
+	}
+
+	/**
+	 * Returns the value of a movement for the side that makes it, searched
+	 * to the depth of the book.
+	 */
+	private int score(char side, int move, Cycle cycles) {
+		char opponent = IABoard.opponent(side);
+		makeMove(move);
+		int score;
+		if (!iaBoard.canMove(opponent)) {
+			int claimed = Long.bitCount(iaBoard.empty());
+			score = Minimax.LOSS;
+			if (iaBoard.count(side) + claimed > iaBoard.count(opponent)) {
+				score = Minimax.WIN;
+			}
+		} else {
+			Negamax next = new Negamax(iaBoard, opponent, depth - 1, 1, true,
+					-1);
+			next.setTable(table);
+			next.minimax(-Minimax.INFINITY, Minimax.INFINITY, cycles);
+			score = -next.value();
+		}
+		iaBoard.undoMove();
+		return score;
+	}
+
+	private void makeMove(int move) {
+		iaBoard.makeMove(iaBoard.row(move / 64), iaBoard.column(move / 64),
+				iaBoard.row(move % 64), iaBoard.column(move % 64));
+	}
+
+	/**
+	 * Returns the amount of positions of the book.
+	 * 
+	 * @return the amount of positions of the book.
+	 */
+	public int positions() {
+		return built.size();
+	}
+
+	/**
+	 * Returns the amount of entries of the book.
+	 * 
+	 * @return the amount of entries of the book.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Writes the book as an OpeningBook file, with its entries sorted by hash
+	 * and, within a position, by value.
+	 * 
+	 * @param file
+	 *            the file to be written.
+	 * @throws IOException
+	 *             if the file can't be written.
+	 */
+	public void write(File file) throws IOException {
+		long[][] sorted = entries.toArray(new long[entries.size()][]);
+		Arrays.sort(sorted, new Comparator<long[]>() {
+			@Override
+			public int compare(long[] a, long[] b) {
+				if (a[0] != b[0]) {
+					return a[0] < b[0] ? -1 : 1;
+				}
+				return a[3] > b[3] ? -1 : a[3] == b[3] ? 0 : 1;
+			}
+		});
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeInt(iaBoard.rows());
+			out.writeInt(iaBoard.columns());
+			out.writeInt(sorted.length);
+			for (long[] entry : sorted) {
+				out.writeLong(entry[0]);
+				out.writeShort((int) entry[1]);
+				out.writeShort((int) entry[2]);
+				out.writeInt((int) entry[3]);
+			}
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package backend;
+
+/**
+ * A computer player of a Match, with its own settings: the depth or the time of
+ * its searches, its SearchParameters and its Evaluator. Every Contender keeps
+ * its own TranspositionTables, for the search and for the EndgameSolver, and
+ * evaluates on its own copy of the IABoard, so the games played at the same
+ * time by different threads share nothing. Like the Game, it tries the
+ * EndgameSolver first when there are few empty cells left, and then runs the
+ * iterative deepening of Negamax, with pruning unless it is turned off, and on
+ * several threads with LazySmp if it is given more than one.
+ */
+public class Contender {
+
+	private static final int TABLE_BITS = 16;
+	private static final int SOLVER_TABLE_BITS = 18;
+
+	private int n;
+	private boolean time;
+	private SearchParameters parameters;
+	private Evaluator evaluator;
+	private boolean prune = true;
+	private int threads = 1;
+	private TranspositionTable table;
+	private TranspositionTable solverTable;
+	private int value;
+
+	/**
+	 * Constructor for the Contender class.
+	 * 
+	 * @param n
+	 *            the depth of the searches, or their time in milliseconds.
+	 * @param time
+	 *            a boolean value that determines weather n is a time or a
+	 *            depth.
+	 * @param parameters
+	 *            the SearchParameters of the searches.
+	 * @param evaluator
+	 *            the Evaluator, or null to evaluate the difference of Blobs.
+	 */
+	public Contender(int n, boolean time, SearchParameters parameters,
+			Evaluator evaluator) {
+		if (n <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible depth value.");
+		}
+		this.n = n;
+		this.time = time;
+		this.parameters = parameters;
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * Setter for the pruning of the searches, which is on by default.
+	 * 
+	 * @param prune
+	 *            a boolean value that determines weather the searches prune.
+	 */
+	public void setPrune(boolean prune) {
+		this.prune = prune;
+	}
+
+	/**
+	 * Setter for the amount of threads of every search, which is one by
+	 * default.
+	 * 
+	 * @param threads
+	 *            the amount of threads.
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible threads value.");
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Returns a new Contender with the same settings, and TranspositionTables
+	 * of its own, for another thread.
+	 * 
+	 * @return the new Contender.
+	 */
+	public Contender copy() {
+		Contender copy = new Contender(n, time, parameters, evaluator);
+		copy.prune = prune;
+		copy.threads = threads;
+		return copy;
+	}
+
+	/**
+	 * Searches the movement of a side, without making it. If the time runs
+	 * out before the first iteration ends, the movement is searched at depth
+	 * one without a time limit.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the game.
+	 * @param side
+	 *            the char of the Blobs that move.
+	 * @param cycles
+	 *            the Cycle object where the search is registered.
+	 * @return the movement, as from * 64 + to, or -1 if the side can't move.
+	 */
+	public int move(IABoard iaBoard, char side, Cycle cycles) {
+		long begining = System.currentTimeMillis();
+		IABoard board = iaBoard.clone();
+		board.setEvaluator(evaluator);
+		if (table == null) {
+			table = new TranspositionTable(TABLE_BITS);
+		} else {
+			table.clear();
+		}
+		if (Long.bitCount(board.empty()) <= parameters.endgameEmpties()) {
+			if (solverTable == null) {
+				solverTable = new TranspositionTable(SOLVER_TABLE_BITS);
+			} else {
+				solverTable.clear();
+			}
+			EndgameSolver solver = new EndgameSolver(board, side, time ? -1
+					: EndgameSolver.DEFAULT_NODES, time ? begining + n / 2 : -1,
+					solverTable);
+			if (solver.solve(cycles)) {
+				value = solver.value() > 0 ? Minimax.WIN
+						: solver.value() < 0 ? Minimax.LOSS : 0;
+				return solver.movement();
+			}
+		}
+		Minimax max;
+		if (threads > 1) {
+			int left = time ? Math.max(n
+					- (int) (System.currentTimeMillis() - begining), 1) : n;
+			LazySmp lazySmp = new LazySmp(threads, table);
+			lazySmp.setParameters(parameters);
+			max = lazySmp.search(board, side, left, time, prune, cycles);
+		} else if (time) {
+			int left = n - (int) (System.currentTimeMillis() - begining);
+			max = Minimax.timeMinimax(Math.max(left, 1), prune, board, side,
+					cycles, table, null, parameters);
+		} else {
+			max = new Negamax(board, side, n, 1, prune, -1);
+			max.setTable(table);
+			max.setParameters(parameters);
+			max.minimax(-Minimax.INFINITY, Minimax.INFINITY, cycles);
+		}
+		if ((max == null || !max.hasMovement()) && board.canMove(side)) {
+			max = new Negamax(board, side, 1, 1, prune, -1);
+			max.minimax(-Minimax.INFINITY, Minimax.INFINITY, cycles);
+		}
+		value = max.value();
+		return max.movement();
+	}
+
+	/**
+	 * Returns the value of the last search, for the side that was to move.
+	 * 
+	 * @return the value, which is Minimax.WIN or Minimax.LOSS if the
+	 *         EndgameSolver proved the result.
+	 */
+	public int value() {
+		return value;
+	}
+}
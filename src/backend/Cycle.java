@@ -3,6 +3,21 @@ package backend;
 public class Cycle {
 	int cycle = 0;
 	int total = 0;
+	int probes = 0;
+	int hits = 0;
+	int symmetricHits = 0;
+	int replacements = 0;
+	int splits = 0;
+	int aborted = 0;
+	long busyNanos = 0;
+	long waitNanos = 0;
+	long idleNanos = 0;
+	int cutoffs = 0;
+	int firstCutoffs = 0;
+	int independentPositions = 0;
+	int collections = 0;
+	int collected = 0;
+	int evaluations = 0;
 
 	/**
 	 * Increments the cycle value by one unit.
@@ -51,4 +66,289 @@ public class Cycle {
 	public void reset() {
 		cycle = 1;
 	}
+
+	/**
+	 * Registers a look up in the TranspositionTable.
+	 * 
+	 * @param hit
+	 *            a boolean value that determines weather the position was
+	 *            found in the table or not.
+	 */
+	public void probe(boolean hit) {
+		probes++;
+		if (hit) {
+			hits++;
+		}
+	}
+
+	/**
+	 * Registers that a look up found an entry stored by a symmetric image of
+	 * the position instead of the position itself.
+	 */
+	public void symmetricHit() {
+		symmetricHits++;
+	}
+
+	/**
+	 * Registers that an entry of the TranspositionTable was replaced by the
+	 * one of another position.
+	 */
+	public void replacement() {
+		replacements++;
+	}
+
+	/**
+	 * Returns the amount of look ups made in the TranspositionTable.
+	 * 
+	 * @return the amount of look ups made in the TranspositionTable.
+	 */
+	public int probes() {
+		return probes;
+	}
+
+	/**
+	 * Returns the amount of look ups that found the position in the
+	 * TranspositionTable.
+	 * 
+	 * @return the amount of look ups that found the position in the
+	 *         TranspositionTable.
+	 */
+	public int hits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the amount of look ups that found an entry stored by a
+	 * symmetric image of the position.
+	 * 
+	 * @return the amount of hits by symmetry.
+	 */
+	public int symmetricHits() {
+		return symmetricHits;
+	}
+
+	/**
+	 * Returns the percentage of look ups that found the position in the
+	 * TranspositionTable.
+	 * 
+	 * @return the hit rate of the TranspositionTable, between 0 and 100.
+	 */
+	public double hitRate() {
+		return probes == 0 ? 0 : 100.0 * hits / probes;
+	}
+
+	/**
+	 * Returns the amount of entries of the TranspositionTable that were
+	 * replaced by the ones of other positions.
+	 * 
+	 * @return the amount of replaced entries.
+	 */
+	public int replacements() {
+		return replacements;
+	}
+
+	/**
+	 * Registers that a node pruned its remaining movements.
+	 * 
+	 * @param first
+	 *            a boolean value that determines weather the pruning was
+	 *            caused by the first movement searched by the node.
+	 */
+	public void cutoff(boolean first) {
+		cutoffs++;
+		if (first) {
+			firstCutoffs++;
+		}
+	}
+
+	/**
+	 * Returns the amount of nodes that pruned their remaining movements.
+	 * 
+	 * @return the amount of prunings.
+	 */
+	public int cutoffs() {
+		return cutoffs;
+	}
+
+	/**
+	 * Returns the percentage of prunings that were caused by the first
+	 * movement searched, which measures the quality of the move ordering.
+	 * 
+	 * @return the cutoff on first movement rate, between 0 and 100.
+	 */
+	public double firstCutoffRate() {
+		return cutoffs == 0 ? 0 : 100.0 * firstCutoffs / cutoffs;
+	}
+
+	/**
+	 * Registers that the younger brothers of a node were searched in
+	 * parallel.
+	 */
+	public void split() {
+		splits++;
+	}
+
+	/**
+	 * Registers that the search of a younger brother was aborted, or not even
+	 * started, because of a cutoff.
+	 */
+	public void abort() {
+		aborted++;
+	}
+
+	/**
+	 * Registers the time spent by a thread searching a task.
+	 * 
+	 * @param nanos
+	 *            the time spent, in nanoseconds.
+	 */
+	public void busy(long nanos) {
+		busyNanos += nanos;
+	}
+
+	/**
+	 * Registers the time spent by a thread waiting for the younger brothers of
+	 * a node. As the thread searches other tasks meanwhile, part of this time
+	 * is also registered as busy by those tasks.
+	 * 
+	 * @param nanos
+	 *            the time spent, in nanoseconds.
+	 */
+	public void waited(long nanos) {
+		waitNanos += nanos;
+	}
+
+	/**
+	 * Computes the time the threads of a parallel search spent without a task
+	 * to search: the time they were alive minus the busy time that was not
+	 * spent waiting.
+	 * 
+	 * @param threads
+	 *            the amount of threads of the search.
+	 * @param nanos
+	 *            the time the search took, in nanoseconds.
+	 */
+	public void idle(int threads, long nanos) {
+		idleNanos = Math.max(0, threads * nanos - (busyNanos - waitNanos));
+	}
+
+	/**
+	 * Returns the amount of nodes whose younger brothers were searched in
+	 * parallel.
+	 * 
+	 * @return the amount of split nodes.
+	 */
+	public int splits() {
+		return splits;
+	}
+
+	/**
+	 * Returns the amount of searches of younger brothers that were aborted
+	 * because of a cutoff.
+	 * 
+	 * @return the amount of aborted subtrees.
+	 */
+	public int aborted() {
+		return aborted;
+	}
+
+	/**
+	 * Returns the time the threads of a parallel search spent without a task
+	 * to search, as computed by idle().
+	 * 
+	 * @return the idle time, in milliseconds.
+	 */
+	public long idleMillis() {
+		return idleNanos / 1000000;
+	}
+
+	/**
+	 * Registers that the empty cells of a position were found to form
+	 * independent regions. The regions are only detected, not searched apart.
+	 */
+	public void independentRegions() {
+		independentPositions++;
+	}
+
+	/**
+	 * Returns the amount of positions whose empty cells were found to form
+	 * independent regions.
+	 * 
+	 * @return the amount of positions with independent regions.
+	 */
+	public int independentPositions() {
+		return independentPositions;
+	}
+
+	/**
+	 * Registers a garbage collection of the ProofTable.
+	 * 
+	 * @param removed
+	 *            the amount of entries removed by the collection.
+	 */
+	public void collection(int removed) {
+		collections++;
+		collected += removed;
+	}
+
+	/**
+	 * Returns the amount of garbage collections of the ProofTable.
+	 * 
+	 * @return the amount of garbage collections.
+	 */
+	public int collections() {
+		return collections;
+	}
+
+	/**
+	 * Returns the amount of entries removed by the garbage collections of the
+	 * ProofTable.
+	 * 
+	 * @return the amount of removed entries.
+	 */
+	public int collected() {
+		return collected;
+	}
+
+	/**
+	 * Registers the evaluation of a leaf of the search.
+	 */
+	public void evaluation() {
+		evaluations++;
+	}
+
+	/**
+	 * Returns the amount of leaves evaluated.
+	 * 
+	 * @return the amount of evaluations.
+	 */
+	public int evaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Adds the cycles and the statistics of another Cycle object to this one.
+	 * It is used to gather the statistics of the threads of a parallel
+	 * search.
+	 * 
+	 * @param other
+	 *            the Cycle object to be added.
+	 */
+	public void add(Cycle other) {
+		total += other.total;
+		probes += other.probes;
+		hits += other.hits;
+		symmetricHits += other.symmetricHits;
+		replacements += other.replacements;
+		cutoffs += other.cutoffs;
+		firstCutoffs += other.firstCutoffs;
+		independentPositions += other.independentPositions;
+		collections += other.collections;
+		collected += other.collected;
+		evaluations += other.evaluations;
+		splits += other.splits;
+		aborted += other.aborted;
+		busyNanos += other.busyNanos;
+		waitNanos += other.waitNanos;
+	}
 }
\ No newline at end of file
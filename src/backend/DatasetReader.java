@@ -0,0 +1,147 @@
+package backend;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Reads the positions of a dataset written by DatasetWriter, one at a time,
+ * from the chunks listed in its index, in their order. Only the current
+ * chunk is open, so a dataset of any size can be read.
+ */
+public class DatasetReader {
+
+	private File directory;
+	private ArrayList<String[]> index;
+	private int entry = -1;
+	private DataInputStream in;
+	private int left;
+	private long size;
+	private TrainingPosition position;
+	private int value;
+
+	/**
+	 * Constructor for the DatasetReader class.
+	 * 
+	 * @param directory
+	 *            the directory of the dataset.
+	 * @throws IOException
+	 *             if the directory has no index, or it can't be read.
+	 */
+	public DatasetReader(File directory) throws IOException {
+		if (!new File(directory, DatasetWriter.INDEX).exists()) {
+			throw new IOException("Error: " + directory
+					+ " is not a dataset directory.");
+		}
+		this.directory = directory;
+		index = DatasetWriter.index(directory);
+		for (String[] fields : index) {
+			size += Integer.parseInt(fields[3]);
+		}
+	}
+
+	/**
+	 * Returns the amount of records of the dataset.
+	 * 
+	 * @return the amount of records.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Reads the next record of the dataset.
+	 * 
+	 * @return false if there are no more records, true otherwise.
+	 * @throws IOException
+	 *             if a chunk can't be read or doesn't match the index.
+	 */
+	public boolean next() throws IOException {
+		while (left == 0) {
+			if (in != null) {
+				in.close();
+				in = null;
+			}
+			if (++entry == index.size()) {
+				return false;
+			}
+			open(index.get(entry));
+		}
+		int rows = Integer.parseInt(index.get(entry)[1]);
+		int columns = Integer.parseInt(index.get(entry)[2]);
+		try {
+			long computer = in.readLong();
+			long player = in.readLong();
+			char side = (char) in.readByte();
+			int result = in.readByte();
+			value = in.readShort();
+			if (side != 'c' && side != 'p' || result < 0 || result > 2) {
+				throw new IOException("Error: the chunk "
+						+ index.get(entry)[0] + " of " + directory
+						+ " has an invalid record.");
+			}
+			IABoard iaBoard = new IABoard(rows, columns);
+			for (long bits = computer; bits != 0; bits &= bits - 1) {
+				int square = Long.numberOfTrailingZeros(bits);
+				iaBoard.put(iaBoard.row(square), iaBoard.column(square), 'c');
+			}
+			for (long bits = player; bits != 0; bits &= bits - 1) {
+				int square = Long.numberOfTrailingZeros(bits);
+				iaBoard.put(iaBoard.row(square), iaBoard.column(square), 'p');
+			}
+			position = new TrainingPosition(iaBoard, side, result / 2.0);
+		} catch (EOFException e) {
+			throw new IOException("Error: the chunk " + index.get(entry)[0]
+					+ " of " + directory + " is shorter than its index says.");
+		}
+		left--;
+		return true;
+	}
+
+	private void open(String[] fields) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(new FileInputStream(
+				new File(directory, fields[0]))));
+		if (in.readInt() != DatasetWriter.MAGIC
+				|| in.readInt() != Integer.parseInt(fields[1])
+				|| in.readInt() != Integer.parseInt(fields[2])) {
+			throw new IOException("Error: the chunk " + fields[0] + " of "
+					+ directory + " doesn't match its index.");
+		}
+		left = Integer.parseInt(fields[3]);
+	}
+
+	/**
+	 * Returns the position of the last record read.
+	 * 
+	 * @return the position, with the result for its side to move.
+	 */
+	public TrainingPosition position() {
+		return position;
+	}
+
+	/**
+	 * Returns the value of the search of the last record read.
+	 * 
+	 * @return the value for the side to move.
+	 */
+	public int value() {
+		return value;
+	}
+
+	/**
+	 * Closes the chunk being read.
+	 * 
+	 * @throws IOException
+	 *             if the chunk can't be closed.
+	 */
+	public void close() throws IOException {
+		if (in != null) {
+			in.close();
+			in = null;
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package backend;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+
+/**
+ * Writes the positions of self-play games to a dataset, a directory that
+ * only grows: the positions go to chunk files of up to a fixed amount of
+ * records, and when a chunk is full it is closed and a line "file rows
+ * columns records" is added to the file INDEX of the directory. The chunks
+ * are never written again, so the index only lists complete chunks, and a
+ * chunk left out of the index by an interrupted run is skipped by the
+ * DatasetReader and by the following runs, which start new chunks after the
+ * last one of the directory.
+ * 
+ * A chunk starts with three ints, MAGIC, the rows and the columns of the
+ * board, followed by its records of RECORD bytes: the bitboards of the
+ * computer and the player Blobs, the char of the side to move, the result of
+ * the game for the side to move, doubled (0, 1 or 2), and the value of the
+ * search of the position for the side to move, which is Short.MAX_VALUE or
+ * -Short.MAX_VALUE for a proven result. All the positions of a dataset must
+ * have the same size. The games can be written by several threads at once,
+ * and the positions of a game are kept together.
+ */
+public class DatasetWriter {
+
+	/**
+	 * The first int of a chunk file.
+	 */
+	public static final int MAGIC = 0x424C4453;
+
+	/**
+	 * The size in bytes of the header of a chunk file.
+	 */
+	public static final int HEADER = 12;
+
+	/**
+	 * The size in bytes of a record of a chunk file.
+	 */
+	public static final int RECORD = 20;
+
+	/**
+	 * The name of the index file of a dataset.
+	 */
+	public static final String INDEX = "index.txt";
+
+	/**
+	 * The default amount of records of a chunk.
+	 */
+	public static final int DEFAULT_CHUNK = 1 << 16;
+
+	private File directory;
+	private int rows;
+	private int columns;
+	private int chunk;
+	private int next;
+	private DataOutputStream out;
+	private String current;
+	private int written;
+	private long records;
+
+	/**
+	 * Constructor for the DatasetWriter class. It opens a dataset, which is
+	 * created if it doesn't exist.
+	 * 
+	 * @param directory
+	 *            the directory of the dataset.
+	 * @param rows
+	 *            the amount of rows of the boards.
+	 * @param columns
+	 *            the amount of columns of the boards.
+	 * @param chunk
+	 *            the amount of records of a chunk.
+	 * @throws IOException
+	 *             if the directory can't be created, or it has a dataset of
+	 *             another size.
+	 */
+	public DatasetWriter(File directory, int rows, int columns, int chunk)
+			throws IOException {
+		if (chunk <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible chunk size.");
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Error: the directory " + directory
+					+ " could not be created.");
+		}
+		this.directory = directory;
+		this.rows = rows;
+		this.columns = columns;
+		this.chunk = chunk;
+		for (String[] entry : index(directory)) {
+			if (Integer.parseInt(entry[1]) != rows
+					|| Integer.parseInt(entry[2]) != columns) {
+				throw new IOException("Error: the dataset " + directory
+						+ " is for " + entry[1] + "x" + entry[2] + " boards.");
+			}
+		}
+		String[] names = directory.list();
+		for (String name : names) {
+			if (name.matches("chunk-\\d+\\.bin")) {
+				next = Math.max(next, Integer.parseInt(name.substring(6, name
+						.length() - 4)) + 1);
+			}
+		}
+	}
+
+	/**
+	 * Reads the entries of the index of a dataset.
+	 * 
+	 * @param directory
+	 *            the directory of the dataset.
+	 * @return the fields of each line of the index, which is empty if there
+	 *         is no index yet.
+	 * @throws IOException
+	 *             if the index can't be read or has an invalid line.
+	 */
+	public static ArrayList<String[]> index(File directory)
+			throws IOException {
+		ArrayList<String[]> entries = new ArrayList<String[]>();
+		File index = new File(directory, INDEX);
+		if (!index.exists()) {
+			return entries;
+		}
+		BufferedReader in = new BufferedReader(new FileReader(index));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				line = line.trim();
+				if (line.length() == 0) {
+					continue;
+				}
+				String[] fields = line.split("\\s+");
+				if (fields.length != 4 || !fields[1].matches("\\d+")
+						|| !fields[2].matches("\\d+")
+						|| !fields[3].matches("\\d+")) {
+					throw new IOException("Error: " + index
+							+ " has an invalid line: " + line);
+				}
+				entries.add(fields);
+			}
+		} finally {
+			in.close();
+		}
+		return entries;
+	}
+
+	/**
+	 * Writes the positions of a game.
+	 * 
+	 * @param positions
+	 *            the positions, with the results for their sides to move.
+	 * @param values
+	 *            the value of the search of each position, for its side to
+	 *            move.
+	 * @throws IOException
+	 *             if a chunk or the index can't be written.
+	 */
+	public synchronized void write(ArrayList<TrainingPosition> positions,
+			ArrayList<Integer> values) throws IOException {
+		for (int k = 0; k < positions.size(); k++) {
+			TrainingPosition position = positions.get(k);
+			IABoard iaBoard = position.board();
+			if (iaBoard.rows() != rows || iaBoard.columns() != columns) {
+				throw new IllegalArgumentException("Error: the dataset is for "
+						+ rows + "x" + columns + " boards.");
+			}
+			if (out == null) {
+				current = "chunk-" + String.format("%06d", next++) + ".bin";
+				out = new DataOutputStream(new BufferedOutputStream(
+						new FileOutputStream(new File(directory, current))));
+				out.writeInt(MAGIC);
+				out.writeInt(rows);
+				out.writeInt(columns);
+			}
+			int value = values.get(k);
+			out.writeLong(iaBoard.computer());
+			out.writeLong(iaBoard.player());
+			out.writeByte(position.side());
+			out.writeByte((int) Math.round(position.result() * 2));
+			out.writeShort(Math.max(-Short.MAX_VALUE, Math.min(
+					Short.MAX_VALUE, value)));
+			written++;
+			records++;
+			if (written == chunk) {
+				finish();
+			}
+		}
+	}
+
+	/**
+	 * Closes the chunk being written and adds it to the index.
+	 */
+	private void finish() throws IOException {
+		out.close();
+		out = null;
+		PrintWriter index = new PrintWriter(new FileWriter(new File(
+				directory, INDEX), true));
+		try {
+			index.println(current + " " + rows + " " + columns + " "
+					+ written);
+		} finally {
+			index.close();
+		}
+		if (index.checkError()) {
+			throw new IOException("Error: the index of " + directory
+					+ " could not be written.");
+		}
+		written = 0;
+	}
+
+	/**
+	 * Returns the amount of records written.
+	 * 
+	 * @return the amount of records.
+	 */
+	public synchronized long records() {
+		return records;
+	}
+
+	/**
+	 * Closes the last chunk, even if it is not full, and adds it to the
+	 * index.
+	 * 
+	 * @throws IOException
+	 *             if the chunk or the index can't be written.
+	 */
+	public synchronized void close() throws IOException {
+		if (out != null) {
+			finish();
+		}
+	}
+}
@@ -0,0 +1,349 @@
+package backend;
+
+import java.util.Arrays;
+
+/**
+ * An exact solver for the end of the game, used when few empty cells are
+ * left. Instead of evaluating the positions at a fixed depth, it searches
+ * until the game is over, with a narrow window around a draw, so it proves
+ * weather the side to move wins, draws or loses. The game is over when the
+ * side to move can't move, and then its opponent claims all the empty cells
+ * left.
+ * 
+ * The search works directly on the bitboards of both sides instead of making
+ * and undoing the movements on the IABoard, and it is given its own
+ * TranspositionTable, which the caller keeps from one solve to the next and
+ * clears, and which can't be the one of a search because the values are not
+ * comparable. As a jump doesn't fill any cell, a game could go on forever, so
+ * the search is limited to twice the amount of empty cells plies. The position
+ * is solved twice: first counting the positions reached at that limit as lost
+ * for the side to move at the root, which proves a win or a draw, and then as
+ * won, which proves a loss or a draw. If the two searches disagree, the result
+ * is not proven: a side that is behind can often keep jumping until the limit,
+ * so only positions with a few empty cells are usually solved. As the limit
+ * favours one side, the table keeps apart the values of a position searched
+ * with the limit in favour of the side to move and against it. A solve stops at
+ * its time limit or after a given amount of positions, so that too many empty
+ * cells make the solver give up instead of searching for ever when there is no
+ * time limit.
+ * 
+ * The solver registers in the Cycle when the empty cells of the position
+ * form independent regions, which no Blob can reach from more than one of
+ * them. The regions are not solved apart: adding the values of the regions
+ * solved alone would not give the value of the position, because each side
+ * chooses in which region to move, and trying first the regions with an odd
+ * amount of empty cells searched more positions than the plain ordering.
+ */
+public class EndgameSolver extends Negamax {
+
+	/**
+	 * The default amount of empty cells under which the solver is used.
+	 */
+	public static final int DEFAULT_EMPTIES = 5;
+
+	/**
+	 * The default amount of positions a solve may search when there is no
+	 * time limit.
+	 */
+	public static final int DEFAULT_NODES = 5000000;
+
+	private static final int LIMIT = 100;
+	private static final long FAVOURED = 0x5DEECE66DL;
+
+	private TranspositionTable table;
+	private int nodes;
+	private int searched;
+	private long cells;
+	private int empties;
+	private boolean optimistic;
+	private boolean proven;
+
+	/**
+	 * Constructor for the EndgameSolver class.
+	 * 
+	 * @param iaBoard
+	 *            a reference to the game IABoard.
+	 * @param side
+	 *            the char of the Blobs of the computer.
+	 * @param nodes
+	 *            the amount of positions each solve may search, or -1 if there
+	 *            is no limit.
+	 * @param timeMillis
+	 *            the time when the search must end, or -1 if there is no time
+	 *            limit.
+	 * @param table
+	 *            the TranspositionTable of the solver, already cleared.
+	 */
+	public EndgameSolver(IABoard iaBoard, char side, int nodes,
+			long timeMillis, TranspositionTable table) {
+		super(iaBoard, side, Math.max(1, 2 * Long.bitCount(iaBoard.empty())),
+				1, true, timeMillis);
+		this.nodes = nodes;
+		this.table = table;
+		cells = iaBoard.empty() | iaBoard.computer() | iaBoard.player();
+		empties = Long.bitCount(iaBoard.empty());
+	}
+
+	/**
+	 * Solves the position with a window around a draw, so the value is 0 for
+	 * a draw, at least 1 for a win and at most -1 for a loss. If the result
+	 * is proven, the best movement is the one that gets it. Running out of
+	 * positions counts as running out of time, so the result is not proven.
+	 * 
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @return a boolean value that determines weather the result was proven.
+	 */
+	public boolean solve(Cycle cycles) {
+		proven = false;
+		optimistic = false;
+		searched = 0;
+		long[] regions = board().regions(board().empty());
+		if (regions.length > 1
+				&& board().independent(regions, cells & ~board().empty())) {
+			cycles.independentRegions();
+		}
+		int lower = minimax(-1, 1, cycles);
+		if (timedOut() || !hasMovement()) {
+			return false;
+		}
+		if (lower > 0) {
+			proven = true;
+			return true;
+		}
+		int move = movement();
+		optimistic = true;
+		int upper = minimax(-1, 1, cycles);
+		if (timedOut()) {
+			return false;
+		}
+		if (lower == 0 && upper <= 0) {
+			setMovement(board().row(move / 64), board().column(move / 64),
+					board().row(move % 64), board().column(move % 64));
+			setValue(0);
+			proven = true;
+		} else if (upper < 0) {
+			proven = true;
+		}
+		return proven;
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the result of the last
+	 * call to solve() was proven.
+	 * 
+	 * @return a boolean value that determines weather the result was proven.
+	 */
+	public boolean proven() {
+		return proven;
+	}
+
+	/**
+	 * Returns the proven result for the side to move, as a word.
+	 * 
+	 * @return "win", "draw" or "loss".
+	 */
+	public String result() {
+		if (value() > 0) {
+			return "win";
+		}
+		return value() == 0 ? "draw" : "loss";
+	}
+
+	/**
+	 * Returns the amount of empty cells of the solved position.
+	 * 
+	 * @return the amount of empty cells of the solved position.
+	 */
+	public int empties() {
+		return empties;
+	}
+
+	/**
+	 * Searches every movement of the root until the end of the game. The
+	 * values are the difference of Blobs at the end, seen from the side to
+	 * move.
+	 * 
+	 * @param alpha
+	 *            the value the side to move is already sure to get.
+	 * @param beta
+	 *            the value the opponent is already sure to get, with its sign
+	 *            changed.
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @return the value of the position, or -1 if the solver ran out of time
+	 *         or of positions.
+	 */
+	@Override
+	public int minimax(int alpha, int beta, Cycle cycles) {
+		setValue(-INFINITY);
+		long own = board().blobs(side());
+		long opp = board().blobs(IABoard.opponent(side()));
+		int[] moves = moves(own, opp, -1);
+		for (int k = 0; k < moves.length && value() < beta; k++) {
+			int from = moves[k] / 64;
+			int to = moves[k] % 64;
+			long flipped = board().distanceOne(to) & opp;
+			int score = -search(opp & ~flipped, move(own, from, to, flipped),
+					-beta, -Math.max(alpha, value()), 2, cycles);
+			if (timedOut()) {
+				return -1;
+			}
+			assignBestMove(score, board().row(from), board().column(from),
+					board().row(to), board().column(to));
+		}
+		return value();
+	}
+
+	private int search(long own, long opp, int alpha, int beta, int ply,
+			Cycle cycles) {
+		if (nodes != -1 && searched >= nodes) {
+			setTimedOut(true);
+		}
+		if (timedOut() || outOfTime(cycles)) {
+			return 0;
+		}
+		searched++;
+		cycles.increment();
+		long empty = cells & ~(own | opp);
+		if ((board().dilate(board().dilate(own)) & empty) == 0) {
+			return Long.bitCount(own) - Long.bitCount(opp)
+					- Long.bitCount(empty);
+		}
+		if (ply > depth()) {
+			return (ply % 2 == 1) == optimistic ? LIMIT : -LIMIT;
+		}
+		long key = key(own, opp);
+		if ((ply % 2 == 1) == optimistic) {
+			key ^= FAVOURED;
+		}
+		long entry = table.probe(key);
+		cycles.probe(entry != 0);
+		int remaining = depth() - ply + 1;
+		if (entry != 0 && TranspositionTable.depth(entry) >= remaining) {
+			int score = TranspositionTable.score(entry);
+			int bound = TranspositionTable.bound(entry);
+			if (bound == TranspositionTable.EXACT
+					|| bound == TranspositionTable.LOWER && score >= beta
+					|| bound == TranspositionTable.UPPER && score <= alpha) {
+				return score;
+			}
+		}
+		int best = -INFINITY;
+		int bestMove = -1;
+		int[] moves = moves(own, opp, TranspositionTable.move(entry));
+		for (int k = 0; k < moves.length && best < beta; k++) {
+			int from = moves[k] / 64;
+			int to = moves[k] % 64;
+			long flipped = board().distanceOne(to) & opp;
+			int score = -search(opp & ~flipped, move(own, from, to, flipped),
+					-beta, -Math.max(alpha, best), ply + 1, cycles);
+			if (timedOut()) {
+				return 0;
+			}
+			if (score > best) {
+				best = score;
+				bestMove = moves[k];
+			}
+		}
+		int bound = TranspositionTable.EXACT;
+		if (best >= beta) {
+			bound = TranspositionTable.LOWER;
+		} else if (best <= alpha) {
+			bound = TranspositionTable.UPPER;
+		}
+		table.store(key, remaining, bound, best, bestMove, 0);
+		return best;
+	}
+
+	/**
+	 * Returns the Blobs of the side to move after a movement.
+	 */
+	private long move(long own, int from, int to, long flipped) {
+		if ((board().distanceOne(from) & (1L << to)) == 0) {
+			own &= ~(1L << from);
+		}
+		return own | (1L << to) | flipped;
+	}
+
+	/**
+	 * Returns the movements of the side to move, as from * 64 + to: the given
+	 * one first if it is valid, then a single clone for each reachable empty
+	 * cell and the jumps of every Blob, sorted by the amount of Blobs they
+	 * win.
+	 */
+	private int[] moves(long own, long opp, int first) {
+		long empty = cells & ~(own | opp);
+		int[] moves = new int[64];
+		long[] keys = new long[64];
+		int size = 0;
+		long clones = board().dilate(own) & empty;
+		while (clones != 0) {
+			int to = Long.numberOfTrailingZeros(clones);
+			clones &= clones - 1;
+			long origins = board().distanceOne(to) & own;
+			int from = Long.numberOfTrailingZeros(origins);
+			moves[size] = from * 64 + to;
+			keys[size] = gain(moves[size], opp, first);
+			size++;
+		}
+		long blobs = own;
+		while (blobs != 0) {
+			int from = Long.numberOfTrailingZeros(blobs);
+			blobs &= blobs - 1;
+			long targets = board().distanceTwo(from) & empty;
+			while (targets != 0) {
+				int to = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				if (size == moves.length) {
+					moves = Arrays.copyOf(moves, size * 2);
+					keys = Arrays.copyOf(keys, size * 2);
+				}
+				moves[size] = from * 64 + to;
+				keys[size] = gain(moves[size], opp, first);
+				size++;
+			}
+		}
+		for (int k = 1; k < size; k++) {
+			int move = moves[k];
+			long key = keys[k];
+			int l = k - 1;
+			while (l >= 0 && keys[l] < key) {
+				moves[l + 1] = moves[l];
+				keys[l + 1] = keys[l];
+				l--;
+			}
+			moves[l + 1] = move;
+			keys[l + 1] = key;
+		}
+		return Arrays.copyOf(moves, size);
+	}
+
+	/**
+	 * Returns the ordering key of a movement: the given first movement goes
+	 * before any other, and then the difference of Blobs it makes.
+	 */
+	private long gain(int move, long opp, int first) {
+		if (move == first) {
+			return Long.MAX_VALUE;
+		}
+		int from = move / 64;
+		int to = move % 64;
+		int gain = 2 * Long.bitCount(board().distanceOne(to) & opp);
+		if ((board().distanceOne(from) & (1L << to)) != 0) {
+			gain++;
+		}
+		return gain;
+	}
+
+	/**
+	 * Returns the hash of a position with the Blobs of the side to move and
+	 * the ones of its opponent.
+	 */
+	private static long key(long own, long opp) {
+		long h = own * 0x9E3779B97F4A7C15L;
+		h ^= Long.rotateLeft(opp * 0xC2B2AE3D27D4EB4FL, 31);
+		h ^= h >>> 29;
+		return h * 0xBF58476D1CE4E5B9L;
+	}
+}
@@ -0,0 +1,60 @@
+package backend;
+
+/**
+ * Enumerates the search engines that the computer can use to find its next
+ * movement.
+ */
+public enum Engine {
+	MINIMAX("minimax"), ROOT_SPLIT("rootsplit"), LAZY_SMP("lazysmp"), YBWC(
+			"ybwc"), MCTS("mcts");
+
+	private String name;
+
+	/**
+	 * Constructor for the Engine enum.
+	 * 
+	 * @param name
+	 *            the name used to select the engine from the command line.
+	 */
+	Engine(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the engine searches
+	 * with more than one thread.
+	 * 
+	 * @return a boolean value that determines weather the engine is parallel.
+	 */
+	public boolean isParallel() {
+		return this != MINIMAX;
+	}
+
+	/**
+	 * Returns the name used to select the engine from the command line.
+	 * 
+	 * @return the name of the engine.
+	 */
+	public String toString() {
+		return name;
+	}
+
+	/**
+	 * Returns the engine with the given name.
+	 * 
+	 * @param name
+	 *            the name used to select the engine from the command line.
+	 * @return the engine with the given name.
+	 * @throws IllegalArgumentException
+	 *             if there is no engine with such name.
+	 */
+	public static Engine fromName(String name) {
+		for (Engine each : values()) {
+			if (each.name.equals(name)) {
+				return each;
+			}
+		}
+		throw new IllegalArgumentException("Error: unknown engine " + name
+				+ ".");
+	}
+}
@@ -0,0 +1,35 @@
+package backend;
+
+/**
+ * An evaluation function for the positions where the search stops. An
+ * Evaluator is attached to an IABoard with IABoard.setEvaluator(), and the
+ * IABoard then keeps its square weights up to date on every movement and
+ * undo, so the positional part of the evaluation is not computed again at
+ * each leaf. The implementations must not keep any state of the position, as
+ * the same Evaluator is used by all the threads of a search.
+ */
+public interface Evaluator {
+
+	/**
+	 * Returns the weight of each square of a board, whose sum over the Blobs
+	 * of a side is kept by the IABoard as it changes.
+	 * 
+	 * @param geometry
+	 *            an IABoard with the size of the board.
+	 * @return the weights of the squares, or null if the Evaluator doesn't
+	 *         use them.
+	 */
+	int[] squareWeights(IABoard geometry);
+
+	/**
+	 * Returns the value of a position for a side, right after its movement,
+	 * so its opponent moves next.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the position.
+	 * @param side
+	 *            the char of the Blobs the position is evaluated for.
+	 * @return the value of the position for the side.
+	 */
+	int evaluate(IABoard iaBoard, char side);
+}
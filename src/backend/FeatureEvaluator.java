@@ -0,0 +1,273 @@
+package backend;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * An Evaluator that adds up a weighted set of features of the position, each
+ * one the difference between the side evaluated and its opponent:
+ * 
+ * material, the Blobs of each side; mobility, the empty cells each side can
+ * reach; frontier, the Blobs next to an empty cell, which can be
+ * contaminated; safe, the Blobs no movement of the other side can
+ * contaminate; corners and edges, the Blobs on the border of the board; and
+ * parity, the empty regions with an odd amount of cells, whose last cell is
+ * usually taken by the side to move, so they count against the side that
+ * just moved.
+ * 
+ * The corners and the edges are kept by the IABoard as its square weights,
+ * and the material and the mobility are kept by the IABoard anyway, so only
+ * the frontier, the safe Blobs and the parity are computed at each leaf, and
+ * only when their weights are not zero. The weights are read from a file with
+ * a line "feature weight" for each feature; the features left out weigh
+ * zero, and the lines starting with # are comments.
+ */
+public class FeatureEvaluator implements Evaluator {
+
+	/**
+	 * The names of the features, in the order of their weights.
+	 */
+	public static final String[] FEATURES = { "material", "mobility",
+			"frontier", "safe", "corners", "edges", "parity" };
+
+	/**
+	 * The index of each feature in the weights.
+	 */
+	public static final int MATERIAL = 0, MOBILITY = 1, FRONTIER = 2,
+			SAFE = 3, CORNERS = 4, EDGES = 5, PARITY = 6;
+
+	private int[] weights;
+
+	/**
+	 * Constructor for the FeatureEvaluator class.
+	 * 
+	 * @param weights
+	 *            the weight of each feature, in the order of FEATURES.
+	 */
+	public FeatureEvaluator(int[] weights) {
+		if (weights.length != FEATURES.length) {
+			throw new IllegalArgumentException("Error: the evaluator needs "
+					+ FEATURES.length + " weights.");
+		}
+		this.weights = weights.clone();
+	}
+
+	/**
+	 * Reads the weights of a FeatureEvaluator from a file.
+	 * 
+	 * @param file
+	 *            the weights file.
+	 * @return the FeatureEvaluator with the weights of the file.
+	 * @throws IOException
+	 *             if the file can't be read or has an unknown feature.
+	 */
+	public static FeatureEvaluator load(File file) throws IOException {
+		int[] weights = new int[FEATURES.length];
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				line = line.trim();
+				if (line.length() == 0 || line.startsWith("#")) {
+					continue;
+				}
+				String[] fields = line.split("\\s+");
+				int feature = feature(fields[0]);
+				if (feature == -1 || fields.length != 2
+						|| !fields[1].matches("-?\\d+")) {
+					throw new IOException("Error: " + file
+							+ " has an invalid line: " + line);
+				}
+				weights[feature] = Integer.parseInt(fields[1]);
+			}
+		} finally {
+			in.close();
+		}
+		return new FeatureEvaluator(weights);
+	}
+
+	/**
+	 * Writes the weights of this FeatureEvaluator to a file that load() can
+	 * read.
+	 * 
+	 * @param file
+	 *            the file to be written.
+	 * @throws IOException
+	 *             if the file can't be written.
+	 */
+	public void write(File file) throws IOException {
+		PrintWriter out = new PrintWriter(file);
+		try {
+			for (int k = 0; k < FEATURES.length; k++) {
+				out.println(FEATURES[k] + " " + weights[k]);
+			}
+		} finally {
+			out.close();
+		}
+		if (out.checkError()) {
+			throw new IOException("Error: " + file + " could not be written.");
+		}
+	}
+
+	/**
+	 * Returns the index of the feature with the given name.
+	 * 
+	 * @param name
+	 *            the name of the feature.
+	 * @return the index of the feature, or -1 if there is no such feature.
+	 */
+	public static int feature(String name) {
+		for (int k = 0; k < FEATURES.length; k++) {
+			if (FEATURES[k].equals(name)) {
+				return k;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns a copy of the weights of the features.
+	 * 
+	 * @return the weights, in the order of FEATURES.
+	 */
+	public int[] weights() {
+		return weights.clone();
+	}
+
+	@Override
+	public int[] squareWeights(IABoard geometry) {
+		int rows = geometry.rows();
+		int columns = geometry.columns();
+		int[] squares = new int[rows * columns];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				boolean row = i == 0 || i == rows - 1;
+				boolean column = j == 0 || j == columns - 1;
+				if (row && column) {
+					squares[geometry.square(i, j)] = weights[CORNERS];
+				} else if (row || column) {
+					squares[geometry.square(i, j)] = weights[EDGES];
+				}
+			}
+		}
+		return squares;
+	}
+
+	@Override
+	public int evaluate(IABoard iaBoard, char side) {
+		char opponent = IABoard.opponent(side);
+		int value = weights[MATERIAL]
+				* (iaBoard.count(side) - iaBoard.count(opponent))
+				+ weights[MOBILITY]
+				* (iaBoard.mobility(side) - iaBoard.mobility(opponent));
+		if (iaBoard.evaluator() == this) {
+			value += iaBoard.positional(side) - iaBoard.positional(opponent);
+		} else {
+			value += weights[CORNERS] * corners(iaBoard, side)
+					+ weights[EDGES] * edges(iaBoard, side);
+		}
+		if (weights[FRONTIER] != 0) {
+			value += weights[FRONTIER] * frontier(iaBoard, side);
+		}
+		if (weights[SAFE] != 0) {
+			value += weights[SAFE] * safe(iaBoard, side);
+		}
+		if (weights[PARITY] != 0) {
+			value += weights[PARITY] * parity(iaBoard);
+		}
+		return value;
+	}
+
+	/**
+	 * Computes every feature of a position from scratch, for the tuning of
+	 * the weights.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the position.
+	 * @param side
+	 *            the char of the Blobs the position is evaluated for, whose
+	 *            opponent moves next.
+	 * @return the features, in the order of FEATURES.
+	 */
+	public static int[] features(IABoard iaBoard, char side) {
+		char opponent = IABoard.opponent(side);
+		int[] features = new int[FEATURES.length];
+		features[MATERIAL] = iaBoard.count(side) - iaBoard.count(opponent);
+		features[MOBILITY] = iaBoard.mobility(side)
+				- iaBoard.mobility(opponent);
+		features[FRONTIER] = frontier(iaBoard, side);
+		features[SAFE] = safe(iaBoard, side);
+		features[CORNERS] = corners(iaBoard, side);
+		features[EDGES] = edges(iaBoard, side);
+		features[PARITY] = parity(iaBoard);
+		return features;
+	}
+
+	private static int frontier(IABoard iaBoard, char side) {
+		long near = iaBoard.dilate(iaBoard.empty());
+		return Long.bitCount(iaBoard.blobs(side) & near)
+				- Long.bitCount(iaBoard.blobs(IABoard.opponent(side)) & near);
+	}
+
+	private static int safe(IABoard iaBoard, char side) {
+		char opponent = IABoard.opponent(side);
+		long empty = iaBoard.empty();
+		long ownThreats = iaBoard.dilate(iaBoard.dilate(iaBoard.dilate(iaBoard
+				.blobs(side)) & empty));
+		long oppThreats = iaBoard.dilate(iaBoard.dilate(iaBoard.dilate(iaBoard
+				.blobs(opponent)) & empty));
+		return Long.bitCount(iaBoard.blobs(side) & ~oppThreats)
+				- Long.bitCount(iaBoard.blobs(opponent) & ~ownThreats);
+	}
+
+	private static int corners(IABoard iaBoard, char side) {
+		long corners = border(iaBoard, true);
+		return Long.bitCount(iaBoard.blobs(side) & corners)
+				- Long.bitCount(iaBoard.blobs(IABoard.opponent(side))
+						& corners);
+	}
+
+	private static int edges(IABoard iaBoard, char side) {
+		long edges = border(iaBoard, false);
+		return Long.bitCount(iaBoard.blobs(side) & edges)
+				- Long.bitCount(iaBoard.blobs(IABoard.opponent(side)) & edges);
+	}
+
+	/**
+	 * Returns the mask of the corners, or of the rest of the border.
+	 */
+	private static long border(IABoard iaBoard, boolean corners) {
+		long mask = 0;
+		int rows = iaBoard.rows();
+		int columns = iaBoard.columns();
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				boolean row = i == 0 || i == rows - 1;
+				boolean column = j == 0 || j == columns - 1;
+				if (corners ? row && column : row != column) {
+					mask |= 1L << iaBoard.square(i, j);
+				}
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns minus the amount of empty regions with an odd amount of cells,
+	 * where the regions are the ones of IABoard.regions(), found one by one
+	 * with IABoard.region() so no array is made at each leaf.
+	 */
+	private static int parity(IABoard iaBoard) {
+		long empty = iaBoard.empty();
+		int odd = 0;
+		while (empty != 0) {
+			long region = iaBoard.region(empty & -empty, empty);
+			odd += Long.bitCount(region) & 1;
+			empty &= ~region;
+		}
+		return -odd;
+	}
+}
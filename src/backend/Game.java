@@ -4,10 +4,24 @@ public class Game {
 
 	private Board board;
 	private boolean alreadyAskedIfGameOver = false;
+	private TranspositionTable table;
+	private TranspositionTable solverTable;
+	private MonteCarlo monteCarlo;
+	private static final int TABLE_BITS = 20;
+	private static final int THREAD_TABLE_BITS = 18;
 	private static int n;
 	private static boolean time;
 	private static boolean prune;
 	private static boolean willSwap;
+	private static Engine engine = Engine.MINIMAX;
+	private static int threads = 1;
+	private static int minSplitDepth = YoungBrothers.MIN_SPLIT_DEPTH;
+	private static int endgameEmpties = EndgameSolver.DEFAULT_EMPTIES;
+	private static int proofNodes = ProofNumberSearch.DEFAULT_NODES;
+	private static Tablebase tablebase;
+	private static OpeningBook book;
+	private static Evaluator evaluator;
+	private static SearchParameters parameters = SearchParameters.DEFAULT;
 
 	/**
 	 * Constructor for the Game class.
@@ -32,8 +46,9 @@ public class Game {
 	 *            a boolean value that represents weather the minimax algorithm
 	 *            will be executed with or without pruning.
 	 * @param swap
-	 *            a boolean value that represents weather the game should swap
-	 *            the player's blobs with the computer's blobs.
+	 *            a boolean value that represents weather the computer plays
+	 *            with the player's blobs, which the search is told to move
+	 *            instead of swapping the blobs of the IABoard.
 	 */
 	public static void setProperties(int restriction, boolean isTime,
 			boolean hasPrune, boolean swap) {
@@ -43,6 +58,111 @@ public class Game {
 		willSwap = swap;
 	}
 
+	/**
+	 * Setter for the search engine used by the computer.
+	 * 
+	 * @param searchEngine
+	 *            the search engine.
+	 * @param threadCount
+	 *            the amount of threads used by the parallel engines.
+	 */
+	public static void setEngine(Engine searchEngine, int threadCount) {
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible threads value.");
+		}
+		engine = searchEngine;
+		threads = threadCount;
+	}
+
+	/**
+	 * Setter for the minimum amount of plies left for a node to be split by
+	 * the YBWC engine.
+	 * 
+	 * @param depth
+	 *            the minimum split depth.
+	 */
+	public static void setMinSplitDepth(int depth) {
+		if (depth <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible split depth value.");
+		}
+		minSplitDepth = depth;
+	}
+
+	/**
+	 * Setter for the amount of empty cells under which the EndgameSolver
+	 * tries to prove the result before the search engine is used.
+	 * 
+	 * @param empties
+	 *            the amount of empty cells, or 0 to never use the solver.
+	 */
+	public static void setEndgameEmpties(int empties) {
+		if (empties < 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible endgame value.");
+		}
+		endgameEmpties = empties;
+	}
+
+	/**
+	 * Setter for the amount of nodes the ProofNumberSearch may expand in
+	 * prove().
+	 * 
+	 * @param nodes
+	 *            the amount of nodes.
+	 */
+	public static void setProofNodes(int nodes) {
+		if (nodes <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible proof nodes value.");
+		}
+		proofNodes = nodes;
+	}
+
+	/**
+	 * Setter for the Tablebase that gives the movement of the computer on the
+	 * boards of its size, instead of the search engine.
+	 * 
+	 * @param positions
+	 *            the Tablebase, or null to always search.
+	 */
+	public static void setTablebase(Tablebase positions) {
+		tablebase = positions;
+	}
+
+	/**
+	 * Setter for the OpeningBook whose movements are played without searching
+	 * when the position is in it.
+	 * 
+	 * @param openingBook
+	 *            the OpeningBook, or null to always search.
+	 */
+	public static void setBook(OpeningBook openingBook) {
+		book = openingBook;
+	}
+
+	/**
+	 * Setter for the Evaluator of the positions where the search stops.
+	 * 
+	 * @param positionEvaluator
+	 *            the Evaluator, or null to evaluate the difference of Blobs.
+	 */
+	public static void setEvaluator(Evaluator positionEvaluator) {
+		evaluator = positionEvaluator;
+	}
+
+	/**
+	 * Setter for the SearchParameters of the minimax engines. The amount of
+	 * empty cells of the EndgameSolver is set with setEndgameEmpties().
+	 * 
+	 * @param searchParameters
+	 *            the SearchParameters.
+	 */
+	public static void setParameters(SearchParameters searchParameters) {
+		parameters = searchParameters;
+	}
+
 	/**
 	 * Moves the Blob in the (iFrom, jFrom) position in the board to the (iTo,
 	 * jTo) position. If it could be moved successfully, the method returns
@@ -110,14 +230,23 @@ public class Game {
 
 	/**
 	 * Returns a boolean value that represents weather the player has won or
-	 * not.
+	 * not. When the player can't move, the computer claims all the empty
+	 * cells left.
 	 * 
 	 * @return a boolean value that represents weather the player has won or
 	 *         not.
 	 */
 	public boolean playerHasWon() {
-		return gameOver()
-				&& board.playerBlobs().size() - board.computerBlobs().size() > 0;
+		if (!gameOver()) {
+			return false;
+		}
+		int claimed = 0;
+		if (!board.playerCanMove()) {
+			claimed = board.rows() * board.cols()
+					- board.playerBlobs().size() - board.computerBlobs().size();
+		}
+		return board.playerBlobs().size() - board.computerBlobs().size()
+				- claimed > 0;
 	}
 
 	/**
@@ -132,7 +261,10 @@ public class Game {
 	/**
 	 * Exexutes the minimax algorithm, makes the best movement for the computer,
 	 * and returns it as a String with the format [iFrom, jFrom][iTo, jTo] Time
-	 * spent = t DEPTH = d Expored states = s.
+	 * spent = t DEPTH = d Expored states = s, followed by the statistics of
+	 * the TranspositionTable. With few empty cells, the EndgameSolver is tried
+	 * first, with half of the time in time mode, and the output says if its
+	 * movement was proven.
 	 * 
 	 * @return a String with the format [iFrom, jFrom][iTo, jTo] Time spent = t
 	 *         DEPTH = d Expored states = s.
@@ -141,11 +273,43 @@ public class Game {
 		Minimax max = null;
 		Cycle cycle = new Cycle();
 		long begining = System.currentTimeMillis();
-		if (!time) {
-			max = new Max(board.iaBoard(willSwap), n, 1, prune, -1);
-			max.minimax(Integer.MAX_VALUE, cycle);
+		if (table == null) {
+			table = new TranspositionTable(TABLE_BITS);
 		} else {
-			max = Minimax.timeMinimax(n, prune, board.iaBoard(willSwap), cycle);
+			table.clear();
+		}
+		IABoard iaBoard = board.iaBoard(false);
+		iaBoard.setEvaluator(evaluator);
+		char side = willSwap ? 'p' : 'c';
+		if (tablebase != null && tablebase.covers(iaBoard)
+				&& iaBoard.canMove(side)) {
+			return tablebaseMovement(iaBoard, side, begining);
+		}
+		if (book != null) {
+			int entry = book.probe(iaBoard, side);
+			if (entry != -1 && book.move(iaBoard, side, entry) != -1) {
+				return bookMovement(iaBoard, side, entry, begining);
+			}
+		}
+		EndgameSolver solver = null;
+		if (Long.bitCount(iaBoard.empty()) <= endgameEmpties) {
+			if (solverTable == null) {
+				solverTable = new TranspositionTable(TABLE_BITS);
+			} else {
+				solverTable.clear();
+			}
+			solver = new EndgameSolver(iaBoard, side, time ? -1
+					: EndgameSolver.DEFAULT_NODES, time ? begining + n / 2 : -1,
+					solverTable);
+			if (solver.solve(cycle)) {
+				max = solver;
+			}
+		}
+		if (max == null && time) {
+			int left = n - (int) (System.currentTimeMillis() - begining);
+			max = search(iaBoard, side, Math.max(left, 1), cycle);
+		} else if (max == null) {
+			max = search(iaBoard, side, n, cycle);
 		}
 		String ans = "";
 		if (!move(max.iFrom(), max.jFrom(), max.iTo(), max.jTo())) {
@@ -157,6 +321,185 @@ public class Game {
 		ans += "\nTime spent = " + (System.currentTimeMillis() - begining)
 				+ " milliseconds." + "\nDEPTH = " + max.depth() + ".\n"
 				+ "Explored states: " + cycle.total() + ".";
+		if (engine != Engine.MCTS || max == solver) {
+			ans += "\nTransposition table hits: " + cycle.hits() + "/"
+					+ cycle.probes() + " ("
+					+ String.format("%.1f", cycle.hitRate())
+					+ "%), by symmetry: " + cycle.symmetricHits()
+					+ ", replacements: " + cycle.replacements() + "."
+					+ "\nCutoffs on the first movement: "
+					+ String.format("%.1f", cycle.firstCutoffRate()) + "% of "
+					+ cycle.cutoffs() + "." + "\nLeaf evaluations: "
+					+ cycle.evaluations() + " ("
+					+ cycle.evaluations() * 1000L
+					/ Math.max(System.currentTimeMillis() - begining, 1)
+					+ " per second).";
+		}
+		if (max == solver) {
+			ans += "\nProven " + solver.result() + " with "
+					+ solver.empties() + " empty cells.";
+		} else if (solver != null) {
+			ans += "\nThe endgame solver could not prove the result.";
+		}
+		if (solver != null) {
+			ans += "\nPositions with independent empty regions detected: "
+					+ cycle.independentPositions() + ".";
+		}
+		if (engine.isParallel()) {
+			ans += "\nEngine = " + engine + ", threads = " + threads + ".";
+		}
+		if (engine == Engine.YBWC) {
+			ans += "\nSplits = " + cycle.splits() + ", aborted subtrees = "
+					+ cycle.aborted() + ", idle time = " + cycle.idleMillis()
+					+ " milliseconds, minimum split depth = " + minSplitDepth
+					+ ".";
+		}
+		if (engine == Engine.MCTS && max != solver) {
+			ans += "\nTree nodes = " + monteCarlo.nodes()
+					+ ", reused playouts = " + monteCarlo.reused()
+					+ ", points won = " + max.value() + "%.";
+		}
+		return ans;
+	}
+
+	/**
+	 * Makes the best movement of the position in the OpeningBook, and returns
+	 * it as a String with the format [iFrom, jFrom][iTo, jTo] Time spent = t,
+	 * followed by the value and the depth of the book entry.
+	 */
+	private String bookMovement(IABoard iaBoard, char side, int entry,
+			long begining) {
+		int move = book.move(iaBoard, side, entry);
+		int iFrom = iaBoard.row(move / 64);
+		int jFrom = iaBoard.column(move / 64);
+		int iTo = iaBoard.row(move % 64);
+		int jTo = iaBoard.column(move % 64);
+		move(iFrom, jFrom, iTo, jTo);
+		return "[" + iFrom + "," + jFrom + "][" + iTo + "," + jTo + "]"
+				+ "\nTime spent = " + (System.currentTimeMillis() - begining)
+				+ " milliseconds." + "\nOpening book: value "
+				+ book.score(entry) + " at depth " + book.depth(entry)
+				+ ", best of " + book.candidates(entry) + " movements.";
+	}
+
+	/**
+	 * Makes the perfect movement given by the Tablebase, and returns it as a
+	 * String with the format [iFrom, jFrom][iTo, jTo] Time spent = t,
+	 * followed by the result of the position.
+	 */
+	private String tablebaseMovement(IABoard iaBoard, char side,
+			long begining) {
+		int move = tablebase.bestMove(iaBoard, side);
+		int value = tablebase.value(iaBoard.blobs(side),
+				iaBoard.blobs(IABoard.opponent(side)));
+		int iFrom = iaBoard.row(move / 64);
+		int jFrom = iaBoard.column(move / 64);
+		int iTo = iaBoard.row(move % 64);
+		int jTo = iaBoard.column(move % 64);
+		String ans = "";
+		if (!move(iFrom, jFrom, iTo, jTo)) {
+			ans += "PASS.";
+		} else {
+			ans += "[" + iFrom + "," + jFrom + "][" + iTo + "," + jTo + "]";
+		}
+		ans += "\nTime spent = " + (System.currentTimeMillis() - begining)
+				+ " milliseconds." + "\nTablebase: ";
+		if (value > 0) {
+			ans += "win in " + (value - 1) + " plies.";
+		} else if (value < 0) {
+			ans += "loss in " + (-value - 1) + " plies.";
+		} else {
+			ans += "draw.";
+		}
+		return ans;
+	}
+
+	/**
+	 * Tries to prove, with the ProofNumberSearch, that the computer can force
+	 * a win or that the player can, without moving any Blob. The search may
+	 * expand the amount of nodes given to setProofNodes(), and in time mode
+	 * it also ends after the time given to setProperties(). The result is
+	 * returned as a String with the format WIN [iFrom, jFrom][iTo, jTo], LOSS
+	 * or UNKNOWN, followed by the statistics of the search.
+	 * 
+	 * @return a String with the result of the proof.
+	 */
+	public String prove() {
+		Cycle cycle = new Cycle();
+		long begining = System.currentTimeMillis();
+		IABoard iaBoard = board.iaBoard(false);
+		char side = willSwap ? 'p' : 'c';
+		ProofNumberSearch search = new ProofNumberSearch(iaBoard, side,
+				proofNodes, time ? begining + n : -1);
+		search.prove(cycle);
+		String ans = search.result();
+		if (search.result().equals("WIN")) {
+			ans += " [" + search.iFrom() + "," + search.jFrom() + "]["
+					+ search.iTo() + "," + search.jTo() + "]";
+		}
+		ans += "\nTime spent = " + (System.currentTimeMillis() - begining)
+				+ " milliseconds." + "\nExpanded nodes: " + cycle.total()
+				+ " of " + proofNodes + "." + "\nProof table hits: "
+				+ cycle.hits() + "/" + cycle.probes()
+				+ ", garbage collections: " + cycle.collections() + " ("
+				+ cycle.collected() + " entries removed).";
 		return ans;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Searches the best movement with the engine chosen for the computer.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the game.
+	 * @param side
+	 *            the char of the Blobs moved by the computer.
+	 * @param n
+	 *            the depth, or the time in milliseconds in time mode.
+	 * @param cycle
+	 *            the Cycle object where the statistics are registered.
+	 * @return the Minimax object with the best movement.
+	 */
+	private Minimax search(IABoard iaBoard, char side, int n, Cycle cycle) {
+		Minimax max;
+		SearchPool pool = null;
+		if (engine == Engine.ROOT_SPLIT) {
+			pool = new SearchPool(threads, THREAD_TABLE_BITS);
+		} else if (engine == Engine.YBWC) {
+			pool = new SearchPool(threads, THREAD_TABLE_BITS);
+			pool.setMinSplitDepth(minSplitDepth);
+		}
+		try {
+			if (engine == Engine.MCTS) {
+				if (monteCarlo == null) {
+					monteCarlo = new MonteCarlo(threads);
+				}
+				max = monteCarlo.search(iaBoard, side, n, time, cycle);
+			} else if (engine == Engine.LAZY_SMP) {
+				LazySmp lazySmp = new LazySmp(threads, table);
+				lazySmp.setParameters(parameters);
+				max = lazySmp.search(iaBoard, side, n, time, prune, cycle);
+			} else if (engine == Engine.YBWC) {
+				YoungBrothers brothers = new YoungBrothers(pool, table);
+				brothers.setParameters(parameters);
+				max = brothers.search(iaBoard, side, n, time, prune, cycle);
+			} else if (!time) {
+				if (pool == null) {
+					max = new Negamax(iaBoard, side, n, 1, prune, -1);
+					max.setTable(table);
+				} else {
+					max = new RootSplit(iaBoard, side, n, prune, -1, pool);
+				}
+				max.setParameters(parameters);
+				max.minimax(-Minimax.INFINITY, Minimax.INFINITY, cycle);
+			} else {
+				max = Minimax.timeMinimax(n, prune, iaBoard, side, cycle,
+						table, pool, parameters);
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+		return max;
+	}
+}
@@ -1,31 +1,141 @@
 package backend;
 
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A compact version of the game Board used by the AI. The position is stored
+ * as two bitboards, one for the computer Blobs and one for the player Blobs,
+ * where the bit number i * columns + j represents the (i, j) cell. Because of
+ * this, the IABoard can hold at most 64 cells. The IABoard also keeps the
+ * Zobrist hash of the position up to date, so it can be used as the key of a
+ * TranspositionTable, and the empty cells each side can reach, so checking
+ * whether a side can still move doesn't need to scan the board. When an
+ * Evaluator is attached, the sum of its square weights over the Blobs of
+ * each side is kept up to date as well, and so is the Accumulator of an
+ * IncrementalEvaluator.
+ * 
+ * The hash is kept for every symmetry of the IABoard as well: the reflections
+ * and the half turn, and on square boards the quarter turns and the
+ * reflections on the diagonals too. Each one is the hash the position would
+ * have once transformed, so the smallest of them identifies the position and
+ * all its symmetric images.
+ */
 public class IABoard {
 
+	private static final long[] COMPUTER_KEYS = new long[64];
+	private static final long[] PLAYER_KEYS = new long[64];
+	private static final long[] FLIP_KEYS = new long[64];
+	private static final long PLAYER_TURN;
+
+	static {
+		Random random = new Random(20101125);
+		for (int i = 0; i < 64; i++) {
+			COMPUTER_KEYS[i] = random.nextLong();
+			PLAYER_KEYS[i] = random.nextLong();
+			FLIP_KEYS[i] = COMPUTER_KEYS[i] ^ PLAYER_KEYS[i];
+		}
+		PLAYER_TURN = random.nextLong();
+	}
+
 	private int rows, columns;
-	private char[][] board;
-	private boolean akedIfGameOver, gameOver, askedPlayerCanMove,
-			playerCanMove;
+	private long computer, player;
+	private long boardMask, notFirstColumn, notLastColumn;
+	private long[] distanceOne, distanceTwo;
+	private int[][] symmetries;
+	private int[][] inverses;
 	private int computerBlobs, playerBlobs;
+	private long computerReach, playerReach;
+	private long[] hashes;
+	private Evaluator evaluator;
+	private int[] squareWeights;
+	private int computerPositional, playerPositional;
+	private Accumulator accumulator;
+	private long[] undoFlipped = new long[16];
+	private int[] undoOrigin = new int[16];
+	private int[] undoDestination = new int[16];
+	private int[] undoComputerDelta = new int[16];
+	private int[] undoPlayerDelta = new int[16];
+	private long[] undoComputerReach = new long[16];
+	private long[] undoPlayerReach = new long[16];
+	private int[] undoComputerPositional = new int[16];
+	private int[] undoPlayerPositional = new int[16];
+	private int undoSize;
 
 	/**
-	 * Constructor for the IABoard class.
+	 * Constructor for the IABoard class. It creates an empty IABoard.
 	 * 
 	 * @param rows
 	 *            the amount of rows for the IABoard.
 	 * @param columns
 	 *            the amount of columns for the IABoard.
-	 * @param computerBlobs
-	 *            the amount of computer Blobs inside the IABoard.
-	 * @param playerBlobs
-	 *            the amount of player Blobs inside the IABoard.
 	 */
-	public IABoard(int rows, int columns, int computerBlobs, int playerBlobs) {
+	public IABoard(int rows, int columns) {
+		if (rows <= 0 || columns <= 0 || rows * columns > 64) {
+			throw new IllegalArgumentException(
+					"Error: the IABoard can hold at most 64 cells.");
+		}
 		this.rows = rows;
 		this.columns = columns;
-		this.board = new char[rows][columns];
-		this.computerBlobs = computerBlobs;
-		this.playerBlobs = playerBlobs;
+		boardMask = rows * columns == 64 ? -1L : (1L << rows * columns) - 1;
+		notFirstColumn = boardMask & ~columnMask(0);
+		notLastColumn = boardMask & ~columnMask(columns - 1);
+		distanceOne = new long[rows * columns];
+		distanceTwo = new long[rows * columns];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				long one = dilate(bit(i, j));
+				distanceOne[square(i, j)] = one & ~bit(i, j);
+				distanceTwo[square(i, j)] = dilate(one) & ~one;
+			}
+		}
+		symmetries = new int[rows == columns ? 8 : 4][rows * columns];
+		inverses = new int[symmetries.length][rows * columns];
+		for (int k = 0; k < symmetries.length; k++) {
+			for (int i = 0; i < rows; i++) {
+				for (int j = 0; j < columns; j++) {
+					int i1 = (k & 1) == 0 ? i : rows - 1 - i;
+					int j1 = (k & 2) == 0 ? j : columns - 1 - j;
+					int square = square(i1, j1);
+					if ((k & 4) != 0) {
+						square = square(j1, i1);
+					}
+					symmetries[k][square(i, j)] = square;
+					inverses[k][square] = square(i, j);
+				}
+			}
+		}
+		hashes = new long[symmetries.length];
+	}
+
+	/**
+	 * Constructor used by clone(): the neighbour masks depend only on the
+	 * size of the IABoard, so they are shared instead of computed again.
+	 */
+	private IABoard(IABoard other) {
+		this.rows = other.rows;
+		this.columns = other.columns;
+		this.boardMask = other.boardMask;
+		this.notFirstColumn = other.notFirstColumn;
+		this.notLastColumn = other.notLastColumn;
+		this.distanceOne = other.distanceOne;
+		this.distanceTwo = other.distanceTwo;
+		this.symmetries = other.symmetries;
+		this.inverses = other.inverses;
+		this.computer = other.computer;
+		this.player = other.player;
+		this.computerBlobs = other.computerBlobs;
+		this.playerBlobs = other.playerBlobs;
+		this.computerReach = other.computerReach;
+		this.playerReach = other.playerReach;
+		this.hashes = other.hashes.clone();
+		this.evaluator = other.evaluator;
+		this.squareWeights = other.squareWeights;
+		this.computerPositional = other.computerPositional;
+		this.playerPositional = other.playerPositional;
+		if (other.accumulator != null) {
+			this.accumulator = other.accumulator.copy();
+		}
 	}
 
 	/**
@@ -65,14 +175,21 @@ public class IABoard {
 	}
 
 	/**
-	 * Returns the Cell object at the i row, j columns position inside the
-	 * Board.
+	 * Returns the char at the i row, j columns position inside the IABoard:
+	 * 'c' for a computer Blob, 'p' for a player Blob and ' ' for the
+	 * Emptyness.
 	 * 
-	 * @return the Cell object at the i row, j columns position inside the
-	 *         Board.
+	 * @return the char at the i row, j columns position inside the IABoard.
 	 */
 	public char at(int i, int j) {
-		return board[i][j];
+		long bit = bit(i, j);
+		if ((computer & bit) != 0) {
+			return 'c';
+		}
+		if ((player & bit) != 0) {
+			return 'p';
+		}
+		return ' ';
 	}
 
 	/**
@@ -80,9 +197,26 @@ public class IABoard {
 	 * 
 	 */
 	public void put(int i, int j, char c) {
-		akedIfGameOver = false;
-		askedPlayerCanMove = false;
-		board[i][j] = c;
+		int square = square(i, j);
+		long bit = 1L << square;
+		if ((computer & bit) != 0) {
+			toggle(COMPUTER_KEYS, square);
+		} else if ((player & bit) != 0) {
+			toggle(PLAYER_KEYS, square);
+		}
+		computer &= ~bit;
+		player &= ~bit;
+		if (c == 'c') {
+			computer |= bit;
+			toggle(COMPUTER_KEYS, square);
+		} else if (c == 'p') {
+			player |= bit;
+			toggle(PLAYER_KEYS, square);
+		}
+		computerBlobs = Long.bitCount(computer);
+		playerBlobs = Long.bitCount(player);
+		updateReach();
+		updatePositional();
 	}
 
 	/**
@@ -95,14 +229,15 @@ public class IABoard {
 	 *            ones.
 	 */
 	public void contaminate(int i, int j) {
-		char c = board[i][j];
-		int iLim = Math.min(i + 2, board.length);
-		int jLim = Math.min(j + 2, board[0].length);
-		for (int i1 = Math.max(i - 1, 0); i1 < iLim; i1++) {
-			for (int j1 = Math.max(j - 1, 0); j1 < jLim; j1++) {
-				convert(i1, j1, c);
-			}
+		int square = square(i, j);
+		long bit = 1L << square;
+		if ((computer & bit) != 0) {
+			flip(distanceOne[square] & player);
+		} else if ((player & bit) != 0) {
+			flip(distanceOne[square] & computer);
 		}
+		updateReach();
+		updatePositional();
 	}
 
 	/**
@@ -117,11 +252,6 @@ public class IABoard {
 	 */
 	public void moveDistanceOne(int i, int j, char c) {
 		put(i, j, c);
-		if (c == 'p') {
-			playerBlobs++;
-		} else {
-			computerBlobs++;
-		}
 	}
 
 	/**
@@ -144,19 +274,127 @@ public class IABoard {
 		put(iFrom, jFrom, ' ');
 	}
 
-	private void convert(int i, int j, char c) {
-		char aux = board[i][j];
-		if (aux != c && aux != ' ') {
-			if (aux == 'p') {
-				board[i][j] = 'c';
-				computerBlobs++;
-				playerBlobs--;
-			} else if (aux == 'c') {
-				board[i][j] = 'p';
-				playerBlobs++;
-				computerBlobs--;
+	/**
+	 * Moves the Blob at (iFrom, jFrom) to the empty cell (iTo, jTo) and
+	 * contaminates its surroundings, modifying the current IABoard instead of
+	 * a copy of it. The changes are recorded, so the movement can be reverted
+	 * with undoMove().
+	 * 
+	 * @param iFrom
+	 *            the initial row number in the Board.
+	 * @param jFrom
+	 *            the initial column number in the Board.
+	 * @param iTo
+	 *            the final row number in the Board.
+	 * @param jTo
+	 *            the final column number in the Board.
+	 * @return false if the destination cell is not empty, in which case the
+	 *         IABoard is not modified; true otherwise.
+	 */
+	public boolean makeMove(int iFrom, int jFrom, int iTo, int jTo) {
+		int from = square(iFrom, jFrom);
+		int to = square(iTo, jTo);
+		long destination = 1L << to;
+		if (((computer | player) & destination) != 0) {
+			return false;
+		}
+		boolean isComputer = (computer & (1L << from)) != 0;
+		long[] keys = isComputer ? COMPUTER_KEYS : PLAYER_KEYS;
+		long previousComputerReach = computerReach;
+		long previousPlayerReach = playerReach;
+		int previousComputerPositional = computerPositional;
+		int previousPlayerPositional = playerPositional;
+		int origin = -1;
+		int delta = 1;
+		if ((distanceOne[from] & destination) == 0) {
+			origin = from;
+			delta = 0;
+			computer &= ~(1L << from);
+			player &= ~(1L << from);
+			toggle(keys, from);
+		}
+		toggle(keys, to);
+		long flipped;
+		if (isComputer) {
+			computer |= destination;
+			flipped = distanceOne[to] & player;
+		} else {
+			player |= destination;
+			flipped = distanceOne[to] & computer;
+		}
+		flip(flipped);
+		updateReach();
+		if (squareWeights != null) {
+			int gained = weight(flipped);
+			int moved = squareWeights[to] - (origin == -1 ? 0
+					: squareWeights[origin]);
+			if (isComputer) {
+				computerPositional += moved + gained;
+				playerPositional -= gained;
+			} else {
+				playerPositional += moved + gained;
+				computerPositional -= gained;
+			}
+		}
+		if (accumulator != null) {
+			accumulator.makeMove(origin, to, flipped, isComputer);
+		}
+		int converted = Long.bitCount(flipped);
+		if (isComputer) {
+			computerBlobs += delta;
+			push(flipped, origin, to, delta + converted, -converted);
+		} else {
+			playerBlobs += delta;
+			push(flipped, origin, to, -converted, delta + converted);
+		}
+		undoComputerReach[undoSize - 1] = previousComputerReach;
+		undoPlayerReach[undoSize - 1] = previousPlayerReach;
+		undoComputerPositional[undoSize - 1] = previousComputerPositional;
+		undoPlayerPositional[undoSize - 1] = previousPlayerPositional;
+		return true;
+	}
+
+	/**
+	 * Reverts the last movement made with makeMove(), restoring the
+	 * contaminated Blobs, the vacated origin cell and the Blob counts.
+	 */
+	public void undoMove() {
+		undoSize--;
+		int to = undoDestination[undoSize];
+		long destination = 1L << to;
+		long flipped = undoFlipped[undoSize];
+		int origin = undoOrigin[undoSize];
+		long[] keys = (computer & destination) != 0 ? COMPUTER_KEYS
+				: PLAYER_KEYS;
+		toggle(keys, to);
+		if (origin != -1) {
+			toggle(keys, origin);
+		}
+		for (long bits = flipped; bits != 0; bits &= bits - 1) {
+			toggle(FLIP_KEYS, Long.numberOfTrailingZeros(bits));
+		}
+		if ((computer & destination) != 0) {
+			computer &= ~(destination | flipped);
+			player |= flipped;
+			if (origin != -1) {
+				computer |= 1L << origin;
+			}
+		} else {
+			player &= ~(destination | flipped);
+			computer |= flipped;
+			if (origin != -1) {
+				player |= 1L << origin;
 			}
 		}
+		computerBlobs -= undoComputerDelta[undoSize];
+		playerBlobs -= undoPlayerDelta[undoSize];
+		computerReach = undoComputerReach[undoSize];
+		playerReach = undoPlayerReach[undoSize];
+		computerPositional = undoComputerPositional[undoSize];
+		playerPositional = undoPlayerPositional[undoSize];
+		if (accumulator != null) {
+			accumulator.undoMove();
+		}
 	}
 
 	/**
@@ -165,61 +403,472 @@ public class IABoard {
 	 * @return a deep copy of the current IABoard.
 	 */
 	public IABoard clone() {
-		IABoard ans = new IABoard(rows, columns, computerBlobs, playerBlobs);
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[i].length; j++) {
-				ans.put(i, j, board[i][j]);
-			}
-		}
-		return ans;
+		return new IABoard(this);
 	}
 
 	/**
-	 * Returns weather the game is over or not.
+	 * Returns weather the game is over or not. The game is over when none of
+	 * the player Blobs has an empty cell at distance one or two.
 	 * 
 	 * @return a boolean value that determines weather the game is over or not.
 	 */
 	public boolean gameOver() {
-		if (!akedIfGameOver) {
-			akedIfGameOver = true;
-			for (int i = 0; i < board.length; i++) {
-				for (int j = 0; j < board[i].length; j++) {
-					if (board[i][j] == 'p') {
-						if (playerCanMove(i, j)) {
-							return gameOver = false;
-						}
-					}
-				}
-			}
-			return gameOver = true;
-		} else {
-			return gameOver;
+		return !canMove('p');
+	}
+
+	/**
+	 * Returns a boolean value that determines weather any of the Blobs
+	 * represented by the char c has an empty cell at distance one or two.
+	 * 
+	 * @param c
+	 *            'c' for the computer Blobs, 'p' for the player Blobs.
+	 * @return a boolean value that determines weather the Blobs can move.
+	 */
+	public boolean canMove(char c) {
+		return (c == 'c' ? computerReach : playerReach) != 0;
+	}
+
+	/**
+	 * Returns the amount of empty cells that at least one of the Blobs
+	 * represented by the char c can move to.
+	 * 
+	 * @param c
+	 *            'c' for the computer Blobs, 'p' for the player Blobs.
+	 * @return the amount of empty cells the Blobs can reach.
+	 */
+	public int mobility(char c) {
+		return Long.bitCount(c == 'c' ? computerReach : playerReach);
+	}
+
+	/**
+	 * Attaches an Evaluator to the IABoard, which from then on keeps the sum
+	 * of its square weights over the Blobs of each side, and the Accumulator
+	 * of an IncrementalEvaluator. The clones of the IABoard share the
+	 * Evaluator and get copies of the Accumulator.
+	 * 
+	 * @param evaluator
+	 *            the Evaluator, or null to evaluate the difference of Blobs.
+	 */
+	public void setEvaluator(Evaluator evaluator) {
+		this.evaluator = evaluator;
+		squareWeights = evaluator == null ? null : evaluator
+				.squareWeights(this);
+		accumulator = null;
+		if (evaluator instanceof IncrementalEvaluator) {
+			accumulator = ((IncrementalEvaluator) evaluator).accumulator(this);
 		}
+		computerPositional = 0;
+		playerPositional = 0;
+		updatePositional();
+	}
+
+	/**
+	 * Returns the Evaluator attached to the IABoard.
+	 * 
+	 * @return the Evaluator, or null if there is none.
+	 */
+	public Evaluator evaluator() {
+		return evaluator;
+	}
+
+	/**
+	 * Returns the Accumulator kept for the attached Evaluator.
+	 * 
+	 * @return the Accumulator, or null if the Evaluator is not an
+	 *         IncrementalEvaluator.
+	 */
+	public Accumulator accumulator() {
+		return accumulator;
+	}
+
+	/**
+	 * Returns the sum of the square weights of the attached Evaluator over
+	 * the Blobs represented by the char c.
+	 * 
+	 * @param c
+	 *            'c' for the computer Blobs, 'p' for the player Blobs.
+	 * @return the sum of the square weights, or 0 if there is no Evaluator.
+	 */
+	public int positional(char c) {
+		return c == 'c' ? computerPositional : playerPositional;
+	}
+
+	/**
+	 * Evaluates the position for the Blobs represented by the char c, right
+	 * after their movement, with the attached Evaluator.
+	 * 
+	 * @param c
+	 *            'c' for the computer Blobs, 'p' for the player Blobs.
+	 * @return the value of the position, which is the difference of Blobs
+	 *         if there is no Evaluator.
+	 */
+	public int evaluate(char c) {
+		if (evaluator == null) {
+			return count(c) - count(opponent(c));
+		}
+		return evaluator.evaluate(this, c);
+	}
+
+	/**
+	 * Returns the amount of Blobs represented by the char c.
+	 * 
+	 * @param c
+	 *            'c' for the computer Blobs, 'p' for the player Blobs.
+	 * @return the amount of Blobs represented by the char c.
+	 */
+	public int count(char c) {
+		return c == 'c' ? computerBlobs : playerBlobs;
 	}
 
 	/**
 	 * Returns a boolean value that determines weather the player has won or
-	 * not.
+	 * not. As the player can't move, the computer claims all the empty cells
+	 * left.
 	 * 
 	 * @return a boolean value that determines weather the player has won or
 	 *         not.
 	 */
 	public boolean playerHasWon() {
-		return gameOver && playerBlobs - computerBlobs > 0;
+		return gameOver()
+				&& playerBlobs() - computerBlobs() - Long.bitCount(empty()) > 0;
+	}
+
+	/**
+	 * Returns the Zobrist hash of the position.
+	 * 
+	 * @return the Zobrist hash of the position.
+	 */
+	public long hash() {
+		return hashes[0];
+	}
+
+	/**
+	 * Returns the Zobrist hash of the position with the given Blobs to move,
+	 * so the same cells with a different turn get a different hash.
+	 * 
+	 * @param turn
+	 *            'c' if the computer moves next, 'p' if the player does.
+	 * @return the Zobrist hash of the position and the turn.
+	 */
+	public long hash(char turn) {
+		return hash(turn, 0);
+	}
+
+	/**
+	 * Returns the Zobrist hash the position would have with the given Blobs
+	 * to move, once transformed by one of its symmetries.
+	 * 
+	 * @param turn
+	 *            'c' if the computer moves next, 'p' if the player does.
+	 * @param symmetry
+	 *            the symmetry, between 0, the identity, and symmetries() - 1.
+	 * @return the Zobrist hash of the transformed position and the turn.
+	 */
+	public long hash(char turn, int symmetry) {
+		return turn == 'p' ? hashes[symmetry] ^ PLAYER_TURN
+				: hashes[symmetry];
+	}
+
+	/**
+	 * Returns the symmetry that transforms the position into the canonical
+	 * one, the symmetric image with the smallest hash. All the symmetric
+	 * images of a position have the same canonical position.
+	 * 
+	 * @param turn
+	 *            'c' if the computer moves next, 'p' if the player does.
+	 * @return the symmetry with the smallest hash.
+	 */
+	public int canonicalSymmetry(char turn) {
+		int best = 0;
+		for (int k = 1; k < hashes.length; k++) {
+			if (hash(turn, k) < hash(turn, best)) {
+				best = k;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the amount of symmetries of the IABoard, counting the identity:
+	 * 8 if the IABoard is square, and 4 otherwise.
+	 * 
+	 * @return the amount of symmetries of the IABoard.
+	 */
+	public int symmetries() {
+		return symmetries.length;
+	}
+
+	/**
+	 * Returns the square a square is taken to by one of the symmetries.
+	 * 
+	 * @param symmetry
+	 *            the symmetry, between 0 and symmetries() - 1.
+	 * @param square
+	 *            a square of the IABoard.
+	 * @return the transformed square.
+	 */
+	public int transform(int symmetry, int square) {
+		return symmetries[symmetry][square];
+	}
+
+	/**
+	 * Returns the square that one of the symmetries takes to the given one.
+	 * 
+	 * @param symmetry
+	 *            the symmetry, between 0 and symmetries() - 1.
+	 * @param square
+	 *            a transformed square.
+	 * @return the original square.
+	 */
+	public int inverseTransform(int symmetry, int square) {
+		return inverses[symmetry][square];
+	}
+
+	/**
+	 * Returns the bitboard of the computer Blobs.
+	 * 
+	 * @return the bitboard of the computer Blobs.
+	 */
+	public long computer() {
+		return computer;
+	}
+
+	/**
+	 * Returns the bitboard of the player Blobs.
+	 * 
+	 * @return the bitboard of the player Blobs.
+	 */
+	public long player() {
+		return player;
+	}
+
+	/**
+	 * Returns the bitboard of the empty cells.
+	 * 
+	 * @return the bitboard of the empty cells.
+	 */
+	public long empty() {
+		return boardMask & ~(computer | player);
+	}
+
+	/**
+	 * Returns the bitboard of the Blobs represented by the char c.
+	 * 
+	 * @param c
+	 *            'c' for the computer Blobs, 'p' for the player Blobs.
+	 * @return the bitboard of the Blobs represented by the char c.
+	 */
+	public long blobs(char c) {
+		return c == 'c' ? computer : player;
+	}
+
+	/**
+	 * Returns the char of the Blobs that play against the ones represented by
+	 * the char c.
+	 * 
+	 * @param c
+	 *            'c' for the computer Blobs, 'p' for the player Blobs.
+	 * @return 'p' if c is 'c', and 'c' otherwise.
+	 */
+	public static char opponent(char c) {
+		return c == 'c' ? 'p' : 'c';
+	}
+
+	/**
+	 * Returns the bitboard of the empty cells a Blob standing at the given
+	 * square can move to.
+	 * 
+	 * @param square
+	 *            the square of the Blob.
+	 * @return the bitboard of the empty cells at distance one or two from the
+	 *         square.
+	 */
+	public long reachable(int square) {
+		return (distanceOne[square] | distanceTwo[square]) & empty();
+	}
+
+	/**
+	 * Returns the empty cells the Blobs represented by c can clone to. A clone
+	 * leaves the same IABoard whichever Blob it comes from, so each of these
+	 * cells is a single movement.
+	 * 
+	 * @param c
+	 *            'c' for the computer Blobs, 'p' for the player Blobs.
+	 * @return the bitboard of the empty cells next to the Blobs.
+	 */
+	public long cloneTargets(char c) {
+		return dilate(blobs(c)) & empty();
+	}
+
+	/**
+	 * Returns the Blob used to clone to the given cell: the one at the lowest
+	 * square among the Blobs represented by c that are next to it.
+	 * 
+	 * @param c
+	 *            'c' for the computer Blobs, 'p' for the player Blobs.
+	 * @param to
+	 *            a cell returned by cloneTargets().
+	 * @return the square of the Blob.
+	 */
+	public int cloneOrigin(char c, int to) {
+		return Long.numberOfTrailingZeros(distanceOne[to] & blobs(c));
+	}
+
+	/**
+	 * Returns the empty cells a Blob standing at the given square can jump to.
+	 * 
+	 * @param square
+	 *            the square of the Blob.
+	 * @return the bitboard of the empty cells at distance two from the square.
+	 */
+	public long jumpTargets(int square) {
+		return distanceTwo[square] & empty();
+	}
+
+	/**
+	 * Splits the given empty cells into regions: two empty cells belong to the
+	 * same region when they are at distance one or two, so a Blob next to one
+	 * of them could reach the other one.
+	 * 
+	 * @param empty
+	 *            the bitboard of the empty cells.
+	 * @return the bitboards of the regions.
+	 */
+	public long[] regions(long empty) {
+		long[] regions = new long[Long.bitCount(empty)];
+		int size = 0;
+		while (empty != 0) {
+			long region = region(empty & -empty, empty);
+			regions[size++] = region;
+			empty &= ~region;
+		}
+		return Arrays.copyOf(regions, size);
+	}
+
+	/**
+	 * Returns the region of the given empty cells that contains some cells,
+	 * as in regions().
+	 * 
+	 * @param cells
+	 *            the bitboard of the cells the region grows from, all of them
+	 *            in the same region.
+	 * @param empty
+	 *            the bitboard of the empty cells.
+	 * @return the bitboard of the region.
+	 */
+	public long region(long cells, long empty) {
+		long region = cells;
+		long grown = dilate(dilate(region)) & empty;
+		while (grown != region) {
+			region = grown;
+			grown = dilate(dilate(region)) & empty;
+		}
+		return region;
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the regions are
+	 * independent: no Blob is at distance one or two of two different regions.
+	 * This only holds for the current position: the cell a Blob jumps from
+	 * joins the region it jumps to, and may bring another Blob within reach
+	 * of that region and of a different one, so it must be checked again
+	 * after every movement.
+	 * 
+	 * @param regions
+	 *            the regions returned by regions().
+	 * @param blobs
+	 *            the bitboard of the Blobs of both sides.
+	 * @return a boolean value that determines weather the regions are
+	 *         independent.
+	 */
+	public boolean independent(long[] regions, long blobs) {
+		long reached = 0;
+		for (long region : regions) {
+			long near = dilate(dilate(region)) & blobs;
+			if ((near & reached) != 0) {
+				return false;
+			}
+			reached |= near;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the mask of the cells at distance one from the square.
+	 * 
+	 * @param square
+	 *            a square of the IABoard.
+	 * @return the mask of the cells at distance one from the square.
+	 */
+	public long distanceOne(int square) {
+		return distanceOne[square];
+	}
+
+	/**
+	 * Returns the mask of the cells at distance two from the square.
+	 * 
+	 * @param square
+	 *            a square of the IABoard.
+	 * @return the mask of the cells at distance two from the square.
+	 */
+	public long distanceTwo(int square) {
+		return distanceTwo[square];
+	}
+
+	/**
+	 * Returns the given bitboard together with every cell at distance one
+	 * from it.
+	 * 
+	 * @param bits
+	 *            the bitboard to be dilated.
+	 * @return the dilated bitboard.
+	 */
+	public long dilate(long bits) {
+		long horizontal = bits | ((bits << 1) & notFirstColumn)
+				| ((bits >>> 1) & notLastColumn);
+		return (horizontal | (horizontal << columns) | (horizontal >>> columns))
+				& boardMask;
+	}
+
+	/**
+	 * Returns the square number of the (i, j) cell.
+	 * 
+	 * @return the square number of the (i, j) cell.
+	 */
+	public int square(int i, int j) {
+		return i * columns + j;
+	}
+
+	/**
+	 * Returns the row number of the square.
+	 * 
+	 * @return the row number of the square.
+	 */
+	public int row(int square) {
+		return square / columns;
+	}
+
+	/**
+	 * Returns the column number of the square.
+	 * 
+	 * @return the column number of the square.
+	 */
+	public int column(int square) {
+		return square % columns;
 	}
 
 	/**
 	 * Returns a representation of the IABoard as a String. The IABoard is
-	 * represented with blank spaces for the Emptyness, ones for the player
-	 * blobs and twos for the computer blobs.
+	 * represented with blank spaces for the Emptyness, p for the player blobs
+	 * and c for the computer blobs.
 	 * 
 	 * @return a representation of the IABoard as a String.
 	 */
 	public String toString() {
 		String ans = "";
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[i].length; j++) {
-				ans += board[i][j];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				ans += at(i, j);
 			}
 			ans += "\n";
 		}
@@ -227,25 +876,105 @@ public class IABoard {
 	}
 
 	/**
-	 * Determines weather the Player can move in any direction inside the Board.
-	 * 
-	 * @return a boolean value that determines weather the Player can move in
-	 *         any direction inside the Board.
+	 * Switches the owner of every Blob in the flipped mask.
 	 */
-	private boolean playerCanMove(int i, int j) {
-		if (!askedPlayerCanMove) {
-			askedPlayerCanMove = true;
-			int aLim = Math.min(i + 3, board.length);
-			int bLim = Math.min(j + 3, board[0].length);
-			for (int a = Math.max(i - 2, 0); a < aLim; a++) {
-				for (int b = Math.max(j - 2, 0); b < bLim; b++) {
-					if (board[a][b] == ' ') {
-						return playerCanMove = true;
-					}
-				}
-			}
-			return playerCanMove = false;
+	private void flip(long flipped) {
+		int converted = Long.bitCount(flipped);
+		for (long bits = flipped; bits != 0; bits &= bits - 1) {
+			toggle(FLIP_KEYS, Long.numberOfTrailingZeros(bits));
+		}
+		if ((computer & flipped) != 0) {
+			computer ^= flipped;
+			player |= flipped;
+			computerBlobs -= converted;
+			playerBlobs += converted;
+		} else {
+			player ^= flipped;
+			computer |= flipped;
+			playerBlobs -= converted;
+			computerBlobs += converted;
+		}
+	}
+
+	/**
+	 * Computes again the empty cells at distance one or two from the Blobs of
+	 * each side, by dilating their bitboards twice.
+	 */
+	private void updateReach() {
+		long empty = empty();
+		computerReach = dilate(dilate(computer)) & empty;
+		playerReach = dilate(dilate(player)) & empty;
+	}
+
+	/**
+	 * Computes again the sums of the square weights of both sides, and the
+	 * Accumulator.
+	 */
+	private void updatePositional() {
+		if (squareWeights != null) {
+			computerPositional = weight(computer);
+			playerPositional = weight(player);
+		}
+		if (accumulator != null) {
+			accumulator.reset(computer, player);
+		}
+	}
+
+	/**
+	 * Returns the sum of the square weights of the bits.
+	 */
+	private int weight(long bits) {
+		int sum = 0;
+		for (; bits != 0; bits &= bits - 1) {
+			sum += squareWeights[Long.numberOfTrailingZeros(bits)];
+		}
+		return sum;
+	}
+
+	/**
+	 * Adds or removes the key of a square to the hashes of every symmetry.
+	 */
+	private void toggle(long[] keys, int square) {
+		for (int k = 0; k < hashes.length; k++) {
+			hashes[k] ^= keys[symmetries[k][square]];
+		}
+	}
+
+	/**
+	 * Saves the undo record of a movement.
+	 */
+	private void push(long flipped, int origin, int destination,
+			int computerDelta, int playerDelta) {
+		if (undoSize == undoFlipped.length) {
+			int length = undoSize * 2;
+			undoFlipped = Arrays.copyOf(undoFlipped, length);
+			undoOrigin = Arrays.copyOf(undoOrigin, length);
+			undoDestination = Arrays.copyOf(undoDestination, length);
+			undoComputerDelta = Arrays.copyOf(undoComputerDelta, length);
+			undoPlayerDelta = Arrays.copyOf(undoPlayerDelta, length);
+			undoComputerReach = Arrays.copyOf(undoComputerReach, length);
+			undoPlayerReach = Arrays.copyOf(undoPlayerReach, length);
+			undoComputerPositional = Arrays.copyOf(undoComputerPositional,
+					length);
+			undoPlayerPositional = Arrays.copyOf(undoPlayerPositional, length);
+		}
+		undoFlipped[undoSize] = flipped;
+		undoOrigin[undoSize] = origin;
+		undoDestination[undoSize] = destination;
+		undoComputerDelta[undoSize] = computerDelta;
+		undoPlayerDelta[undoSize] = playerDelta;
+		undoSize++;
+	}
+
+	private long bit(int i, int j) {
+		return 1L << square(i, j);
+	}
+
+	private long columnMask(int j) {
+		long mask = 0;
+		for (int i = 0; i < rows; i++) {
+			mask |= bit(i, j);
 		}
-		return playerCanMove;
+		return mask;
 	}
-}
\ No newline at end of file
+}
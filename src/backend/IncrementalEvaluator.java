@@ -0,0 +1,21 @@
+package backend;
+
+/**
+ * An Evaluator whose state of the position is too large for square weights,
+ * and is kept instead by an Accumulator that the IABoard updates along with
+ * the Blobs. At each leaf, the Evaluator reads the Accumulator of the IABoard
+ * with IABoard.accumulator().
+ */
+public interface IncrementalEvaluator extends Evaluator {
+
+	/**
+	 * Creates an empty Accumulator for a board.
+	 * 
+	 * @param geometry
+	 *            an IABoard with the size of the board.
+	 * @return the Accumulator, which the IABoard resets before using it.
+	 * @throws IllegalArgumentException
+	 *             if the Evaluator can't evaluate boards of that size.
+	 */
+	Accumulator accumulator(IABoard geometry);
+}
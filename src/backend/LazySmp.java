@@ -0,0 +1,101 @@
+package backend;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A parallel engine where every thread runs the same iterative deepening
+ * search of Negamax on its own copy of the IABoard. The threads don't
+ * divide the work explicitly: they only communicate through a shared
+ * TranspositionTable, so the results found by one thread are reused by the
+ * others. The helper threads start at staggered depths and search the
+ * movements in different orders, so they tend to fill the table with the
+ * positions the main thread is about to need. Only the result of the main
+ * thread is used.
+ */
+public class LazySmp {
+
+	private int threads;
+	private TranspositionTable table;
+	private SearchParameters parameters = SearchParameters.DEFAULT;
+
+	/**
+	 * Constructor for the LazySmp class.
+	 * 
+	 * @param threads
+	 *            the amount of threads, including the main one.
+	 * @param table
+	 *            the TranspositionTable shared by all the threads.
+	 */
+	public LazySmp(int threads, TranspositionTable table) {
+		this.threads = threads;
+		this.table = table;
+	}
+
+	/**
+	 * Setter for the SearchParameters of the search.
+	 * 
+	 * @param parameters
+	 *            the SearchParameters.
+	 */
+	public void setParameters(SearchParameters parameters) {
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Searches the best movement for the computer. The main thread runs the
+	 * iterative deepening up to the depth n, or for n milliseconds in time
+	 * mode; the helpers run until the main thread is done.
+	 * 
+	 * @param iaBoard
+	 *            a reference to the game IABoard.
+	 * @param side
+	 *            the char of the Blobs of the computer.
+	 * @param n
+	 *            the depth, or the time in milliseconds.
+	 * @param time
+	 *            a boolean value that determines weather n is a time or a
+	 *            depth.
+	 * @param prune
+	 *            a boolean value that determines weather the minimax algorithm
+	 *            will be executed with or without pruning.
+	 * @param cycles
+	 *            the Cycle object where the cycles of all the threads are
+	 *            added.
+	 * @return the Minimax object of the last iteration completed by the main
+	 *         thread.
+	 */
+	public Minimax search(final IABoard iaBoard, final char side, int n,
+			boolean time, final boolean prune, Cycle cycles) {
+		final long timeMillis = time ? System.currentTimeMillis() + n : -1;
+		final AtomicBoolean stop = new AtomicBoolean();
+		Thread[] helpers = new Thread[threads - 1];
+		Cycle[] helperCycles = new Cycle[threads - 1];
+		for (int k = 0; k < helpers.length; k++) {
+			final int variant = k + 1;
+			final Cycle helperCycle = new Cycle();
+			helperCycles[k] = helperCycle;
+			helpers[k] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Minimax.deepen(iaBoard.clone(), side, 1 + variant % 2,
+							Minimax.MAX_DEPTH, timeMillis, prune, helperCycle,
+							table, null, stop, variant, parameters);
+				}
+			});
+			helpers[k].start();
+		}
+		Minimax result = Minimax.deepen(iaBoard, side, 1,
+				time ? Minimax.MAX_DEPTH : n, timeMillis, prune, cycles, table,
+				null, null, 0, parameters);
+		stop.set(true);
+		for (int k = 0; k < helpers.length; k++) {
+			try {
+				helpers[k].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			cycles.add(helperCycles[k]);
+		}
+		return result;
+	}
+}
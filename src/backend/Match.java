@@ -0,0 +1,125 @@
+package backend;
+
+/**
+ * A game between two Contenders from a given position, played without a
+ * Board. The game ends when the side to move can't move, and its opponent
+ * claims all the empty cells left, as in the Game. A game that goes on for
+ * MAX_PLIES plies, which may happen when both sides only jump back and
+ * forth, is decided by the Blobs on the board.
+ */
+public class Match {
+
+	/**
+	 * The amount of plies after which a game is decided by the Blobs on the
+	 * board.
+	 */
+	public static final int MAX_PLIES = 400;
+
+	private IABoard iaBoard;
+	private char side;
+	private int plies;
+
+	/**
+	 * Constructor for the Match class.
+	 * 
+	 * @param start
+	 *            the IABoard of the starting position, which is not modified.
+	 * @param first
+	 *            the char of the Blobs that move first.
+	 */
+	public Match(IABoard start, char first) {
+		iaBoard = start.clone();
+		iaBoard.setEvaluator(null);
+		side = first;
+	}
+
+	/**
+	 * Plays the game until the end.
+	 * 
+	 * @param computer
+	 *            the Contender of the computer Blobs.
+	 * @param player
+	 *            the Contender of the player Blobs.
+	 * @param cycles
+	 *            the Cycle object where the searches are registered.
+	 * @return the result of the computer: 1 for a win, 0.5 for a draw and 0
+	 *         for a loss.
+	 */
+	public double play(Contender computer, Contender player, Cycle cycles) {
+		while (!over()) {
+			int move = (side == 'c' ? computer : player).move(iaBoard, side,
+					cycles);
+			if (move == -1) {
+				throw new IllegalStateException("Error: the contender "
+						+ side + " didn't move.");
+			}
+			makeMove(move);
+		}
+		return result();
+	}
+
+	/**
+	 * Makes a movement of the side to move, which is then the other side.
+	 * 
+	 * @param move
+	 *            the movement, as from * 64 + to.
+	 */
+	public void makeMove(int move) {
+		iaBoard.makeMove(iaBoard.row(move / 64), iaBoard.column(move / 64),
+				iaBoard.row(move % 64), iaBoard.column(move % 64));
+		side = IABoard.opponent(side);
+		plies++;
+	}
+
+	/**
+	 * Returns weather the game is over: the side to move can't move, or
+	 * MAX_PLIES plies were played.
+	 * 
+	 * @return a boolean value that determines weather the game is over.
+	 */
+	public boolean over() {
+		return !iaBoard.canMove(side) || plies >= MAX_PLIES;
+	}
+
+	/**
+	 * Returns the result of the game as it is now, as if it were over.
+	 * 
+	 * @return the result of the computer: 1 for a win, 0.5 for a draw and 0
+	 *         for a loss.
+	 */
+	public double result() {
+		int difference = iaBoard.count('c') - iaBoard.count('p');
+		if (!iaBoard.canMove(side)) {
+			int claimed = Long.bitCount(iaBoard.empty());
+			difference += side == 'c' ? -claimed : claimed;
+		}
+		return difference > 0 ? 1 : difference == 0 ? 0.5 : 0;
+	}
+
+	/**
+	 * Returns the side to move.
+	 * 
+	 * @return the char of the Blobs that move next.
+	 */
+	public char side() {
+		return side;
+	}
+
+	/**
+	 * Returns the amount of plies played.
+	 * 
+	 * @return the amount of plies.
+	 */
+	public int plies() {
+		return plies;
+	}
+
+	/**
+	 * Returns the IABoard of the game, as it is now.
+	 * 
+	 * @return the IABoard of the game.
+	 */
+	public IABoard board() {
+		return iaBoard;
+	}
+}
@@ -1,5 +1,10 @@
 package backend;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public abstract class Minimax {
 
 	private IABoard iaBoard;
@@ -9,6 +14,39 @@ public abstract class Minimax {
 	public int iFrom, jFrom, iTo, jTo;
 	private long timeMillis = -1;
 	public boolean prune;
+	private TranspositionTable table;
+	private boolean timedOut;
+	private boolean hasMovement;
+	private int firstMove = -1;
+	private int[] rootScores;
+	private AtomicBoolean stop;
+	private int variant;
+	private Split split;
+	private int minSplitDepth;
+	private MoveOrdering ordering;
+	private int searched;
+	private SearchParameters parameters = SearchParameters.DEFAULT;
+
+	/**
+	 * The maximum depth reached by the iterative deepening.
+	 */
+	public static final int MAX_DEPTH = 64;
+
+	/**
+	 * A value greater than the value of any position, whose sign can be
+	 * changed without overflowing.
+	 */
+	public static final int INFINITY = Integer.MAX_VALUE;
+
+	/**
+	 * The value of a won game for the side to move.
+	 */
+	public static final int WIN = INFINITY - 1;
+
+	/**
+	 * The value of a lost game for the side to move.
+	 */
+	public static final int LOSS = -WIN;
 
 	/**
 	 * Constructor for the Minimax class.
@@ -138,6 +176,18 @@ public abstract class Minimax {
 		this.jFrom = jFrom;
 		this.iTo = iTo;
 		this.jTo = jTo;
+		this.hasMovement = true;
+	}
+
+	/**
+	 * Returns a boolean value that determines weather a best movement was
+	 * set.
+	 * 
+	 * @return a boolean value that determines weather a best movement was
+	 *         set.
+	 */
+	public boolean hasMovement() {
+		return hasMovement;
 	}
 
 	/**
@@ -187,6 +237,654 @@ public abstract class Minimax {
 		this.iaBoard = iaBoard;
 	}
 
+	/**
+	 * Getter for the TranspositionTable shared by the whole search.
+	 * 
+	 * @return the TranspositionTable, or null if the search doesn't use one.
+	 */
+	public TranspositionTable table() {
+		return table;
+	}
+
+	/**
+	 * Setter for the TranspositionTable shared by the whole search.
+	 * 
+	 * @param table
+	 *            the TranspositionTable to be used, or null to search without
+	 *            one.
+	 */
+	public void setTable(TranspositionTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the search was
+	 * interrupted because it ran out of time. If true, the best movement and
+	 * its value are not reliable.
+	 * 
+	 * @return a boolean value that determines weather the search ran out of
+	 *         time.
+	 */
+	public boolean timedOut() {
+		return timedOut;
+	}
+
+	/**
+	 * Setter for the time out flag.
+	 * 
+	 * @param timedOut
+	 *            a boolean value that determines weather the search ran out of
+	 *            time.
+	 */
+	public void setTimedOut(boolean timedOut) {
+		this.timedOut = timedOut;
+	}
+
+	/**
+	 * Checks, once every checkInterval() cycles of the SearchParameters,
+	 * weather the algorithm ran out of time or was asked to stop, and on every
+	 * call weather a split point above this node was aborted. If any of them
+	 * happened, the time out flag is set.
+	 * 
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @return a boolean value that determines weather the algorithm ran out of
+	 *         time.
+	 */
+	public boolean outOfTime(Cycle cycles) {
+		if (split != null && split.aborted()) {
+			timedOut = true;
+			return true;
+		}
+		if (cycles.cycle() >= parameters.checkInterval()) {
+			if (expired()) {
+				timedOut = true;
+				return true;
+			}
+			cycles.reset();
+		}
+		return false;
+	}
+
+	private boolean expired() {
+		return time() && timeMillis() <= System.currentTimeMillis()
+				|| stop != null && stop.get();
+	}
+
+	/**
+	 * Setter for the SearchParameters of the search.
+	 * 
+	 * @param parameters
+	 *            the SearchParameters.
+	 */
+	public void setParameters(SearchParameters parameters) {
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Setter for the flag that stops the search from another thread. When the
+	 * flag is set, the search ends as if it had run out of time.
+	 * 
+	 * @param stop
+	 *            the flag, or null if the search can't be stopped.
+	 */
+	public void setStop(AtomicBoolean stop) {
+		this.stop = stop;
+	}
+
+	/**
+	 * Setter for the move ordering variant. Variant 0 is the normal ordering;
+	 * the helper threads of LazySmp use other variants, so they don't search
+	 * the tree in the same order as the main thread.
+	 * 
+	 * @param variant
+	 *            the move ordering variant.
+	 */
+	public void setVariant(int variant) {
+		this.variant = variant;
+	}
+
+	/**
+	 * Makes the search split the younger brothers of the nodes that have at
+	 * least minSplitDepth plies left, as in the Young Brothers Wait Concept:
+	 * once the first movement of such a node was searched, the rest are
+	 * searched in parallel by the ForkJoinPool that runs the search. It only
+	 * works with pruning, and the search must run inside the ForkJoinPool.
+	 * 
+	 * @param minSplitDepth
+	 *            the minimum amount of plies left for a node to be split, or 0
+	 *            to search sequentially.
+	 */
+	public void setSplitting(int minSplitDepth) {
+		this.minSplitDepth = minSplitDepth;
+	}
+
+	/**
+	 * Getter for the MoveOrdering shared by the whole search. If none was set,
+	 * a new one is created.
+	 * 
+	 * @return the MoveOrdering of the search.
+	 */
+	public MoveOrdering ordering() {
+		if (ordering == null) {
+			ordering = new MoveOrdering();
+		}
+		return ordering;
+	}
+
+	/**
+	 * Setter for the MoveOrdering shared by the whole search.
+	 * 
+	 * @param ordering
+	 *            the MoveOrdering to be used.
+	 */
+	public void setOrdering(MoveOrdering ordering) {
+		this.ordering = ordering;
+	}
+
+	/**
+	 * Makes a child node share the search state of this one: the
+	 * TranspositionTable, the MoveOrdering, the stop flag, the move ordering
+	 * variant, the closest split point and the SearchParameters.
+	 * 
+	 * @param child
+	 *            the child node.
+	 */
+	public void inherit(Minimax child) {
+		child.table = table;
+		child.ordering = ordering();
+		child.stop = stop;
+		child.variant = variant;
+		child.split = split;
+		child.minSplitDepth = minSplitDepth;
+		child.parameters = parameters;
+	}
+
+	/**
+	 * Searches a movement of this node. See tryMove().
+	 * 
+	 * @param move
+	 *            the movement, as from * 64 + to.
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @return true if the remaining movements must not be searched, because
+	 *         of a pruning, a winning movement or a time out.
+	 */
+	public boolean searchMove(int move, Cycle cycles) {
+		searched++;
+		return tryMove(move / 64, move % 64, cycles);
+	}
+
+	/**
+	 * Searches the movements of this node in the given order, until one of
+	 * them makes the node prune the rest. If the node can be split, only the
+	 * first movement searched by this node is searched alone, and the rest are
+	 * searched in parallel by searchSiblings().
+	 * 
+	 * @param moves
+	 *            the movements, as from * 64 + to.
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @return true if the node must not search any other movement, because
+	 *         of a pruning, a winning movement or a time out.
+	 */
+	public boolean searchMoves(int[] moves, Cycle cycles) {
+		boolean cutoff = false;
+		int k = 0;
+		for (; !cutoff && k < moves.length
+				&& (searched == 0 || !canSplit()); k++) {
+			cutoff = searchMove(moves[k], cycles);
+		}
+		if (!cutoff && k < moves.length) {
+			cutoff = searchSiblings(moves, k, cycles);
+		}
+		return cutoff;
+	}
+
+	/**
+	 * Registers that this node pruned its remaining movements: the movement
+	 * that caused it is given to the MoveOrdering, and the Cycle object counts
+	 * weather it was the first movement searched.
+	 * 
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 */
+	public void registerCutoff(Cycle cycles) {
+		if (searched == 0) {
+			return;
+		}
+		cycles.cutoff(searched == 1);
+		if (hasMovement) {
+			ordering().cutoff(currentDepth, movement(), remainingDepth());
+		}
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the younger brothers of
+	 * this node must be searched in parallel.
+	 * 
+	 * @return a boolean value that determines weather this node is split.
+	 */
+	public boolean canSplit() {
+		return minSplitDepth > 0 && prune() && currentDepth < depth
+				&& remainingDepth() >= minSplitDepth;
+	}
+
+	/**
+	 * Returns all the movements of the Blobs represented by c, as from * 64 +
+	 * to, except the skipped one: a single clone for each empty cell next to
+	 * the Blobs, made by the Blob given by IABoard.cloneOrigin(), followed by
+	 * the jumps of every Blob. The cells and the Blobs are taken in the order
+	 * given by nextSquare().
+	 * 
+	 * @param c
+	 *            the char of the side to move.
+	 * @param skip
+	 *            a movement that must not be returned, or -1.
+	 * @return the movements.
+	 */
+	public int[] moves(char c, int skip) {
+		int[] moves = new int[64];
+		int size = 0;
+		long clones = iaBoard.cloneTargets(c);
+		while (clones != 0) {
+			int to = nextSquare(clones);
+			clones &= ~(1L << to);
+			int move = iaBoard.cloneOrigin(c, to) * 64 + to;
+			if (move != skip) {
+				moves[size++] = move;
+			}
+		}
+		long blobs = iaBoard.blobs(c);
+		while (blobs != 0) {
+			int from = nextSquare(blobs);
+			blobs &= ~(1L << from);
+			long targets = iaBoard.jumpTargets(from);
+			while (targets != 0) {
+				int to = nextSquare(targets);
+				targets &= ~(1L << to);
+				if (from * 64 + to == skip) {
+					continue;
+				}
+				if (size == moves.length) {
+					moves = Arrays.copyOf(moves, size * 2);
+				}
+				moves[size++] = from * 64 + to;
+			}
+		}
+		return Arrays.copyOf(moves, size);
+	}
+
+	/**
+	 * Searches the younger brothers of this node in parallel, each one by a
+	 * task with its own copy of the node and of the IABoard. The tasks share
+	 * the best value found so far, so the ones started later still prune, and
+	 * when one of them makes the node prune, the rest are aborted. Then, the
+	 * best movement of the tasks is assigned to this node.
+	 * 
+	 * @param moves
+	 *            the movements of the node, as from * 64 + to.
+	 * @param start
+	 *            the index of the first movement to be searched.
+	 * @param cycles
+	 *            the Cycle object of the search, where the statistics of the
+	 *            tasks are added.
+	 * @return true if the node must not search any other movement, because
+	 *         of a pruning, a winning movement or a time out.
+	 */
+	public boolean searchSiblings(int[] moves, int start, Cycle cycles) {
+		Split brothers = new Split(split, this.value);
+		SiblingTask[] tasks = new SiblingTask[moves.length - start];
+		for (int k = 0; k < tasks.length; k++) {
+			tasks[k] = new SiblingTask(moves[start + k], brothers);
+		}
+		cycles.split();
+		searched += tasks.length;
+		long begining = System.nanoTime();
+		ForkJoinTask.invokeAll(tasks);
+		cycles.waited(System.nanoTime() - begining);
+		boolean won = false;
+		for (SiblingTask task : tasks) {
+			cycles.add(task.cycles);
+			if (task.node == null || task.node.timedOut()) {
+				if (brothers.aborted()) {
+					cycles.abort();
+				}
+				if (!brothers.cutoff()) {
+					timedOut = true;
+				}
+			} else {
+				won |= task.won;
+				if (task.node.hasMovement()) {
+					assignBestMove(task.node.value(), task.node.iFrom,
+							task.node.jFrom, task.node.iTo, task.node.jTo);
+				}
+			}
+		}
+		return won || brothers.cutoff() || timedOut;
+	}
+
+	/**
+	 * The search of one of the younger brothers of a split node. As the tasks
+	 * are usually too short to reach the parameters.checkInterval() cycles of
+	 * outOfTime(), each one checks the time before starting.
+	 */
+	private class SiblingTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private int move;
+		private Split brothers;
+		private Minimax node;
+		private boolean won;
+		private Cycle cycles = new Cycle();
+
+		public SiblingTask(int move, Split brothers) {
+			this.move = move;
+			this.brothers = brothers;
+		}
+
+		@Override
+		protected void compute() {
+			long begining = System.nanoTime();
+			if (!brothers.aborted() && !expired()) {
+				node = copy(iaBoard.clone());
+				inherit(node);
+				node.split = brothers;
+				node.rootScores = rootScores;
+				node.setValue(brothers.best());
+				won = node.tryMove(move / 64, move % 64, cycles);
+				if (!node.timedOut()) {
+					brothers.raise(node.value());
+					if (won) {
+						brothers.cut();
+					}
+				}
+			}
+			cycles.busy(System.nanoTime() - begining);
+		}
+	}
+
+	/**
+	 * Returns a new node of the same class and depth as this one, for the
+	 * given IABoard. It is used to search the younger brothers of a split
+	 * node.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the new node.
+	 * @return the new node.
+	 */
+	protected abstract Minimax copy(IABoard iaBoard);
+
+	/**
+	 * Makes the movement from the from square to the to square, computes its
+	 * value, undoes it and assigns it as the best movement if it is.
+	 * 
+	 * @param from
+	 *            the square of the Blob to be moved.
+	 * @param to
+	 *            the square where the Blob will be moved.
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @return true if the remaining movements must not be searched, because
+	 *         of a pruning, a winning movement or a time out.
+	 */
+	protected abstract boolean tryMove(int from, int to, Cycle cycles);
+
+	/**
+	 * If the value parameter is better than the value stored in this node,
+	 * then the stored value will be replaced with the one received, and the
+	 * best movement will also be updated.
+	 * 
+	 * @param value
+	 *            the value of a certain movement.
+	 * @param iFrom
+	 *            the initial row number of the movement.
+	 * @param jFrom
+	 *            the initial column number of the movement.
+	 * @param iTo
+	 *            the final row number of the movement.
+	 * @param jTo
+	 *            the final column number of the movement.
+	 */
+	public abstract void assignBestMove(int value, int iFrom, int jFrom,
+			int iTo, int jTo);
+
+	/**
+	 * Returns the square of the next Blob or cell of the bitboard to be
+	 * searched: the lowest one for the even variants and the highest one for
+	 * the odd variants.
+	 * 
+	 * @param bits
+	 *            a non empty bitboard.
+	 * @return the square of the next bit to be searched.
+	 */
+	public int nextSquare(long bits) {
+		if (variant % 2 == 0) {
+			return Long.numberOfTrailingZeros(bits);
+		}
+		return 63 - Long.numberOfLeadingZeros(bits);
+	}
+
+	/**
+	 * Returns the amount of plies that remain to be searched from this node.
+	 * 
+	 * @return the amount of plies that remain to be searched from this node.
+	 */
+	public int remainingDepth() {
+		return depth - currentDepth + 1;
+	}
+
+	/**
+	 * Looks for the position in the TranspositionTable, if there is one.
+	 * 
+	 * @param key
+	 *            the canonical hash of the position and the turn.
+	 * @param symmetry
+	 *            the symmetry of the IABoard used to compute the key.
+	 * @param cycles
+	 *            the Cycle object of the search, where the look up is
+	 *            registered.
+	 * @return the packed entry, or 0 if the position wasn't found.
+	 */
+	public long probe(long key, int symmetry, Cycle cycles) {
+		if (table == null) {
+			return 0;
+		}
+		long entry = table.probe(key);
+		cycles.probe(entry != 0);
+		if (entry != 0 && TranspositionTable.symmetry(entry) != symmetry) {
+			cycles.symmetricHit();
+		}
+		return entry;
+	}
+
+	/**
+	 * Returns the best movement of a packed entry, taken back from the
+	 * canonical position to the IABoard of this node. A clone is made again
+	 * from the Blob chosen by IABoard.cloneOrigin().
+	 * 
+	 * @param c
+	 *            the char of the side to move.
+	 * @param entry
+	 *            the packed entry, or 0.
+	 * @param symmetry
+	 *            the symmetry of the IABoard used to compute the key.
+	 * @return the movement as from * 64 + to, or -1 if there is none.
+	 */
+	public int tableMove(char c, long entry, int symmetry) {
+		int move = TranspositionTable.move(entry);
+		int size = iaBoard.rows() * iaBoard.columns();
+		if (move < 0 || move / 64 >= size || move % 64 >= size) {
+			return -1;
+		}
+		int from = iaBoard.inverseTransform(symmetry, move / 64);
+		int to = iaBoard.inverseTransform(symmetry, move % 64);
+		long blobs = iaBoard.blobs(c);
+		if ((iaBoard.distanceOne(to) & blobs & (1L << from)) != 0) {
+			from = iaBoard.cloneOrigin(c, to);
+		}
+		return from * 64 + to;
+	}
+
+	/**
+	 * Stores the value and the best movement of this node in the
+	 * TranspositionTable, if there is one.
+	 * 
+	 * @param key
+	 *            the canonical hash of the position and the turn.
+	 * @param symmetry
+	 *            the symmetry of the IABoard used to compute the key. The best
+	 *            movement is stored transformed by it.
+	 * @param bound
+	 *            the bound type of the stored value.
+	 * @param cycles
+	 *            the Cycle object of the search, where the replacements are
+	 *            registered.
+	 */
+	public void store(long key, int symmetry, int bound, Cycle cycles) {
+		if (table == null) {
+			return;
+		}
+		int move = -1;
+		if (hasMovement) {
+			int from = iaBoard.square(iFrom, jFrom);
+			int to = iaBoard.square(iTo, jTo);
+			move = iaBoard.transform(symmetry, from) * 64
+					+ iaBoard.transform(symmetry, to);
+		}
+		if (table.store(key, remainingDepth(), bound, value, move, symmetry)) {
+			cycles.replacement();
+		}
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the Blob at the from
+	 * square, which must belong to the side to move, can move to the to
+	 * square. It is used to validate the movements read from the
+	 * TranspositionTable. A clone is only valid from the Blob chosen by
+	 * IABoard.cloneOrigin(), as moves() returns it.
+	 * 
+	 * @param c
+	 *            the char of the side to move.
+	 * @param move
+	 *            the movement as from * 64 + to.
+	 * @return a boolean value that determines weather the movement is valid.
+	 */
+	public boolean isValid(char c, int move) {
+		if (move < 0) {
+			return false;
+		}
+		int from = move / 64;
+		int to = move % 64;
+		if (from >= iaBoard.rows() * iaBoard.columns()
+				|| (iaBoard.blobs(c) & (1L << from)) == 0
+				|| (iaBoard.reachable(from) & (1L << to)) == 0) {
+			return false;
+		}
+		return (iaBoard.distanceOne(to) & (1L << from)) == 0
+				|| iaBoard.cloneOrigin(c, to) == from;
+	}
+
+	/**
+	 * Returns the best movement as from * 64 + to, where from and to are
+	 * IABoard squares.
+	 * 
+	 * @return the best movement, or -1 if no movement was set.
+	 */
+	public int movement() {
+		if (!hasMovement) {
+			return -1;
+		}
+		return iaBoard.square(iFrom, jFrom) * 64 + iaBoard.square(iTo, jTo);
+	}
+
+	/**
+	 * Sets the order in which the root movements will be searched. It is used
+	 * by the iterative deepening, so each iteration uses the knowledge of the
+	 * previous one.
+	 * 
+	 * @param firstMove
+	 *            the movement to be searched first, as from * 64 + to, or -1.
+	 * @param rootScores
+	 *            a table indexed by from * 64 + to with the last known value
+	 *            of each root movement. The values found by this search will
+	 *            be written in it.
+	 */
+	public void setRootOrdering(int firstMove, int[] rootScores) {
+		this.firstMove = firstMove;
+		this.rootScores = rootScores;
+	}
+
+	/**
+	 * Returns a boolean value that determines weather this node is the root
+	 * of an iterative deepening search, which has its movements ordered.
+	 * 
+	 * @return a boolean value that determines weather the root movements are
+	 *         ordered.
+	 */
+	public boolean orderedRoot() {
+		return currentDepth == 1 && rootScores != null;
+	}
+
+	/**
+	 * Returns all the movements of the Blobs represented by c, as from * 64 +
+	 * to, with the first movement at the beginning followed by the rest
+	 * sorted by their values in the root scores table, best first. The rest of
+	 * the movements are rotated by the move ordering variant.
+	 * 
+	 * @param c
+	 *            the char of the side to move.
+	 * @return the sorted root movements.
+	 */
+	public int[] rootMoves(char c) {
+		int[] moves = moves(c, -1);
+		int size = moves.length;
+		for (int k = 1; k < size; k++) {
+			int move = moves[k];
+			int l = k - 1;
+			while (l >= 0 && before(move, moves[l])) {
+				moves[l + 1] = moves[l];
+				l--;
+			}
+			moves[l + 1] = move;
+		}
+		int first = moves[0] == firstMove ? 1 : 0;
+		if (variant > 0 && size - first > 1) {
+			int[] rest = Arrays.copyOfRange(moves, first, size);
+			for (int k = 0; k < rest.length; k++) {
+				moves[first + k] = rest[(k + variant) % rest.length];
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Saves the value of a root movement in the root scores table.
+	 * 
+	 * @param move
+	 *            the movement, as from * 64 + to.
+	 * @param score
+	 *            the value found for the movement.
+	 */
+	public void recordRootScore(int move, int score) {
+		if (currentDepth == 1 && rootScores != null) {
+			rootScores[move] = score;
+		}
+	}
+
+	private boolean before(int move, int other) {
+		if (other == firstMove) {
+			return false;
+		}
+		if (move == firstMove) {
+			return true;
+		}
+		if (rootScores == null) {
+			return false;
+		}
+		return rootScores[move] > rootScores[other];
+	}
+
 	/**
 	 * Getter for the algorithm's max depth.
 	 * 
@@ -199,7 +897,9 @@ public abstract class Minimax {
 	/**
 	 * Checks weather the Blob at (blobI, blobJ) can move to (positionI,
 	 * positionJ). If true, then the method clones the current IABoard and moves
-	 * the Blob in that IABoard. Afterwards, it returns the cloned IABoard.
+	 * the Blob in that IABoard. Afterwards, it returns the cloned IABoard. The
+	 * search itself doesn't use this method: it moves the Blobs in place with
+	 * IABoard.makeMove() and reverts them with IABoard.undoMove().
 	 * 
 	 * @param blobI
 	 *            the initial row position for the Blob.
@@ -209,22 +909,13 @@ public abstract class Minimax {
 	 *            the final row position for the Blob.
 	 * @param positionJ
 	 *            the final column position for the Blob.
-	 * @return
+	 * @return the cloned IABoard with the movement made, or null if the Blob
+	 *         can't move to (positionI, positionJ).
 	 */
 	public IABoard analizeMove(int blobI, int blobJ, int positionI,
 			int positionJ) {
-		if (iaBoard.at(positionI, positionJ) == ' ') {
-			char c = iaBoard.at(blobI, blobJ);
-			IABoard aux = iaBoard.clone();
-			int destinyI = positionI - blobI;
-			int destinyJ = positionJ - blobJ;
-			if (destinyI >= -1 && destinyI <= 1 && destinyJ >= -1
-					&& destinyJ <= 1) {
-				aux.moveDistanceOne(positionI, positionJ, c);
-			} else {
-				aux.moveDistanceTwo(blobI, blobJ, positionI, positionJ, c);
-			}
-			aux.contaminate(positionI, positionJ);
+		IABoard aux = iaBoard.clone();
+		if (aux.makeMove(blobI, blobJ, positionI, positionJ)) {
 			return aux;
 		}
 		return null;
@@ -237,14 +928,20 @@ public abstract class Minimax {
 	 * indicates how good it would be for a player to reach that position. The
 	 * player then makes the move that maximizes the minimum value of the
 	 * position resulting from the opponent's possible following moves. If it is
-	 * A's turn to move, A gives a value to each of his legal moves.
+	 * A's turn to move, A gives a value to each of his legal moves. The value
+	 * is always seen from the side to move.
 	 * 
-	 * @param value
-	 *            an int value used when pruning: if the pruning is activated,
-	 *            and value is better than the stored value in Minimax, then
-	 *            Minimax calls minimax for Max or Min, depending on which one
-	 *            the current Minimax object is, passing value as an argument.
-	 *            Otherwise, the method returns the stored value in Minimax.
+	 * @param alpha
+	 *            the value the side to move is already sure to get: if the
+	 *            pruning is activated, the values that are not greater than
+	 *            alpha are only upper bounds. Use -INFINITY to search the whole
+	 *            tree.
+	 * 
+	 * @param beta
+	 *            the value the opponent is already sure to get, with its sign
+	 *            changed: if the pruning is activated, the search stops as
+	 *            soon as a movement reaches beta. Use INFINITY to search the
+	 *            whole tree.
 	 * 
 	 * @param cycles
 	 *            an object only used when the time mode is activated: this
@@ -258,42 +955,142 @@ public abstract class Minimax {
 	 *         then it means the algorithm run out of time; otherwise, the
 	 *         algorithm still has some time to run.
 	 */
-	public abstract int minimax(int value, Cycle cycles);
+	public abstract int minimax(int alpha, int beta, Cycle cycles);
 
+	/**
+	 * Runs the minimax algorithm with iterative deepening: the depth starts at
+	 * one and is incremented until the time runs out. The result of the last
+	 * completed iteration is always adopted, and each iteration searches the
+	 * best movement of the previous one first, followed by the rest of the
+	 * root movements sorted by their previous values. With pruning, every
+	 * iteration but the first one is searched with an aspiration window around
+	 * the value of the previous one, which grows after every failed search
+	 * until it is wider than the aspiration limit of the SearchParameters, and
+	 * then is opened completely. The TranspositionTable is shared by all the
+	 * iterations.
+	 * 
+	 * @param time
+	 *            the maximum time to find the best movement, in milliseconds.
+	 * @param prune
+	 *            a boolean value that determines weather the minimax algorithm
+	 *            will be executed with or without pruning.
+	 * @param iaBoard
+	 *            a reference to the game IABoard.
+	 * @param side
+	 *            the char of the Blobs of the computer.
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @param table
+	 *            the TranspositionTable of the search, or null.
+	 * @param pool
+	 *            the SearchPool used to search in parallel, as in deepen(), or
+	 *            null to search with Negamax.
+	 * @param parameters
+	 *            the SearchParameters of the search.
+	 * @return the Minimax object of the last completed iteration, or of the
+	 *         first one if not even that one could be completed.
+	 */
 	public static Minimax timeMinimax(int time, boolean prune, IABoard iaBoard,
-			Cycle cycles) {
-		int depth = 1;
-		Minimax bestAnswer = null;
-		boolean firstTime = true;
-		long currentTime = System.currentTimeMillis();
-		while (time + currentTime >= System.currentTimeMillis()) {
-			if (firstTime) {
-				bestAnswer = new Max(iaBoard, depth++, 1, prune, time
-						+ currentTime);
-				bestAnswer.minimax(Integer.MAX_VALUE, cycles);
-				firstTime = false;
-			} else {
-				Minimax aux = new Max(iaBoard, depth++, 1, prune, time
-						+ currentTime);
-				int ans = aux.minimax(Integer.MAX_VALUE, cycles);
-				if (ans > -1 && aux.value() > bestAnswer.value()) {
-					bestAnswer = aux;
-				}
-			}
-		}
-		return bestAnswer;
+			char side, Cycle cycles, TranspositionTable table,
+			SearchPool pool, SearchParameters parameters) {
+		return deepen(iaBoard, side, 1, MAX_DEPTH, System.currentTimeMillis()
+				+ time, prune, cycles, table, pool, null, 0, parameters);
 	}
 
 	/**
-	 * An evaluation function that substracts the amount of blobs that the
-	 * player has from the amount of blobs that the computer has.
+	 * Runs the iterative deepening from the first depth to the last one, or
+	 * until the time runs out or the search is stopped. See timeMinimax().
 	 * 
 	 * @param iaBoard
-	 *            a reference to the game IABoard.
-	 * @return an int value resulting from substracting the amount of blobs that
-	 *         the player has from the amount of blobs that the computer has.
+	 *            a reference to the IABoard to be searched.
+	 * @param side
+	 *            the char of the Blobs of the computer.
+	 * @param firstDepth
+	 *            the depth of the first iteration.
+	 * @param lastDepth
+	 *            the depth of the last iteration.
+	 * @param timeMillis
+	 *            the time when the search must end, or -1 if there is no time
+	 *            limit.
+	 * @param prune
+	 *            a boolean value that determines weather the minimax algorithm
+	 *            will be executed with or without pruning.
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @param table
+	 *            the TranspositionTable of the search, or null.
+	 * @param pool
+	 *            the SearchPool used by RootSplit, or by the YoungBrothers
+	 *            search if its minimum split depth is set, or null to search
+	 *            with Negamax.
+	 * @param stop
+	 *            a flag that stops the search when set, or null.
+	 * @param variant
+	 *            the move ordering variant.
+	 * @param parameters
+	 *            the SearchParameters of the search.
+	 * @return the Minimax object of the last completed iteration, or of the
+	 *         first one if not even that one could be completed.
 	 */
-	public int evaluate(IABoard iaBoard) {
-		return iaBoard.computerBlobs() - iaBoard.playerBlobs();
+	public static Minimax deepen(IABoard iaBoard, char side, int firstDepth,
+			int lastDepth, long timeMillis, boolean prune, Cycle cycles,
+			TranspositionTable table, SearchPool pool, AtomicBoolean stop,
+			int variant, SearchParameters parameters) {
+		int[] rootScores = new int[64 * 64];
+		MoveOrdering ordering = new MoveOrdering();
+		Minimax bestAnswer = null;
+		for (int depth = firstDepth; depth <= Math.min(lastDepth, MAX_DEPTH)
+				&& (timeMillis == -1 || timeMillis > System
+						.currentTimeMillis()); depth++) {
+			int alpha = -INFINITY;
+			int beta = INFINITY;
+			if (prune && bestAnswer != null
+					&& Math.abs(bestAnswer.value()) < WIN) {
+				alpha = bestAnswer.value() - parameters.aspirationWindow();
+				beta = bestAnswer.value() + parameters.aspirationWindow();
+			}
+			Minimax aux;
+			int growth = parameters.aspirationGrowth();
+			int window = parameters.aspirationWindow();
+			int limit = parameters.aspirationLimit();
+			for (;; window *= growth) {
+				if (pool == null || pool.minSplitDepth() > 0) {
+					aux = new Negamax(iaBoard, side, depth, 1, prune,
+							timeMillis);
+					aux.setTable(table);
+					if (pool != null) {
+						aux.setSplitting(pool.minSplitDepth());
+					}
+				} else {
+					aux = new RootSplit(iaBoard, side, depth, prune,
+							timeMillis, pool);
+				}
+				aux.setOrdering(ordering);
+				aux.setParameters(parameters);
+				aux.setStop(stop);
+				aux.setVariant(variant);
+				aux.setRootOrdering(bestAnswer == null ? -1 : bestAnswer
+						.movement(), rootScores);
+				aux.minimax(alpha, beta, cycles);
+				if (aux.timedOut()) {
+					break;
+				} else if (alpha > -INFINITY && aux.value() <= alpha) {
+					alpha = window > limit ? -INFINITY : alpha - window;
+				} else if (beta < INFINITY && aux.value() >= beta) {
+					beta = window > limit ? INFINITY : beta + window;
+				} else {
+					break;
+				}
+			}
+			if (aux.timedOut() && bestAnswer != null) {
+				break;
+			}
+			bestAnswer = aux;
+			if (aux.timedOut() || !aux.hasMovement()
+					|| Math.abs(aux.value()) >= WIN) {
+				break;
+			}
+		}
+		return bestAnswer;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package backend;
+
+/**
+ * A Monte Carlo Tree Search engine, an alternative to the minimax engines
+ * that needs no evaluation function: the value of a movement is the average
+ * result of random games played from it. With more than one thread, every
+ * thread grows its own MonteCarloTree from the same root, with its own
+ * random seed, and the visits of the movements of the roots are added at
+ * the end. The trees are kept by the Game between consecutive movements, so
+ * the playouts of the position reached are not lost.
+ */
+public class MonteCarlo {
+
+	/**
+	 * The amount of playouts of each unit of depth in depth mode.
+	 */
+	public static final int PLAYOUTS_PER_DEPTH = 1000;
+
+	private int threads;
+	private MonteCarloTree[] trees;
+	private int reused;
+
+	/**
+	 * Constructor for the MonteCarlo class.
+	 * 
+	 * @param threads
+	 *            the amount of threads, including the main one.
+	 */
+	public MonteCarlo(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Searches the best movement for the computer: the movement of the root
+	 * visited the most times by all the trees. The search runs
+	 * n * PLAYOUTS_PER_DEPTH playouts in each tree, or n milliseconds in time
+	 * mode.
+	 * 
+	 * @param iaBoard
+	 *            a reference to the game IABoard.
+	 * @param side
+	 *            the char of the Blobs of the computer.
+	 * @param n
+	 *            the depth, or the time in milliseconds.
+	 * @param time
+	 *            a boolean value that determines weather n is a time or a
+	 *            depth.
+	 * @param cycles
+	 *            the Cycle object where the playouts of all the threads are
+	 *            added.
+	 * @return a Minimax object with the best movement, the percentage of
+	 *         points it won as its value and the depth of the deepest tree.
+	 */
+	public Minimax search(IABoard iaBoard, char side, int n, boolean time,
+			Cycle cycles) {
+		if (trees == null || !trees[0].covers(iaBoard)) {
+			trees = new MonteCarloTree[threads];
+			for (int k = 0; k < threads; k++) {
+				trees[k] = new MonteCarloTree(iaBoard,
+						MonteCarloTree.DEFAULT_NODES, k);
+			}
+		}
+		long own = iaBoard.blobs(side);
+		long opp = iaBoard.blobs(IABoard.opponent(side));
+		reused = 0;
+		for (MonteCarloTree tree : trees) {
+			reused += tree.setRoot(own, opp);
+		}
+		final long timeMillis = time ? System.currentTimeMillis() + n : -1;
+		final int playouts = time ? Integer.MAX_VALUE : n
+				* PLAYOUTS_PER_DEPTH;
+		Thread[] helpers = new Thread[threads - 1];
+		Cycle[] helperCycles = new Cycle[threads - 1];
+		for (int k = 0; k < helpers.length; k++) {
+			final MonteCarloTree tree = trees[k + 1];
+			final Cycle helperCycle = new Cycle();
+			helperCycles[k] = helperCycle;
+			helpers[k] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					tree.run(playouts, timeMillis, helperCycle);
+				}
+			});
+			helpers[k].start();
+		}
+		trees[0].run(playouts, timeMillis, cycles);
+		for (int k = 0; k < helpers.length; k++) {
+			try {
+				helpers[k].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			cycles.add(helperCycles[k]);
+		}
+		return result(iaBoard, side);
+	}
+
+	/**
+	 * Adds the visits and the results of the movements of the roots, and
+	 * returns the most visited movement.
+	 */
+	private Minimax result(IABoard iaBoard, char side) {
+		int[] visits = new int[64 * 64];
+		int[] scores = new int[64 * 64];
+		int depth = 0;
+		for (MonteCarloTree tree : trees) {
+			tree.addRootVisits(visits);
+			tree.addRootScores(scores);
+			depth = Math.max(depth, tree.depth());
+		}
+		Minimax result = new Negamax(iaBoard, side, depth, 1, false, -1);
+		int best = -1;
+		for (int move = 0; move < visits.length; move++) {
+			if (visits[move] > 0
+					&& (best == -1 || visits[move] > visits[best])) {
+				best = move;
+			}
+		}
+		if (best != -1) {
+			result.setMovement(iaBoard.row(best / 64),
+					iaBoard.column(best / 64), iaBoard.row(best % 64),
+					iaBoard.column(best % 64));
+			result.setValue((int) (50L * scores[best] / visits[best]));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the amount of nodes of all the trees.
+	 * 
+	 * @return the amount of nodes of the trees.
+	 */
+	public int nodes() {
+		int nodes = 0;
+		for (MonteCarloTree tree : trees) {
+			nodes += tree.size();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Returns the amount of playouts kept from the previous searches by the
+	 * last call to search().
+	 * 
+	 * @return the amount of playouts reused.
+	 */
+	public int reused() {
+		return reused;
+	}
+}
@@ -0,0 +1,423 @@
+package backend;
+
+import java.util.Random;
+
+/**
+ * The tree of a MonteCarlo search. The nodes live in a pool of arrays that
+ * is allocated once, so the tree is never allocated again: a node is an
+ * index into the arrays, and the children of a node are contiguous. Every
+ * iteration descends the tree choosing the children with UCT, expands the
+ * node it reaches once it was visited EXPANSION_VISITS times, and plays the
+ * game out with fast, lightly guided random movements on the bitboards of
+ * both sides. The result is added to every node of the path, from the point
+ * of view of the side that moved into it.
+ * 
+ * The tree is kept between consecutive movements: when the new root is a
+ * node up to two plies below the old one, its subtree is copied to the
+ * beginning of a second set of arrays, which then becomes the pool, and the
+ * rest of the nodes are dropped.
+ */
+public class MonteCarloTree {
+
+	/**
+	 * The default amount of nodes of a tree.
+	 */
+	public static final int DEFAULT_NODES = 1 << 18;
+
+	private static final double EXPLORATION = 0.7;
+	private static final int PLAYOUT_PLIES = 128;
+	private static final int SAMPLES = 2;
+	private static final int EXPANSION_VISITS = 4;
+	private static final int WIN = 2;
+	private static final int DRAW = 1;
+
+	private IABoard geometry;
+	private long cells;
+	private Random random;
+	private int[] moves;
+	private int[] visits;
+	private int[] scores;
+	private int[] first;
+	private int[] count;
+	private int[] spareMoves;
+	private int[] spareVisits;
+	private int[] spareScores;
+	private int[] spareFirst;
+	private int[] spareCount;
+	private int[] origins;
+	private int size;
+	private long rootOwn;
+	private long rootOpp;
+	private int[] path = new int[64];
+	private int maxDepth;
+
+	/**
+	 * Constructor for the MonteCarloTree class.
+	 * 
+	 * @param iaBoard
+	 *            an IABoard with the size of the board to be searched.
+	 * @param nodes
+	 *            the amount of nodes of the pool.
+	 * @param seed
+	 *            the seed of the random movements of the playouts.
+	 */
+	public MonteCarloTree(IABoard iaBoard, int nodes, long seed) {
+		geometry = new IABoard(iaBoard.rows(), iaBoard.columns());
+		cells = geometry.empty();
+		random = new Random(seed);
+		moves = new int[nodes];
+		visits = new int[nodes];
+		scores = new int[nodes];
+		first = new int[nodes];
+		count = new int[nodes];
+		spareMoves = new int[nodes];
+		spareVisits = new int[nodes];
+		spareScores = new int[nodes];
+		spareFirst = new int[nodes];
+		spareCount = new int[nodes];
+		origins = new int[nodes];
+		clear(0, 0);
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the tree searches
+	 * boards of the size of the IABoard.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard to be searched.
+	 * @return a boolean value that determines weather the IABoard has the
+	 *         size of the tree.
+	 */
+	public boolean covers(IABoard iaBoard) {
+		return iaBoard.rows() == geometry.rows()
+				&& iaBoard.columns() == geometry.columns();
+	}
+
+	/**
+	 * Moves the root of the tree to the given position. If it is the root
+	 * itself, or a node up to two plies below it, its subtree is kept;
+	 * otherwise the tree starts again from a single node.
+	 * 
+	 * @param own
+	 *            the Blobs of the side to move.
+	 * @param opp
+	 *            the Blobs of its opponent.
+	 * @return the amount of playouts kept from the previous searches.
+	 */
+	public int setRoot(long own, long opp) {
+		maxDepth = 0;
+		if (own == rootOwn && opp == rootOpp) {
+			return visits[0];
+		}
+		for (int k = 0; k < Math.max(count[0], 0); k++) {
+			int child = first[0] + k;
+			long childOwn = opponentAfter(rootOpp, moves[child]);
+			long childOpp = moverAfter(rootOwn, rootOpp, moves[child]);
+			if (childOwn == own && childOpp == opp) {
+				return keep(child, own, opp);
+			}
+			for (int l = 0; l < Math.max(count[child], 0); l++) {
+				int grandchild = first[child] + l;
+				int move = moves[grandchild];
+				if (moverAfter(childOwn, childOpp, move) == opp
+						&& opponentAfter(childOpp, move) == own) {
+					return keep(grandchild, own, opp);
+				}
+			}
+		}
+		clear(own, opp);
+		return 0;
+	}
+
+	private int keep(int node, long own, long opp) {
+		reroot(node);
+		rootOwn = own;
+		rootOpp = opp;
+		return visits[0];
+	}
+
+	private void clear(long own, long opp) {
+		rootOwn = own;
+		rootOpp = opp;
+		size = 1;
+		visits[0] = 0;
+		scores[0] = 0;
+		count[0] = -1;
+		moves[0] = -1;
+	}
+
+	/**
+	 * Copies the subtree of the given node to the spare arrays, with the node
+	 * as the new root, and swaps the spare arrays with the pool.
+	 */
+	private void reroot(int root) {
+		int copied = 1;
+		origins[0] = root;
+		for (int k = 0; k < copied; k++) {
+			int node = origins[k];
+			spareMoves[k] = moves[node];
+			spareVisits[k] = visits[node];
+			spareScores[k] = scores[node];
+			spareCount[k] = count[node];
+			spareFirst[k] = copied;
+			for (int l = 0; l < count[node]; l++) {
+				origins[copied++] = first[node] + l;
+			}
+		}
+		int[] swap = moves;
+		moves = spareMoves;
+		spareMoves = swap;
+		swap = visits;
+		visits = spareVisits;
+		spareVisits = swap;
+		swap = scores;
+		scores = spareScores;
+		spareScores = swap;
+		swap = first;
+		first = spareFirst;
+		spareFirst = swap;
+		swap = count;
+		count = spareCount;
+		spareCount = swap;
+		size = copied;
+	}
+
+	/**
+	 * Runs iterations until the given amount of playouts or the time runs
+	 * out.
+	 * 
+	 * @param playouts
+	 *            the amount of playouts.
+	 * @param timeMillis
+	 *            the time when the search must end, or -1 if there is no time
+	 *            limit.
+	 * @param cycles
+	 *            the Cycle object where the playouts are registered.
+	 */
+	public void run(int playouts, long timeMillis, Cycle cycles) {
+		for (int k = 0; k < playouts; k++) {
+			if (timeMillis != -1 && k % 256 == 0
+					&& System.currentTimeMillis() >= timeMillis) {
+				return;
+			}
+			iterate(cycles);
+		}
+	}
+
+	/**
+	 * Descends the tree with UCT, expands the node reached, plays the game
+	 * out from it and adds the result to the nodes of the path.
+	 * 
+	 * @param cycles
+	 *            the Cycle object where the playout is registered.
+	 */
+	public void iterate(Cycle cycles) {
+		long own = rootOwn;
+		long opp = rootOpp;
+		int node = 0;
+		int depth = 0;
+		path[0] = 0;
+		while (true) {
+			if (count[node] < 0) {
+				if (node != 0 && visits[node] < EXPANSION_VISITS) {
+					break;
+				}
+				expand(node, own, opp);
+				if (count[node] <= 0) {
+					break;
+				}
+				node = first[node] + random.nextInt(count[node]);
+			} else if (count[node] > 0) {
+				node = select(node);
+			} else {
+				break;
+			}
+			long next = opponentAfter(opp, moves[node]);
+			opp = moverAfter(own, opp, moves[node]);
+			own = next;
+			if (++depth == path.length) {
+				int[] longer = new int[depth * 2];
+				System.arraycopy(path, 0, longer, 0, depth);
+				path = longer;
+			}
+			path[depth] = node;
+		}
+		maxDepth = Math.max(maxDepth, depth);
+		int value = WIN - playout(own, opp);
+		for (int k = depth; k >= 0; k--) {
+			visits[path[k]]++;
+			scores[path[k]] += value;
+			value = WIN - value;
+		}
+		cycles.increment();
+	}
+
+	/**
+	 * Returns the child with the best UCT value: the average result plus a
+	 * bonus for the children visited less often.
+	 */
+	private int select(int node) {
+		int best = first[node];
+		double bestValue = -1;
+		double log = Math.log(visits[node]);
+		int last = first[node] + count[node];
+		for (int child = first[node]; child < last; child++) {
+			if (visits[child] == 0) {
+				return child;
+			}
+			double value = scores[child] / (double) (WIN * visits[child])
+					+ EXPLORATION * Math.sqrt(log / visits[child]);
+			if (value > bestValue) {
+				best = child;
+				bestValue = value;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Adds the children of a node: a clone for each empty cell next to the
+	 * side to move, and every jump. If the pool is full, the node is left
+	 * unexpanded.
+	 */
+	private void expand(int node, long own, long opp) {
+		long empty = cells & ~(own | opp);
+		long clones = geometry.dilate(own) & empty;
+		int children = Long.bitCount(clones);
+		for (long blobs = own; blobs != 0; blobs &= blobs - 1) {
+			children += Long.bitCount(geometry.distanceTwo(Long
+					.numberOfTrailingZeros(blobs)) & empty);
+		}
+		if (size + children > moves.length) {
+			return;
+		}
+		first[node] = size;
+		count[node] = children;
+		for (; clones != 0; clones &= clones - 1) {
+			int to = Long.numberOfTrailingZeros(clones);
+			int from = Long.numberOfTrailingZeros(geometry.distanceOne(to)
+					& own);
+			add(from * 64 + to);
+		}
+		for (long blobs = own; blobs != 0; blobs &= blobs - 1) {
+			int from = Long.numberOfTrailingZeros(blobs);
+			long targets = geometry.distanceTwo(from) & empty;
+			for (; targets != 0; targets &= targets - 1) {
+				add(from * 64 + Long.numberOfTrailingZeros(targets));
+			}
+		}
+	}
+
+	private void add(int move) {
+		moves[size] = move;
+		visits[size] = 0;
+		scores[size] = 0;
+		count[size] = -1;
+		size++;
+	}
+
+	/**
+	 * Plays random movements until the game is over, or for PLAYOUT_PLIES
+	 * plies. Each movement is the best of SAMPLES random empty cells the side
+	 * to move can reach, by the Blobs it wins, and it is a clone whenever a
+	 * Blob is next to the cell.
+	 * 
+	 * @return WIN, DRAW or 0 for the side to move at the beginning.
+	 */
+	private int playout(long own, long opp) {
+		for (int ply = 0;; ply++) {
+			long empty = cells & ~(own | opp);
+			long reach = geometry.dilate(geometry.dilate(own)) & empty;
+			if (reach == 0 || ply == PLAYOUT_PLIES) {
+				int difference = Long.bitCount(own) - Long.bitCount(opp);
+				if (reach == 0) {
+					difference -= Long.bitCount(empty);
+				}
+				int result = difference > 0 ? WIN : difference == 0 ? DRAW
+						: 0;
+				return ply % 2 == 0 ? result : WIN - result;
+			}
+			long near = geometry.dilate(own);
+			int to = -1;
+			int bestGain = -1;
+			for (int k = 0; k < SAMPLES; k++) {
+				int cell = randomSquare(reach);
+				int gain = 2 * Long.bitCount(geometry.distanceOne(cell) & opp);
+				if ((near & (1L << cell)) != 0) {
+					gain++;
+				}
+				if (gain > bestGain) {
+					to = cell;
+					bestGain = gain;
+				}
+			}
+			long flipped = geometry.distanceOne(to) & opp;
+			if ((near & (1L << to)) == 0) {
+				own &= ~(1L << randomSquare(geometry.distanceTwo(to) & own));
+			}
+			long next = opp & ~flipped;
+			opp = own | (1L << to) | flipped;
+			own = next;
+		}
+	}
+
+	private int randomSquare(long bits) {
+		for (int k = random.nextInt(Long.bitCount(bits)); k > 0; k--) {
+			bits &= bits - 1;
+		}
+		return Long.numberOfTrailingZeros(bits);
+	}
+
+	private long moverAfter(long own, long opp, int move) {
+		return Tablebase.moverAfter(geometry, own, opp, move);
+	}
+
+	private long opponentAfter(long opp, int move) {
+		return Tablebase.opponentAfter(geometry, opp, move);
+	}
+
+	/**
+	 * Adds the visits of every movement of the root to a table indexed by
+	 * from * 64 + to.
+	 * 
+	 * @param table
+	 *            the table where the visits are added.
+	 */
+	public void addRootVisits(int[] table) {
+		for (int k = 0; k < Math.max(count[0], 0); k++) {
+			table[moves[first[0] + k]] += visits[first[0] + k];
+		}
+	}
+
+	/**
+	 * Adds the results, in half points, of every movement of the root to a
+	 * table indexed by from * 64 + to.
+	 * 
+	 * @param table
+	 *            the table where the results are added.
+	 */
+	public void addRootScores(int[] table) {
+		for (int k = 0; k < Math.max(count[0], 0); k++) {
+			table[moves[first[0] + k]] += scores[first[0] + k];
+		}
+	}
+
+	/**
+	 * Returns the amount of nodes of the tree.
+	 * 
+	 * @return the amount of nodes of the tree.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the amount of plies of the deepest path of the tree reached
+	 * since the last call to setRoot().
+	 * 
+	 * @return the depth of the tree.
+	 */
+	public int depth() {
+		return maxDepth;
+	}
+}
@@ -0,0 +1,101 @@
+package backend;
+
+import java.util.Arrays;
+
+/**
+ * Decides the order in which the movements of a node are searched, so the
+ * pruning happens as soon as possible. The movements are ranked by the killer
+ * movements of their ply, the movements that caused the last pruning in other
+ * nodes of the same depth, then by their immediate gain, the amount of
+ * enemy Blobs they contaminate plus one if the Blob is cloned instead of
+ * jumping, and then by the history table, which accumulates how often each
+ * movement caused a pruning anywhere in the tree.
+ * 
+ * A MoveOrdering is shared by all the iterations of an iterative deepening.
+ * The threads of a parallel search may share it too: a lost update only makes
+ * the ordering slightly worse.
+ */
+public class MoveOrdering {
+
+	private static final int MAX_HISTORY = 0xFFFF;
+
+	private int[][] killers = new int[Minimax.MAX_DEPTH + 1][2];
+	private int[] history = new int[64 * 64];
+
+	/**
+	 * Constructor for the MoveOrdering class.
+	 */
+	public MoveOrdering() {
+		for (int[] each : killers) {
+			each[0] = -1;
+			each[1] = -1;
+		}
+	}
+
+	/**
+	 * Sorts the movements of a node, best first. Movements with the same rank
+	 * keep their order.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the node.
+	 * @param c
+	 *            the char of the side to move.
+	 * @param ply
+	 *            the depth of the node.
+	 * @param moves
+	 *            the movements of the side to move, as from * 64 + to. They are
+	 *            sorted in place.
+	 * @return the sorted movements.
+	 */
+	public int[] sort(IABoard iaBoard, char c, int ply, int[] moves) {
+		long enemy = iaBoard.blobs(c == 'c' ? 'p' : 'c');
+		long[] keys = new long[moves.length];
+		for (int k = 0; k < moves.length; k++) {
+			int from = moves[k] / 64;
+			int to = moves[k] % 64;
+			int gain = Long.bitCount(iaBoard.distanceOne(to) & enemy);
+			if ((iaBoard.distanceOne(from) & (1L << to)) != 0) {
+				gain++;
+			}
+			int rank = 0;
+			if (moves[k] == killers[ply][0]) {
+				rank = 2;
+			} else if (moves[k] == killers[ply][1]) {
+				rank = 1;
+			}
+			long score = (rank << 24) | (gain << 16)
+					| Math.min(history[moves[k]], MAX_HISTORY);
+			keys[k] = (score << 28) | ((long) (0xFFFF - k) << 12) | moves[k];
+		}
+		Arrays.sort(keys);
+		for (int k = 0; k < moves.length; k++) {
+			moves[k] = (int) keys[moves.length - 1 - k] & 0xFFF;
+		}
+		return moves;
+	}
+
+	/**
+	 * Registers that a movement caused a pruning: it becomes the first killer
+	 * movement of the ply, and its history value grows with the square of the
+	 * amount of plies that were left to search.
+	 * 
+	 * @param ply
+	 *            the depth of the node.
+	 * @param move
+	 *            the movement, as from * 64 + to.
+	 * @param remainingDepth
+	 *            the amount of plies that were left to search from the node.
+	 */
+	public void cutoff(int ply, int move, int remainingDepth) {
+		if (killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+		history[move] += remainingDepth * remainingDepth;
+		if (history[move] > MAX_HISTORY) {
+			for (int k = 0; k < history.length; k++) {
+				history[k] /= 2;
+			}
+		}
+	}
+}
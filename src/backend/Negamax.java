@@ -0,0 +1,308 @@
+package backend;
+
+/**
+ * The minimax algorithm written as a negamax: there is a single kind of node
+ * for both sides, and the value of a node is always seen from the side to
+ * move, so the value of a movement is the value of the next node with its
+ * sign changed.
+ * 
+ * With pruning, every node is searched with an alpha-beta window, and every
+ * movement but the first one is searched with a null window around alpha
+ * (Principal Variation Search): only if it turns out to be better than the
+ * best movement so far, it is searched again with the whole window.
+ * 
+ * The game ends, as in Game.gameOver(), when the opponent of the side the
+ * search was started for can't move.
+ */
+public class Negamax extends Minimax {
+
+	private char side;
+	private char computer;
+	private int alpha;
+	private int beta;
+
+	/**
+	 * Constructor for the Negamax class.
+	 * 
+	 * @param iaBoard
+	 *            a reference to the game IABoard.
+	 * @param side
+	 *            the char of the Blobs that move in this node: 'c' for the
+	 *            computer Blobs, 'p' for the player Blobs.
+	 * @param depth
+	 *            the depth value for the minimax algorithm.
+	 * @param curentDepth
+	 *            the current depth for the minimax algorithm.
+	 * @param prune
+	 *            a boolean value that determines weather the minimax algorithm
+	 *            will be executed with or without pruning.
+	 * @param timeMillis
+	 *            the maximum time to find the best movement for the minimax
+	 *            algorithm.
+	 */
+	public Negamax(IABoard iaBoard, char side, int depth, int curentDepth,
+			boolean prune, long timeMillis) {
+		super(iaBoard, depth, curentDepth, prune, timeMillis);
+		this.side = side;
+		this.computer = side;
+	}
+
+	/**
+	 * Returns the char of the Blobs that move in this node.
+	 * 
+	 * @return 'c' for the computer Blobs, 'p' for the player Blobs.
+	 */
+	public char side() {
+		return side;
+	}
+
+	/**
+	 * Searches the best movement of the side to move. With pruning, the
+	 * search stops as soon as a movement reaches beta, and a value that is not
+	 * greater than alpha is only an upper bound of the real one.
+	 * 
+	 * @param alpha
+	 *            the value the side to move is already sure to get.
+	 * @param beta
+	 *            the value the opponent is already sure to get, with its sign
+	 *            changed.
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @return the value of the node, or -1 if the algorithm ran out of time.
+	 */
+	@Override
+	public int minimax(int alpha, int beta, Cycle cycles) {
+		if (outOfTime(cycles)) {
+			return -1;
+		}
+		setValue(-INFINITY);
+		if (!prune()) {
+			alpha = -INFINITY;
+			beta = INFINITY;
+		}
+		this.alpha = alpha;
+		this.beta = beta;
+		int symmetry = board().canonicalSymmetry(side);
+		long key = board().hash(side, symmetry);
+		long entry = probe(key, symmetry, cycles);
+		if (entry != 0 && currentDepth() > 1
+				&& TranspositionTable.depth(entry) >= remainingDepth()) {
+			int score = TranspositionTable.score(entry);
+			int bound = TranspositionTable.bound(entry);
+			if (bound == TranspositionTable.EXACT
+					|| bound == TranspositionTable.LOWER && score >= beta
+					|| bound == TranspositionTable.UPPER && score <= alpha) {
+				setValue(score);
+				return value();
+			}
+		}
+		boolean cutoff = false;
+		if (orderedRoot()) {
+			cutoff = searchMoves(rootMoves(side), cycles);
+			if (timedOut()) {
+				return -1;
+			}
+			return value();
+		}
+		int first = tableMove(side, entry, symmetry);
+		if (isValid(side, first)) {
+			cutoff = searchMove(first, cycles);
+		} else {
+			first = -1;
+		}
+		if (!cutoff && currentDepth() < depth()) {
+			cutoff = searchMoves(ordering().sort(board(), side, currentDepth(),
+					moves(side, first)), cycles);
+		} else {
+			long clones = board().cloneTargets(side);
+			while (!cutoff && clones != 0) {
+				int to = nextSquare(clones);
+				clones &= ~(1L << to);
+				int from = board().cloneOrigin(side, to);
+				if (from * 64 + to != first) {
+					cutoff = tryMove(from, to, cycles);
+				}
+			}
+			long blobs = board().blobs(side);
+			while (!cutoff && blobs != 0) {
+				int from = nextSquare(blobs);
+				blobs &= ~(1L << from);
+				long targets = board().jumpTargets(from);
+				while (!cutoff && targets != 0) {
+					int to = nextSquare(targets);
+					targets &= ~(1L << to);
+					if (from * 64 + to != first) {
+						cutoff = tryMove(from, to, cycles);
+					}
+				}
+			}
+		}
+		if (timedOut()) {
+			return -1;
+		}
+		if (cutoff) {
+			registerCutoff(cycles);
+		}
+		int bound = TranspositionTable.EXACT;
+		if (cutoff) {
+			bound = TranspositionTable.LOWER;
+		} else if (value() <= alpha) {
+			bound = TranspositionTable.UPPER;
+		}
+		store(key, symmetry, bound, cycles);
+		return value();
+	}
+
+	/**
+	 * Makes the movement from the from square to the to square, computes its
+	 * value and undoes it.
+	 * 
+	 * @param from
+	 *            the square of the Blob to be moved.
+	 * @param to
+	 *            the square where the Blob will be moved.
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @return true if the remaining movements must not be searched, because
+	 *         of a pruning, a winning movement or a time out.
+	 */
+	@Override
+	protected boolean tryMove(int from, int to, Cycle cycles) {
+		if (cuts()) {
+			return true;
+		}
+		int i = board().row(from);
+		int j = board().column(from);
+		int i1 = board().row(to);
+		int j1 = board().column(to);
+		cycles.increment();
+		board().makeMove(i, j, i1, j1);
+		int score;
+		if (gameOver(board())) {
+			score = finalValue(board());
+			board().undoMove();
+		} else if (currentDepth() < depth()) {
+			int a = Math.max(alpha, value());
+			Negamax next = child(board());
+			if (prune() && value() > -INFINITY) {
+				next.minimax(-a - 1, -a, cycles);
+				if (!next.timedOut() && -next.value() > a
+						&& -next.value() < beta) {
+					next = child(board());
+					next.minimax(-beta, -a, cycles);
+				}
+			} else {
+				next.minimax(-beta, -a, cycles);
+			}
+			board().undoMove();
+			if (next.timedOut()) {
+				setTimedOut(true);
+				return true;
+			}
+			score = -next.value();
+		} else {
+			score = evaluate(board());
+			cycles.evaluation();
+			board().undoMove();
+		}
+		recordRootScore(from * 64 + to, score);
+		assignBestMove(score, i, j, i1, j1);
+		return score >= WIN || cuts();
+	}
+
+	private boolean cuts() {
+		return prune() && value() >= beta;
+	}
+
+	/**
+	 * Returns a new node for the opponent, one ply deeper, which shares the
+	 * search state of this one.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the new node.
+	 * @return the new node.
+	 */
+	public Negamax child(IABoard iaBoard) {
+		Negamax child = new Negamax(iaBoard, IABoard.opponent(side), depth(),
+				currentDepth() + 1, prune(), timeMillis());
+		child.computer = computer;
+		inherit(child);
+		return child;
+	}
+
+	@Override
+	protected Minimax copy(IABoard iaBoard) {
+		Negamax copy = new Negamax(iaBoard, side, depth(), currentDepth(),
+				prune(), timeMillis());
+		copy.computer = computer;
+		copy.alpha = alpha;
+		copy.beta = beta;
+		return copy;
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the game is over: the
+	 * opponent of the side the search was started for can't move.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard after a movement of this node.
+	 * @return a boolean value that determines weather the game is over.
+	 */
+	public boolean gameOver(IABoard iaBoard) {
+		return !iaBoard.canMove(IABoard.opponent(computer));
+	}
+
+	/**
+	 * Returns the value of a finished game for the side to move: WIN or LOSS.
+	 * The side the search was started for claims all the empty cells left, as
+	 * its opponent can't move, and the opponent only wins if it still has more
+	 * Blobs.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the finished game.
+	 * @return the value of the game for the side to move.
+	 */
+	public int finalValue(IABoard iaBoard) {
+		char opponent = IABoard.opponent(computer);
+		boolean opponentWins = iaBoard.count(opponent) > iaBoard
+				.count(computer) + Long.bitCount(iaBoard.empty());
+		return (side == computer) != opponentWins ? WIN : LOSS;
+	}
+
+	/**
+	 * The evaluation function, given by the Evaluator attached to the
+	 * IABoard. Without one, it substracts the amount of Blobs of the opponent
+	 * from the amount of Blobs of the side to move.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard after a movement of this node.
+	 * @return the value of the position, seen from the side to move.
+	 */
+	public int evaluate(IABoard iaBoard) {
+		return iaBoard.evaluate(side);
+	}
+
+	/**
+	 * If the value parameter is greater than the value stored in this node,
+	 * then the stored value will be replaced with the one received, and the
+	 * best movement will also be updated.
+	 * 
+	 * @param value
+	 *            the value of a certain movement.
+	 * @param iFrom
+	 *            the initial row number of the movement.
+	 * @param jFrom
+	 *            the initial column number of the movement.
+	 * @param iTo
+	 *            the final row number of the movement.
+	 * @param jTo
+	 *            the final column number of the movement.
+	 */
+	@Override
+	public void assignBestMove(int value, int iFrom, int jFrom, int iTo, int jTo) {
+		if (value() < value) {
+			setMovement(iFrom, jFrom, iTo, jTo);
+			setValue(value);
+		}
+	}
+}
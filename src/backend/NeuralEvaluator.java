@@ -0,0 +1,472 @@
+package backend;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * An IncrementalEvaluator with a small neural network in the way of NNUE.
+ * The inputs are the squares of the board, twice: the ones with a Blob of
+ * the side to move and the ones with a Blob of its opponent. They feed a
+ * single hidden layer, clipped between 0 and 1, and the output is the logit
+ * of the probability that the side to move wins, in the units of
+ * TexelTuner.SCALE.
+ * 
+ * The weights of the squares are not tied across the symmetries of the
+ * board, so the network would give different values to the symmetric images
+ * of a position, which the TranspositionTable stores as one. Instead, the
+ * position is always evaluated in its canonical orientation: the symmetric
+ * image with the smallest hash of the keys of the network, which is the
+ * same for all the images, so the evaluation is symmetric.
+ * 
+ * As only a few inputs change with a movement, the hidden layer is not
+ * computed again at each leaf: the Accumulator of the IABoard keeps it for
+ * every symmetric image and both sides, along with the hashes of the images,
+ * adding and removing the weights of the squares that change, and saves a
+ * copy before each movement so the undo only copies it back.
+ * The weights are 16 bit integers, the hidden ones in units of 1 /
+ * INPUT_SCALE and the output ones in units of 1 / OUTPUT_SCALE, so the whole
+ * evaluation is made of integer additions.
+ * 
+ * The network is for boards of one size, and is read from a file written by
+ * NeuralTrainer: the ints MAGIC, rows, columns and hidden units, and then
+ * the shorts of the hidden biases, the weights of the Blobs of the side to
+ * move, square by square, the weights of the Blobs of the opponent, the
+ * output weights and the output bias.
+ */
+public class NeuralEvaluator implements IncrementalEvaluator {
+
+	/**
+	 * The first int of a network file.
+	 */
+	public static final int MAGIC = 0x424C4E4E;
+
+	/**
+	 * The value of 1 in the hidden weights, which is where the hidden units
+	 * are clipped.
+	 */
+	public static final int INPUT_SCALE = 255;
+
+	/**
+	 * The value of 1 in the output weights.
+	 */
+	public static final int OUTPUT_SCALE = 64;
+
+	private static final int MAX_HIDDEN = 1024;
+	private static final long[] MINE_KEYS = new long[64];
+	private static final long[] THEIRS_KEYS = new long[64];
+
+	static {
+		Random random = new Random(0x424C4E4EL);
+		for (int k = 0; k < 64; k++) {
+			MINE_KEYS[k] = random.nextLong();
+			THEIRS_KEYS[k] = random.nextLong();
+		}
+	}
+
+	private int rows;
+	private int columns;
+	private int hidden;
+	private short[] hiddenBias;
+	private short[] own;
+	private short[] opponent;
+	private short[] output;
+	private short outputBias;
+	private IABoard geometry;
+
+	/**
+	 * Constructor for the NeuralEvaluator class.
+	 * 
+	 * @param rows
+	 *            the amount of rows of the boards.
+	 * @param columns
+	 *            the amount of columns of the boards.
+	 * @param hiddenBias
+	 *            the bias of each hidden unit.
+	 * @param own
+	 *            the weights of the Blobs of the side to move, at square *
+	 *            hidden units + hidden unit.
+	 * @param opponent
+	 *            the weights of the Blobs of the opponent, in the same order.
+	 * @param output
+	 *            the output weight of each hidden unit.
+	 * @param outputBias
+	 *            the bias of the output.
+	 */
+	public NeuralEvaluator(int rows, int columns, short[] hiddenBias,
+			short[] own, short[] opponent, short[] output, short outputBias) {
+		int hidden = hiddenBias.length;
+		if (rows <= 0 || columns <= 0 || rows * columns > 64 || hidden <= 0
+				|| hidden > MAX_HIDDEN
+				|| own.length != rows * columns * hidden
+				|| opponent.length != own.length || output.length != hidden) {
+			throw new IllegalArgumentException(
+					"Error: incompatible network sizes.");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		this.hidden = hidden;
+		this.hiddenBias = hiddenBias.clone();
+		this.own = own.clone();
+		this.opponent = opponent.clone();
+		this.output = output.clone();
+		this.outputBias = outputBias;
+		geometry = new IABoard(rows, columns);
+	}
+
+	/**
+	 * Reads a network file.
+	 * 
+	 * @param file
+	 *            the network file.
+	 * @return the NeuralEvaluator of the file.
+	 * @throws IOException
+	 *             if the file can't be read or is not a valid network.
+	 */
+	public static NeuralEvaluator load(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Error: " + file
+						+ " is not a network file.");
+			}
+			int rows = in.readInt();
+			int columns = in.readInt();
+			int hidden = in.readInt();
+			if (rows <= 0 || columns <= 0 || rows * columns > 64
+					|| hidden <= 0 || hidden > MAX_HIDDEN) {
+				throw new IOException("Error: the network " + file
+						+ " has invalid sizes.");
+			}
+			short[] hiddenBias = read(in, hidden);
+			short[] own = read(in, rows * columns * hidden);
+			short[] opponent = read(in, rows * columns * hidden);
+			short[] output = read(in, hidden);
+			short outputBias = in.readShort();
+			if (in.read() != -1) {
+				throw new IOException("Error: the network " + file
+						+ " is longer than its sizes.");
+			}
+			return new NeuralEvaluator(rows, columns, hiddenBias, own,
+					opponent, output, outputBias);
+		} catch (EOFException e) {
+			throw new IOException("Error: the network " + file
+					+ " is shorter than its sizes.");
+		} finally {
+			in.close();
+		}
+	}
+
+	private static short[] read(DataInputStream in, int length)
+			throws IOException {
+		short[] values = new short[length];
+		for (int k = 0; k < length; k++) {
+			values[k] = in.readShort();
+		}
+		return values;
+	}
+
+	/**
+	 * Writes the network to a file that load() can read.
+	 * 
+	 * @param file
+	 *            the file to be written.
+	 * @throws IOException
+	 *             if the file can't be written.
+	 */
+	public void write(File file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(rows);
+			out.writeInt(columns);
+			out.writeInt(hidden);
+			for (short[] values : new short[][] { hiddenBias, own, opponent,
+					output }) {
+				for (short value : values) {
+					out.writeShort(value);
+				}
+			}
+			out.writeShort(outputBias);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Returns weather the network can evaluate the boards of an IABoard.
+	 * 
+	 * @param iaBoard
+	 *            an IABoard with the size of the boards.
+	 * @return a boolean value that determines weather the sizes match.
+	 */
+	public boolean fits(IABoard iaBoard) {
+		return iaBoard.rows() == rows && iaBoard.columns() == columns;
+	}
+
+	/**
+	 * Returns the amount of hidden units of the network.
+	 * 
+	 * @return the amount of hidden units.
+	 */
+	public int hidden() {
+		return hidden;
+	}
+
+	@Override
+	public int[] squareWeights(IABoard geometry) {
+		return null;
+	}
+
+	@Override
+	public Accumulator accumulator(IABoard geometry) {
+		if (!fits(geometry)) {
+			throw new IllegalArgumentException("Error: the network is for "
+					+ rows + "x" + columns + " boards.");
+		}
+		return new HiddenLayer();
+	}
+
+	@Override
+	public int evaluate(IABoard iaBoard, char side) {
+		char next = IABoard.opponent(side);
+		if (iaBoard.evaluator() == this) {
+			HiddenLayer layer = (HiddenLayer) iaBoard.accumulator();
+			int perspective = next == 'c' ? 0 : 1;
+			int symmetry = layer.canonical(perspective);
+			return -forward(layer.values, (2 * symmetry + perspective)
+					* hidden);
+		}
+		return -value(iaBoard.blobs(next), iaBoard.blobs(side));
+	}
+
+	/**
+	 * Computes the output of the network from scratch, without an
+	 * Accumulator, in the canonical orientation of the position.
+	 * 
+	 * @param mine
+	 *            the bitboard of the Blobs of the side to move.
+	 * @param theirs
+	 *            the bitboard of the Blobs of its opponent.
+	 * @return the value of the position for the side to move.
+	 */
+	public int value(long mine, long theirs) {
+		int symmetry = canonicalSymmetry(geometry, mine, theirs);
+		int[] values = new int[hidden];
+		for (int h = 0; h < hidden; h++) {
+			values[h] = hiddenBias[h];
+		}
+		for (long bits = mine; bits != 0; bits &= bits - 1) {
+			add(values, 0, own, geometry.transform(symmetry, Long
+					.numberOfTrailingZeros(bits))
+					* hidden);
+		}
+		for (long bits = theirs; bits != 0; bits &= bits - 1) {
+			add(values, 0, opponent, geometry.transform(symmetry, Long
+					.numberOfTrailingZeros(bits))
+					* hidden);
+		}
+		return forward(values, 0);
+	}
+
+	/**
+	 * Returns the symmetry that takes a position to its canonical
+	 * orientation, the one the network evaluates it in.
+	 * 
+	 * @param geometry
+	 *            an IABoard with the size of the board.
+	 * @param mine
+	 *            the bitboard of the Blobs of the side to move.
+	 * @param theirs
+	 *            the bitboard of the Blobs of its opponent.
+	 * @return the symmetry whose image has the smallest hash.
+	 */
+	public static int canonicalSymmetry(IABoard geometry, long mine,
+			long theirs) {
+		int best = 0;
+		long smallest = 0;
+		for (int k = 0; k < geometry.symmetries(); k++) {
+			long hash = 0;
+			for (long bits = mine; bits != 0; bits &= bits - 1) {
+				hash ^= MINE_KEYS[geometry.transform(k, Long
+						.numberOfTrailingZeros(bits))];
+			}
+			for (long bits = theirs; bits != 0; bits &= bits - 1) {
+				hash ^= THEIRS_KEYS[geometry.transform(k, Long
+						.numberOfTrailingZeros(bits))];
+			}
+			if (k == 0 || hash < smallest) {
+				best = k;
+				smallest = hash;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Computes the output from the hidden units at values[offset...].
+	 */
+	private int forward(int[] values, int offset) {
+		long sum = (long) outputBias * INPUT_SCALE;
+		for (int h = 0; h < hidden; h++) {
+			int value = values[offset + h];
+			if (value > 0) {
+				sum += (value < INPUT_SCALE ? value : INPUT_SCALE) * output[h];
+			}
+		}
+		return (int) (sum * TexelTuner.SCALE / (INPUT_SCALE * OUTPUT_SCALE));
+	}
+
+	/**
+	 * Adds the weights of a square to the hidden units at values[offset...].
+	 */
+	private void add(int[] values, int offset, short[] weights, int base) {
+		for (int h = 0; h < hidden; h++) {
+			values[offset + h] += weights[base + h];
+		}
+	}
+
+	/**
+	 * Subtracts the weights of a square from the hidden units at
+	 * values[offset...].
+	 */
+	private void subtract(int[] values, int offset, short[] weights, int base) {
+		for (int h = 0; h < hidden; h++) {
+			values[offset + h] -= weights[base + h];
+		}
+	}
+
+	/**
+	 * The hidden units before the clipping of every symmetric image, first
+	 * with the computer to move and then with the player to move, the hashes
+	 * of the images in the same order, and the copies saved before each
+	 * movement.
+	 */
+	private class HiddenLayer implements Accumulator {
+
+		private int[] values = new int[geometry.symmetries() * 2 * hidden];
+		private long[] hashes = new long[geometry.symmetries() * 2];
+		private int[] saved = new int[16 * values.length];
+		private long[] savedHashes = new long[16 * hashes.length];
+		private int size;
+
+		@Override
+		public void reset(long computer, long player) {
+			for (int k = 0; k < geometry.symmetries(); k++) {
+				int offset = 2 * k * hidden;
+				for (int h = 0; h < hidden; h++) {
+					values[offset + h] = hiddenBias[h];
+					values[offset + hidden + h] = hiddenBias[h];
+				}
+				hashes[2 * k] = 0;
+				hashes[2 * k + 1] = 0;
+				for (long bits = computer; bits != 0; bits &= bits - 1) {
+					put(k, geometry.transform(k, Long
+							.numberOfTrailingZeros(bits)), 0, 1);
+				}
+				for (long bits = player; bits != 0; bits &= bits - 1) {
+					put(k, geometry.transform(k, Long
+							.numberOfTrailingZeros(bits)), 1, 1);
+				}
+			}
+			size = 0;
+		}
+
+		/**
+		 * Adds (sign 1) or removes (sign -1) a Blob of the side of the
+		 * perspective mover on an empty square of the image of a symmetry.
+		 */
+		private void put(int symmetry, int square, int mover, int sign) {
+			int base = square * hidden;
+			int mine = (2 * symmetry + mover) * hidden;
+			int theirs = (2 * symmetry + 1 - mover) * hidden;
+			if (sign > 0) {
+				add(values, mine, own, base);
+				add(values, theirs, opponent, base);
+			} else {
+				subtract(values, mine, own, base);
+				subtract(values, theirs, opponent, base);
+			}
+			hashes[2 * symmetry + mover] ^= MINE_KEYS[square];
+			hashes[2 * symmetry + 1 - mover] ^= THEIRS_KEYS[square];
+		}
+
+		@Override
+		public void makeMove(int origin, int destination, long flipped,
+				boolean computer) {
+			if ((size + 1) * values.length > saved.length) {
+				saved = Arrays.copyOf(saved, saved.length * 2);
+				savedHashes = Arrays.copyOf(savedHashes,
+						savedHashes.length * 2);
+			}
+			System.arraycopy(values, 0, saved, size * values.length,
+					values.length);
+			System.arraycopy(hashes, 0, savedHashes, size * hashes.length,
+					hashes.length);
+			size++;
+			int mover = computer ? 0 : 1;
+			for (int k = 0; k < geometry.symmetries(); k++) {
+				put(k, geometry.transform(k, destination), mover, 1);
+				if (origin != -1) {
+					put(k, geometry.transform(k, origin), mover, -1);
+				}
+				int mine = (2 * k + mover) * hidden;
+				int theirs = (2 * k + 1 - mover) * hidden;
+				for (long bits = flipped; bits != 0; bits &= bits - 1) {
+					int square = geometry.transform(k, Long
+							.numberOfTrailingZeros(bits));
+					int base = square * hidden;
+					add(values, mine, own, base);
+					subtract(values, mine, opponent, base);
+					add(values, theirs, opponent, base);
+					subtract(values, theirs, own, base);
+					long key = MINE_KEYS[square] ^ THEIRS_KEYS[square];
+					hashes[2 * k] ^= key;
+					hashes[2 * k + 1] ^= key;
+				}
+			}
+		}
+
+		/**
+		 * Returns the symmetry of the canonical image of the position, with
+		 * the computer (perspective 0) or the player (1) to move.
+		 */
+		private int canonical(int perspective) {
+			int best = 0;
+			for (int k = 1; k < geometry.symmetries(); k++) {
+				if (hashes[2 * k + perspective] < hashes[2 * best
+						+ perspective]) {
+					best = k;
+				}
+			}
+			return best;
+		}
+
+		@Override
+		public void undoMove() {
+			size--;
+			System.arraycopy(saved, size * values.length, values, 0,
+					values.length);
+			System.arraycopy(savedHashes, size * hashes.length, hashes, 0,
+					hashes.length);
+		}
+
+		@Override
+		public Accumulator copy() {
+			HiddenLayer copy = new HiddenLayer();
+			System.arraycopy(values, 0, copy.values, 0, values.length);
+			System.arraycopy(hashes, 0, copy.hashes, 0, hashes.length);
+			return copy;
+		}
+	}
+}
@@ -0,0 +1,386 @@
+package backend;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Trains the network of a NeuralEvaluator on a dataset of TrainingPositions,
+ * such as the ones of the games the engine plays against itself. The
+ * network is trained with real weights by minibatch gradient descent with
+ * Adam, minimizing the logistic loss of its output against the results of
+ * the games. The trained weights are then rounded to the 16 bit integers of
+ * the NeuralEvaluator.
+ * 
+ * The NeuralEvaluator reads a position in its canonical orientation, which
+ * may be any of the symmetries of the board, so the network must be right in
+ * all of them: every epoch feeds each position through a new random
+ * symmetry, while loss() reads it in its canonical orientation, as the
+ * evaluator does. A position takes 17 bytes, its two bitboards from the side
+ * to move and its result, and the ones whose side to move is blocked are
+ * skipped, since the search never evaluates them.
+ */
+public class NeuralTrainer {
+
+	/**
+	 * The default amount of hidden units.
+	 */
+	public static final int DEFAULT_HIDDEN = 32;
+
+	/**
+	 * The default amount of passes over the dataset.
+	 */
+	public static final int DEFAULT_EPOCHS = 10;
+
+	private static final int BATCH = 256;
+	private static final double RATE = 0.002;
+	private static final double MOMENTUM = 0.9;
+	private static final double SQUARES_MOMENTUM = 0.999;
+	private static final double EPSILON = 1e-8;
+	private static final double INITIAL = 0.1;
+
+	private int hidden;
+	private IABoard geometry;
+	private int squares;
+	private int ownOffset, opponentOffset, biasOffset, outputOffset,
+			outputBiasOffset;
+	private double[] weights;
+	private double[] gradient;
+	private double[] moment;
+	private double[] squaredMoment;
+	private int steps;
+	private Random random;
+	private long[] mine = new long[1024];
+	private long[] theirs = new long[1024];
+	private byte[] results = new byte[1024];
+	private int size;
+
+	/**
+	 * Constructor for the NeuralTrainer class.
+	 * 
+	 * @param hidden
+	 *            the amount of hidden units of the network.
+	 * @param seed
+	 *            the seed of the initial weights and of the order of the
+	 *            positions.
+	 */
+	public NeuralTrainer(int hidden, long seed) {
+		if (hidden <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible amount of hidden units.");
+		}
+		this.hidden = hidden;
+		random = new Random(seed);
+	}
+
+	/**
+	 * Reads the positions of a dataset, which must all have the same size.
+	 * 
+	 * @param file
+	 *            the dataset file, with a TrainingPosition per line, or the
+	 *            directory of a dataset written by DatasetWriter.
+	 * @throws IOException
+	 *             if the file can't be read, has an invalid line or has
+	 *             positions of different sizes.
+	 */
+	public void load(File file) throws IOException {
+		if (file.isDirectory()) {
+			DatasetReader reader = new DatasetReader(file);
+			try {
+				while (reader.next()) {
+					add(reader.position(), file);
+				}
+			} finally {
+				reader.close();
+			}
+			return;
+		}
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.trim().length() == 0) {
+					continue;
+				}
+				TrainingPosition position;
+				try {
+					position = TrainingPosition.parse(line);
+				} catch (IllegalArgumentException e) {
+					throw new IOException(e.getMessage());
+				}
+				add(position, file);
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	private void add(TrainingPosition position, File file) throws IOException {
+		IABoard iaBoard = position.board();
+		if (geometry == null) {
+			initialize(iaBoard);
+		} else if (iaBoard.rows() != geometry.rows()
+				|| iaBoard.columns() != geometry.columns()) {
+			throw new IOException("Error: the positions of " + file
+					+ " have different sizes.");
+		}
+		char side = position.side();
+		if (!iaBoard.canMove(side)) {
+			return;
+		}
+		if (size == results.length) {
+			mine = Arrays.copyOf(mine, size * 2);
+			theirs = Arrays.copyOf(theirs, size * 2);
+			results = Arrays.copyOf(results, size * 2);
+		}
+		mine[size] = iaBoard.blobs(side);
+		theirs[size] = iaBoard.blobs(IABoard.opponent(side));
+		results[size] = (byte) Math.round(position.result() * 2);
+		size++;
+	}
+
+	/**
+	 * Creates the network with random weights for the size of the first
+	 * position.
+	 */
+	private void initialize(IABoard iaBoard) {
+		geometry = new IABoard(iaBoard.rows(), iaBoard.columns());
+		squares = iaBoard.rows() * iaBoard.columns();
+		ownOffset = 0;
+		opponentOffset = squares * hidden;
+		biasOffset = 2 * squares * hidden;
+		outputOffset = biasOffset + hidden;
+		outputBiasOffset = outputOffset + hidden;
+		weights = new double[outputBiasOffset + 1];
+		for (int k = 0; k < biasOffset; k++) {
+			weights[k] = (random.nextDouble() * 2 - 1) * INITIAL;
+		}
+		for (int k = biasOffset; k < outputOffset; k++) {
+			weights[k] = 0.5;
+		}
+		for (int k = outputOffset; k < outputBiasOffset; k++) {
+			weights[k] = (random.nextDouble() * 2 - 1) * INITIAL;
+		}
+		gradient = new double[weights.length];
+		moment = new double[weights.length];
+		squaredMoment = new double[weights.length];
+	}
+
+	/**
+	 * Returns the amount of positions read.
+	 * 
+	 * @return the amount of positions.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Makes a pass over the positions, in a random order, with a step of
+	 * gradient descent for every batch of positions.
+	 * 
+	 * @return the average loss of the positions during the pass.
+	 */
+	public double epoch() {
+		if (size == 0) {
+			throw new IllegalStateException("Error: there are no positions.");
+		}
+		int[] order = new int[size];
+		for (int k = 0; k < size; k++) {
+			int other = random.nextInt(k + 1);
+			order[k] = order[other];
+			order[other] = k;
+		}
+		double[] values = new double[hidden];
+		int[] ownSquares = new int[squares];
+		int[] opponentSquares = new int[squares];
+		double loss = 0;
+		for (int start = 0; start < size; start += BATCH) {
+			int end = Math.min(start + BATCH, size);
+			Arrays.fill(gradient, 0);
+			for (int k = start; k < end; k++) {
+				int position = order[k];
+				int symmetry = random.nextInt(geometry.symmetries());
+				int owns = squares(mine[position], symmetry, ownSquares);
+				int opponents = squares(theirs[position], symmetry,
+						opponentSquares);
+				double output = forward(ownSquares, owns, opponentSquares,
+						opponents, values);
+				double result = results[position] / 2.0;
+				loss += loss(output, result);
+				backward(ownSquares, owns, opponentSquares, opponents,
+						values, 1 / (1 + Math.exp(-output)) - result);
+			}
+			step(end - start);
+		}
+		return loss / size;
+	}
+
+	/**
+	 * Returns the average loss of the positions with the real weights, in
+	 * their canonical orientations.
+	 * 
+	 * @return the average loss.
+	 */
+	public double loss() {
+		double[] values = new double[hidden];
+		int[] ownSquares = new int[squares];
+		int[] opponentSquares = new int[squares];
+		double loss = 0;
+		for (int k = 0; k < size; k++) {
+			int symmetry = NeuralEvaluator.canonicalSymmetry(geometry,
+					mine[k], theirs[k]);
+			int owns = squares(mine[k], symmetry, ownSquares);
+			int opponents = squares(theirs[k], symmetry, opponentSquares);
+			loss += loss(forward(ownSquares, owns, opponentSquares,
+					opponents, values), results[k] / 2.0);
+		}
+		return loss / size;
+	}
+
+	/**
+	 * Returns the average loss of the positions with a NeuralEvaluator, such
+	 * as the rounded network, to see what the rounding costs.
+	 * 
+	 * @param network
+	 *            the NeuralEvaluator.
+	 * @return the average loss.
+	 */
+	public double loss(NeuralEvaluator network) {
+		double loss = 0;
+		for (int k = 0; k < size; k++) {
+			double output = (double) network.value(mine[k], theirs[k])
+					/ TexelTuner.SCALE;
+			loss += loss(output, results[k] / 2.0);
+		}
+		return loss / size;
+	}
+
+	/**
+	 * Rounds the real weights to a NeuralEvaluator.
+	 * 
+	 * @return the NeuralEvaluator of the network.
+	 */
+	public NeuralEvaluator network() {
+		int scale = NeuralEvaluator.INPUT_SCALE;
+		return new NeuralEvaluator(geometry.rows(), geometry.columns(),
+				round(biasOffset, hidden, scale), round(ownOffset, squares
+						* hidden, scale), round(opponentOffset, squares
+						* hidden, scale), round(outputOffset, hidden,
+						NeuralEvaluator.OUTPUT_SCALE), round(
+						outputBiasOffset, 1, NeuralEvaluator.OUTPUT_SCALE)[0]);
+	}
+
+	private short[] round(int offset, int length, int scale) {
+		short[] rounded = new short[length];
+		for (int k = 0; k < length; k++) {
+			long value = Math.round(weights[offset + k] * scale);
+			rounded[k] = (short) Math.max(Short.MIN_VALUE, Math.min(
+					Short.MAX_VALUE, value));
+		}
+		return rounded;
+	}
+
+	/**
+	 * Writes the transformed squares of the bits in the array, returning how
+	 * many there are.
+	 */
+	private int squares(long bits, int symmetry, int[] array) {
+		int count = 0;
+		for (; bits != 0; bits &= bits - 1) {
+			array[count++] = geometry.transform(symmetry, Long
+					.numberOfTrailingZeros(bits));
+		}
+		return count;
+	}
+
+	/**
+	 * Computes the hidden units before the clipping in values, and returns
+	 * the output.
+	 */
+	private double forward(int[] ownSquares, int owns,
+			int[] opponentSquares, int opponents, double[] values) {
+		for (int h = 0; h < hidden; h++) {
+			values[h] = weights[biasOffset + h];
+		}
+		for (int k = 0; k < owns; k++) {
+			int base = ownOffset + ownSquares[k] * hidden;
+			for (int h = 0; h < hidden; h++) {
+				values[h] += weights[base + h];
+			}
+		}
+		for (int k = 0; k < opponents; k++) {
+			int base = opponentOffset + opponentSquares[k] * hidden;
+			for (int h = 0; h < hidden; h++) {
+				values[h] += weights[base + h];
+			}
+		}
+		double output = weights[outputBiasOffset];
+		for (int h = 0; h < hidden; h++) {
+			output += clip(values[h]) * weights[outputOffset + h];
+		}
+		return output;
+	}
+
+	/**
+	 * Adds the gradient of the loss of a position, whose derivative on the
+	 * output is error.
+	 */
+	private void backward(int[] ownSquares, int owns, int[] opponentSquares,
+			int opponents, double[] values, double error) {
+		gradient[outputBiasOffset] += error;
+		for (int h = 0; h < hidden; h++) {
+			gradient[outputOffset + h] += error * clip(values[h]);
+			if (values[h] > 0 && values[h] < 1) {
+				values[h] = error * weights[outputOffset + h];
+				gradient[biasOffset + h] += values[h];
+			} else {
+				values[h] = 0;
+			}
+		}
+		for (int k = 0; k < owns; k++) {
+			int base = ownOffset + ownSquares[k] * hidden;
+			for (int h = 0; h < hidden; h++) {
+				gradient[base + h] += values[h];
+			}
+		}
+		for (int k = 0; k < opponents; k++) {
+			int base = opponentOffset + opponentSquares[k] * hidden;
+			for (int h = 0; h < hidden; h++) {
+				gradient[base + h] += values[h];
+			}
+		}
+	}
+
+	/**
+	 * Moves the weights by Adam with the gradient of a batch.
+	 */
+	private void step(int batch) {
+		steps++;
+		double rate = RATE * Math.sqrt(1 - Math.pow(SQUARES_MOMENTUM, steps))
+				/ (1 - Math.pow(MOMENTUM, steps));
+		for (int k = 0; k < weights.length; k++) {
+			double g = gradient[k] / batch;
+			moment[k] = MOMENTUM * moment[k] + (1 - MOMENTUM) * g;
+			squaredMoment[k] = SQUARES_MOMENTUM * squaredMoment[k]
+					+ (1 - SQUARES_MOMENTUM) * g * g;
+			weights[k] -= rate * moment[k]
+					/ (Math.sqrt(squaredMoment[k]) + EPSILON);
+		}
+	}
+
+	private static double clip(double value) {
+		return value < 0 ? 0 : value > 1 ? 1 : value;
+	}
+
+	/**
+	 * Returns the logistic loss of an output against a result.
+	 */
+	private static double loss(double output, double result) {
+		return Math.log1p(Math.exp(-Math.abs(output))) + Math.max(output, 0)
+				- output * result;
+	}
+}
@@ -0,0 +1,182 @@
+package backend;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The candidate movements of the first positions of the game, written by
+ * BookBuilder and read from a memory-mapped file, so a movement is looked up
+ * without copying the book into memory. The file starts with four ints:
+ * MAGIC, the rows and the columns of the board, and the amount of entries.
+ * Then every entry has the canonical hash of a position and its turn, a
+ * movement transformed by the symmetry of that hash, the depth it was
+ * searched to and its value. The entries are sorted by hash, and the ones of
+ * the same position by value, best first, so a position is found with a
+ * binary search.
+ */
+public class OpeningBook {
+
+	/**
+	 * The first int of an OpeningBook file.
+	 */
+	public static final int MAGIC = 0x424C4242;
+
+	/**
+	 * The size in bytes of the header of an OpeningBook file.
+	 */
+	public static final int HEADER = 16;
+
+	/**
+	 * The size in bytes of an entry of an OpeningBook file.
+	 */
+	public static final int ENTRY = 16;
+
+	private int rows;
+	private int columns;
+	private int size;
+	private MappedByteBuffer entries;
+
+	/**
+	 * Opens an OpeningBook file written by BookBuilder.
+	 * 
+	 * @param file
+	 *            the OpeningBook file.
+	 * @return the OpeningBook of the file.
+	 * @throws IOException
+	 *             if the file can't be read or is not a valid OpeningBook.
+	 */
+	public static OpeningBook open(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			OpeningBook book = new OpeningBook();
+			if (in.length() < HEADER || in.readInt() != MAGIC) {
+				throw new IOException("Error: " + file
+						+ " is not an opening book file.");
+			}
+			book.rows = in.readInt();
+			book.columns = in.readInt();
+			book.size = in.readInt();
+			if (book.size < 0 || in.length() != HEADER + (long) book.size
+					* ENTRY) {
+				throw new IOException("Error: the size of the opening book "
+						+ file + " doesn't match its entries.");
+			}
+			book.entries = in.getChannel().map(FileChannel.MapMode.READ_ONLY,
+					HEADER, (long) book.size * ENTRY);
+			return book;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Returns the amount of entries of the book.
+	 * 
+	 * @return the amount of entries of the book.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Looks for the position of the IABoard in the book.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the position.
+	 * @param side
+	 *            the char of the Blobs of the side to move.
+	 * @return the index of the best entry of the position, or -1 if the
+	 *         position is not in the book.
+	 */
+	public int probe(IABoard iaBoard, char side) {
+		if (iaBoard.rows() != rows || iaBoard.columns() != columns) {
+			return -1;
+		}
+		long key = iaBoard.hash(side, iaBoard.canonicalSymmetry(side));
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (key(middle) < key) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low < size && key(low) == key ? low : -1;
+	}
+
+	/**
+	 * Returns the amount of candidate movements of the position of an entry.
+	 * 
+	 * @param index
+	 *            the index returned by probe().
+	 * @return the amount of entries of the position.
+	 */
+	public int candidates(int index) {
+		int last = index;
+		while (last + 1 < size && key(last + 1) == key(index)) {
+			last++;
+		}
+		return last - index + 1;
+	}
+
+	/**
+	 * Returns the movement of an entry on the IABoard it was probed with. A
+	 * clone is made by the Blob given by IABoard.cloneOrigin().
+	 * 
+	 * @param iaBoard
+	 *            the IABoard given to probe().
+	 * @param side
+	 *            the char of the Blobs of the side to move.
+	 * @param index
+	 *            the index of the entry.
+	 * @return the movement, as from * 64 + to, or -1 if it is not valid on
+	 *         the IABoard.
+	 */
+	public int move(IABoard iaBoard, char side, int index) {
+		int move = entries.getShort(index * ENTRY + 8);
+		int symmetry = iaBoard.canonicalSymmetry(side);
+		int from = iaBoard.inverseTransform(symmetry, move / 64);
+		int to = iaBoard.inverseTransform(symmetry, move % 64);
+		long blobs = iaBoard.blobs(side);
+		if ((blobs & (1L << from)) == 0
+				|| (iaBoard.reachable(from) & (1L << to)) == 0) {
+			return -1;
+		}
+		if ((iaBoard.distanceOne(to) & (1L << from)) != 0) {
+			from = iaBoard.cloneOrigin(side, to);
+		}
+		return from * 64 + to;
+	}
+
+	/**
+	 * Returns the depth the movement of an entry was searched to.
+	 * 
+	 * @param index
+	 *            the index of the entry.
+	 * @return the depth of the entry.
+	 */
+	public int depth(int index) {
+		return entries.getShort(index * ENTRY + 10);
+	}
+
+	/**
+	 * Returns the value of the movement of an entry, seen from the side to
+	 * move.
+	 * 
+	 * @param index
+	 *            the index of the entry.
+	 * @return the value of the entry.
+	 */
+	public int score(int index) {
+		return entries.getInt(index * ENTRY + 12);
+	}
+
+	private long key(int index) {
+		return entries.getLong(index * ENTRY);
+	}
+}
@@ -0,0 +1,464 @@
+package backend;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * An IncrementalEvaluator made of lookup tables, in the way of the Othello
+ * engines. The board is covered by fixed patterns of squares: the edges and
+ * 3x3 blocks that tile the board, so every square is in at least one of
+ * them. The cells of a pattern, read as the digits of a number in base 3 (0
+ * for an empty cell, 1 for a Blob of the side to move and 2 for a Blob of its
+ * opponent), give the index of an entry of the table of the pattern, and the
+ * value of a position for the side to move is the sum of the entries of all
+ * the patterns, in the units of TexelTuner.SCALE. The edges are cut to
+ * MAX_LENGTH squares, so no table is larger than 3^MAX_LENGTH entries.
+ * 
+ * Every symmetric image of a pattern, with its squares in the transformed
+ * order, is a pattern too, and all the images share one table. So a
+ * symmetry of the board only permutes the patterns, and the symmetric images
+ * of a position, which the TranspositionTable stores as one, have the same
+ * value. A pattern that is its own image, such as a corner block on the
+ * diagonal, is read in both orders.
+ * 
+ * The Accumulator of the IABoard keeps the index of every pattern for both
+ * sides, and a movement only adds or subtracts the powers of 3 of the
+ * squares that change, so a leaf costs one load per pattern. The tables are
+ * 16 bit integers, one after the other in a single array, and are read from a
+ * file written by PatternFitter: the ints MAGIC, rows, columns and the amount
+ * of entries, and then the entries as shorts. The patterns depend only on the
+ * size of the board, so they are not written.
+ */
+public class PatternEvaluator implements IncrementalEvaluator {
+
+	/**
+	 * The first int of a patterns file.
+	 */
+	public static final int MAGIC = 0x424C5054;
+
+	/**
+	 * The largest amount of squares of a pattern.
+	 */
+	public static final int MAX_LENGTH = 10;
+
+	private static final int BLOCK = 3;
+
+	private int rows;
+	private int columns;
+	private int[][] patterns;
+	private int[] offsets;
+	private short[] tables;
+	private int[][] squarePatterns;
+	private int[][] squarePowers;
+
+	/**
+	 * Constructor for the PatternEvaluator class.
+	 * 
+	 * @param rows
+	 *            the amount of rows of the boards.
+	 * @param columns
+	 *            the amount of columns of the boards.
+	 * @param tables
+	 *            the entries of the tables of all the patterns, one table
+	 *            after the other, whose length must be size(rows, columns).
+	 */
+	public PatternEvaluator(int rows, int columns, short[] tables) {
+		if (rows <= 0 || columns <= 0 || rows * columns > 64
+				|| tables.length != size(rows, columns)) {
+			throw new IllegalArgumentException(
+					"Error: incompatible pattern tables sizes.");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		this.tables = tables.clone();
+		ArrayList<int[]> list = new ArrayList<int[]>();
+		ArrayList<Integer> tableList = new ArrayList<Integer>();
+		build(rows, columns, list, tableList);
+		patterns = list.toArray(new int[list.size()][]);
+		offsets = new int[patterns.length];
+		int[] tableOffsets = new int[patterns.length];
+		int[] counts = new int[rows * columns];
+		for (int p = 0; p < patterns.length; p++) {
+			int table = tableList.get(p);
+			if (p > 0 && table != tableList.get(p - 1)) {
+				tableOffsets[table] = tableOffsets[table - 1]
+						+ power(patterns[p - 1].length);
+			}
+			offsets[p] = tableOffsets[table];
+			for (int square : patterns[p]) {
+				counts[square]++;
+			}
+		}
+		squarePatterns = new int[rows * columns][];
+		squarePowers = new int[rows * columns][];
+		for (int square = 0; square < counts.length; square++) {
+			squarePatterns[square] = new int[counts[square]];
+			squarePowers[square] = new int[counts[square]];
+			counts[square] = 0;
+		}
+		for (int p = 0; p < patterns.length; p++) {
+			for (int k = 0; k < patterns[p].length; k++) {
+				int square = patterns[p][k];
+				squarePatterns[square][counts[square]] = p;
+				squarePowers[square][counts[square]] = power(k);
+				counts[square]++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the squares of the patterns of a board: its edges, and the
+	 * blocks that tile it, where the last block of a row or a column overlaps
+	 * the previous one if the board doesn't split evenly, with all their
+	 * symmetric images.
+	 * 
+	 * @param rows
+	 *            the amount of rows of the board.
+	 * @param columns
+	 *            the amount of columns of the board.
+	 * @return the squares of each pattern, in the order of their digits, with
+	 *         the images of a pattern next to each other.
+	 */
+	public static int[][] patterns(int rows, int columns) {
+		ArrayList<int[]> patterns = new ArrayList<int[]>();
+		build(rows, columns, patterns, new ArrayList<Integer>());
+		return patterns.toArray(new int[patterns.size()][]);
+	}
+
+	/**
+	 * Adds the patterns of a board to a list, and the number of the table of
+	 * each one to another list, where the images of a pattern share a table.
+	 */
+	private static void build(int rows, int columns,
+			ArrayList<int[]> patterns, ArrayList<Integer> tables) {
+		IABoard geometry = new IABoard(rows, columns);
+		int[] rowEdge = new int[Math.min(columns, MAX_LENGTH)];
+		for (int j = 0; j < rowEdge.length; j++) {
+			rowEdge[j] = j;
+		}
+		addImages(geometry, patterns, tables, rowEdge);
+		int[] columnEdge = new int[Math.min(rows, MAX_LENGTH)];
+		for (int i = 0; i < columnEdge.length; i++) {
+			columnEdge[i] = i * columns;
+		}
+		addImages(geometry, patterns, tables, columnEdge);
+		int height = Math.min(rows, BLOCK);
+		int width = Math.min(columns, BLOCK);
+		for (int i = 0; i < rows; i += height) {
+			for (int j = 0; j < columns; j += width) {
+				int top = Math.min(i, rows - height);
+				int left = Math.min(j, columns - width);
+				int[] block = new int[height * width];
+				for (int k = 0; k < block.length; k++) {
+					block[k] = (top + k / width) * columns + left + k % width;
+				}
+				addImages(geometry, patterns, tables, block);
+			}
+		}
+	}
+
+	/**
+	 * Adds the symmetric images of a pattern with a new table, unless there
+	 * is already a pattern with the same squares, whose images are there
+	 * too.
+	 */
+	private static void addImages(IABoard geometry,
+			ArrayList<int[]> patterns, ArrayList<Integer> tables,
+			int[] pattern) {
+		int[] sorted = pattern.clone();
+		Arrays.sort(sorted);
+		for (int[] other : patterns) {
+			int[] otherSorted = other.clone();
+			Arrays.sort(otherSorted);
+			if (Arrays.equals(sorted, otherSorted)) {
+				return;
+			}
+		}
+		int table = tables.isEmpty() ? 0 : tables.get(tables.size() - 1) + 1;
+		int first = patterns.size();
+		for (int k = 0; k < geometry.symmetries(); k++) {
+			int[] image = new int[pattern.length];
+			for (int d = 0; d < pattern.length; d++) {
+				image[d] = geometry.transform(k, pattern[d]);
+			}
+			boolean repeated = false;
+			for (int p = first; p < patterns.size(); p++) {
+				repeated |= Arrays.equals(image, patterns.get(p));
+			}
+			if (!repeated) {
+				patterns.add(image);
+				tables.add(table);
+			}
+		}
+	}
+
+	/**
+	 * Returns the amount of entries of the tables of a board.
+	 * 
+	 * @param rows
+	 *            the amount of rows of the board.
+	 * @param columns
+	 *            the amount of columns of the board.
+	 * @return the amount of entries.
+	 */
+	public static int size(int rows, int columns) {
+		ArrayList<int[]> patterns = new ArrayList<int[]>();
+		ArrayList<Integer> tables = new ArrayList<Integer>();
+		build(rows, columns, patterns, tables);
+		int size = 0;
+		for (int p = 0; p < patterns.size(); p++) {
+			if (p == 0 || !tables.get(p).equals(tables.get(p - 1))) {
+				size += power(patterns.get(p).length);
+			}
+		}
+		return size;
+	}
+
+	private static int power(int exponent) {
+		int power = 1;
+		for (int k = 0; k < exponent; k++) {
+			power *= 3;
+		}
+		return power;
+	}
+
+	/**
+	 * Reads a patterns file.
+	 * 
+	 * @param file
+	 *            the patterns file.
+	 * @return the PatternEvaluator of the file.
+	 * @throws IOException
+	 *             if the file can't be read or is not a valid patterns file.
+	 */
+	public static PatternEvaluator load(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Error: " + file
+						+ " is not a patterns file.");
+			}
+			int rows = in.readInt();
+			int columns = in.readInt();
+			int size = in.readInt();
+			if (rows <= 0 || columns <= 0 || rows * columns > 64
+					|| size != size(rows, columns)) {
+				throw new IOException("Error: the size of the patterns "
+						+ file + " doesn't match its board.");
+			}
+			short[] tables = new short[size];
+			for (int k = 0; k < size; k++) {
+				tables[k] = in.readShort();
+			}
+			if (in.read() != -1) {
+				throw new IOException("Error: the patterns " + file
+						+ " are longer than their size.");
+			}
+			return new PatternEvaluator(rows, columns, tables);
+		} catch (EOFException e) {
+			throw new IOException("Error: the patterns " + file
+					+ " are shorter than their size.");
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes the tables to a file that load() can read.
+	 * 
+	 * @param file
+	 *            the file to be written.
+	 * @throws IOException
+	 *             if the file can't be written.
+	 */
+	public void write(File file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(rows);
+			out.writeInt(columns);
+			out.writeInt(tables.length);
+			for (short entry : tables) {
+				out.writeShort(entry);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Returns weather the tables can evaluate the boards of an IABoard.
+	 * 
+	 * @param iaBoard
+	 *            an IABoard with the size of the boards.
+	 * @return a boolean value that determines weather the sizes match.
+	 */
+	public boolean fits(IABoard iaBoard) {
+		return iaBoard.rows() == rows && iaBoard.columns() == columns;
+	}
+
+	/**
+	 * Returns the amount of patterns.
+	 * 
+	 * @return the amount of patterns.
+	 */
+	public int patterns() {
+		return patterns.length;
+	}
+
+	/**
+	 * Computes the entry of every pattern for a position.
+	 * 
+	 * @param mine
+	 *            the bitboard of the Blobs of the side to move.
+	 * @param theirs
+	 *            the bitboard of the Blobs of its opponent.
+	 * @param entries
+	 *            the array where the index in the tables of the entry of
+	 *            each pattern is written.
+	 */
+	public void entries(long mine, long theirs, int[] entries) {
+		for (int p = 0; p < patterns.length; p++) {
+			int index = 0;
+			for (int k = patterns[p].length - 1; k >= 0; k--) {
+				long bit = 1L << patterns[p][k];
+				index = index * 3
+						+ ((mine & bit) != 0 ? 1 : (theirs & bit) != 0 ? 2 : 0);
+			}
+			entries[p] = offsets[p] + index;
+		}
+	}
+
+	/**
+	 * Computes the value of a position from scratch, without an Accumulator.
+	 * 
+	 * @param mine
+	 *            the bitboard of the Blobs of the side to move.
+	 * @param theirs
+	 *            the bitboard of the Blobs of its opponent.
+	 * @return the value of the position for the side to move.
+	 */
+	public int value(long mine, long theirs) {
+		int[] entries = new int[patterns.length];
+		entries(mine, theirs, entries);
+		return sum(entries, 0);
+	}
+
+	private int sum(int[] entries, int offset) {
+		int sum = 0;
+		for (int p = 0; p < patterns.length; p++) {
+			sum += tables[entries[offset + p]];
+		}
+		return sum;
+	}
+
+	@Override
+	public int[] squareWeights(IABoard geometry) {
+		return null;
+	}
+
+	@Override
+	public Accumulator accumulator(IABoard geometry) {
+		if (!fits(geometry)) {
+			throw new IllegalArgumentException("Error: the patterns are for "
+					+ rows + "x" + columns + " boards.");
+		}
+		return new Entries();
+	}
+
+	@Override
+	public int evaluate(IABoard iaBoard, char side) {
+		char next = IABoard.opponent(side);
+		if (iaBoard.evaluator() == this) {
+			Entries entries = (Entries) iaBoard.accumulator();
+			return -sum(entries.values, next == 'c' ? 0 : patterns.length);
+		}
+		return -value(iaBoard.blobs(next), iaBoard.blobs(side));
+	}
+
+	/**
+	 * The entries of the patterns, first with the computer to move and then
+	 * with the player to move, and the copies saved before each movement.
+	 */
+	private class Entries implements Accumulator {
+
+		private int[] values = new int[2 * patterns.length];
+		private int[] saved = new int[16 * 2 * patterns.length];
+		private int size;
+
+		@Override
+		public void reset(long computer, long player) {
+			int[] entries = new int[patterns.length];
+			entries(computer, player, entries);
+			System.arraycopy(entries, 0, values, 0, patterns.length);
+			entries(player, computer, entries);
+			System.arraycopy(entries, 0, values, patterns.length,
+					patterns.length);
+			size = 0;
+		}
+
+		@Override
+		public void makeMove(int origin, int destination, long flipped,
+				boolean computer) {
+			if ((size + 1) * values.length > saved.length) {
+				saved = Arrays.copyOf(saved, saved.length * 2);
+			}
+			System.arraycopy(values, 0, saved, size * values.length,
+					values.length);
+			size++;
+			int mover = computer ? 0 : patterns.length;
+			int other = computer ? patterns.length : 0;
+			change(destination, mover, other, 1);
+			if (origin != -1) {
+				change(origin, mover, other, -1);
+			}
+			for (long bits = flipped; bits != 0; bits &= bits - 1) {
+				int square = Long.numberOfTrailingZeros(bits);
+				int[] squarePattern = squarePatterns[square];
+				int[] squarePower = squarePowers[square];
+				for (int k = 0; k < squarePattern.length; k++) {
+					values[mover + squarePattern[k]] -= squarePower[k];
+					values[other + squarePattern[k]] += squarePower[k];
+				}
+			}
+		}
+
+		/**
+		 * Adds (sign 1) or removes (sign -1) a Blob of the mover on an empty
+		 * square.
+		 */
+		private void change(int square, int mover, int other, int sign) {
+			int[] squarePattern = squarePatterns[square];
+			int[] squarePower = squarePowers[square];
+			for (int k = 0; k < squarePattern.length; k++) {
+				values[mover + squarePattern[k]] += sign * squarePower[k];
+				values[other + squarePattern[k]] += 2 * sign * squarePower[k];
+			}
+		}
+
+		@Override
+		public void undoMove() {
+			size--;
+			System.arraycopy(saved, size * values.length, values, 0,
+					values.length);
+		}
+
+		@Override
+		public Accumulator copy() {
+			Entries copy = new Entries();
+			System.arraycopy(values, 0, copy.values, 0, values.length);
+			return copy;
+		}
+	}
+}
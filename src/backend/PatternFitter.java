@@ -0,0 +1,235 @@
+package backend;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fits the tables of a PatternEvaluator to a dataset of TrainingPositions,
+ * such as the ones of the games the engine plays against itself. The entries
+ * are real numbers while fitted, moved after every position by stochastic
+ * gradient descent on the logistic loss of their sum against the result of
+ * the game. Most entries are seen only a few times, so each one has its own
+ * step, which shrinks with the squares of its gradients as in AdaGrad, and
+ * all of them are pulled a little towards zero, so the entries of rare
+ * configurations stay small. The fitted entries are then rounded to the 16
+ * bit integers of the PatternEvaluator.
+ * 
+ * The symmetric images of a pattern share a table, so every position already
+ * trains the entries of all its symmetric images, and the positions are used
+ * as they are. Only the bitboards of the side to move and of its opponent
+ * and the result are stored, and a position whose side to move has no
+ * movement is dropped, as its value is never asked for.
+ */
+public class PatternFitter {
+
+	/**
+	 * The default amount of passes over the dataset.
+	 */
+	public static final int DEFAULT_EPOCHS = 10;
+
+	private static final double RATE = 0.0025;
+	private static final double DECAY = 1e-3;
+	private static final double EPSILON = 1e-8;
+
+	private IABoard geometry;
+	private PatternEvaluator shape;
+	private double[] entries;
+	private double[] squares;
+	private Random random;
+	private long[] mine = new long[1024];
+	private long[] theirs = new long[1024];
+	private byte[] results = new byte[1024];
+	private int size;
+
+	/**
+	 * Constructor for the PatternFitter class.
+	 * 
+	 * @param seed
+	 *            the seed of the order of the positions.
+	 */
+	public PatternFitter(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Reads the positions of a dataset, which must all have the same size.
+	 * 
+	 * @param file
+	 *            the dataset file, with a TrainingPosition per line, or the
+	 *            directory of a dataset written by DatasetWriter.
+	 * @throws IOException
+	 *             if the file can't be read, has an invalid line or has
+	 *             positions of different sizes.
+	 */
+	public void load(File file) throws IOException {
+		if (file.isDirectory()) {
+			DatasetReader reader = new DatasetReader(file);
+			try {
+				while (reader.next()) {
+					add(reader.position(), file);
+				}
+			} finally {
+				reader.close();
+			}
+			return;
+		}
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.trim().length() == 0) {
+					continue;
+				}
+				TrainingPosition position;
+				try {
+					position = TrainingPosition.parse(line);
+				} catch (IllegalArgumentException e) {
+					throw new IOException(e.getMessage());
+				}
+				add(position, file);
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	private void add(TrainingPosition position, File file) throws IOException {
+		IABoard iaBoard = position.board();
+		if (geometry == null) {
+			int rows = iaBoard.rows();
+			int columns = iaBoard.columns();
+			geometry = new IABoard(rows, columns);
+			shape = new PatternEvaluator(rows, columns,
+					new short[PatternEvaluator.size(rows, columns)]);
+			entries = new double[PatternEvaluator.size(rows, columns)];
+			squares = new double[entries.length];
+		} else if (!shape.fits(iaBoard)) {
+			throw new IOException("Error: the positions of " + file
+					+ " have different sizes.");
+		}
+		char side = position.side();
+		if (!iaBoard.canMove(side)) {
+			return;
+		}
+		if (size == results.length) {
+			mine = Arrays.copyOf(mine, size * 2);
+			theirs = Arrays.copyOf(theirs, size * 2);
+			results = Arrays.copyOf(results, size * 2);
+		}
+		mine[size] = iaBoard.blobs(side);
+		theirs[size] = iaBoard.blobs(IABoard.opponent(side));
+		results[size] = (byte) Math.round(position.result() * 2);
+		size++;
+	}
+
+	/**
+	 * Returns the amount of positions read.
+	 * 
+	 * @return the amount of positions.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Makes a pass over the positions, in a random order, moving the entries
+	 * of each one.
+	 * 
+	 * @return the average loss of the positions during the pass.
+	 */
+	public double epoch() {
+		if (size == 0) {
+			throw new IllegalStateException("Error: there are no positions.");
+		}
+		int[] order = new int[size];
+		for (int k = 0; k < size; k++) {
+			int other = random.nextInt(k + 1);
+			order[k] = order[other];
+			order[other] = k;
+		}
+		int[] indices = new int[shape.patterns()];
+		double loss = 0;
+		for (int position : order) {
+			shape.entries(mine[position], theirs[position], indices);
+			double output = 0;
+			for (int index : indices) {
+				output += entries[index];
+			}
+			double result = results[position] / 2.0;
+			loss += loss(output, result);
+			double error = 1 / (1 + Math.exp(-output)) - result;
+			for (int index : indices) {
+				double gradient = error + DECAY * entries[index];
+				squares[index] += gradient * gradient;
+				entries[index] -= RATE * gradient
+						/ (Math.sqrt(squares[index]) + EPSILON);
+			}
+		}
+		return loss / size;
+	}
+
+	/**
+	 * Returns the average loss of the positions with the real entries.
+	 * 
+	 * @return the average loss.
+	 */
+	public double loss() {
+		int[] indices = new int[shape.patterns()];
+		double loss = 0;
+		for (int k = 0; k < size; k++) {
+			shape.entries(mine[k], theirs[k], indices);
+			double output = 0;
+			for (int index : indices) {
+				output += entries[index];
+			}
+			loss += loss(output, results[k] / 2.0);
+		}
+		return loss / size;
+	}
+
+	/**
+	 * Returns the average loss of the positions with a PatternEvaluator, such
+	 * as the rounded tables, to see what the rounding costs.
+	 * 
+	 * @param evaluator
+	 *            the PatternEvaluator.
+	 * @return the average loss.
+	 */
+	public double loss(PatternEvaluator evaluator) {
+		double loss = 0;
+		for (int k = 0; k < size; k++) {
+			double output = (double) evaluator.value(mine[k], theirs[k])
+					/ TexelTuner.SCALE;
+			loss += loss(output, results[k] / 2.0);
+		}
+		return loss / size;
+	}
+
+	/**
+	 * Rounds the real entries to a PatternEvaluator.
+	 * 
+	 * @return the PatternEvaluator of the tables.
+	 */
+	public PatternEvaluator evaluator() {
+		short[] tables = new short[entries.length];
+		for (int k = 0; k < tables.length; k++) {
+			long value = Math.round(entries[k] * TexelTuner.SCALE);
+			tables[k] = (short) Math.max(Short.MIN_VALUE, Math.min(
+					Short.MAX_VALUE, value));
+		}
+		return new PatternEvaluator(geometry.rows(), geometry.columns(),
+				tables);
+	}
+
+	/**
+	 * Returns the logistic loss of an output against a result.
+	 */
+	private static double loss(double output, double result) {
+		return Math.log1p(Math.exp(-Math.abs(output))) + Math.max(output, 0)
+				- output * result;
+	}
+}
@@ -0,0 +1,274 @@
+package backend;
+
+import java.util.Arrays;
+
+/**
+ * A depth-first proof-number search (df-pn), which proves weather the side
+ * to move can force a win, without a depth limit. Every node has a proof
+ * number and a disproof number: the least amount of positions that must be
+ * proven to be won, or lost, to prove the node. The search always expands
+ * the most proving node, the one that needs the least work to change the
+ * result of the root, and it only goes back up when the numbers of a node
+ * exceed the thresholds given by its parent. The numbers are kept from the
+ * side to move of each node, so a node has a single kind: phi is its proof
+ * number and delta its disproof number, phi is the smallest delta of its
+ * movements and delta is the sum of their phi.
+ * 
+ * The movements are the ones of Minimax.moves(), made on the IABoard, and
+ * the game is over, as in the EndgameSolver, when the side to move can't
+ * move, and then its opponent claims all the empty cells left. The positions
+ * are stored in a ProofTable by the hash of their canonical symmetric image,
+ * and the table is collected when it fills up, so the search runs within a
+ * bounded memory.
+ * 
+ * As a jump doesn't fill any cell, a game could go on forever: a position
+ * that repeats one of the path, or that is MAX_PLIES plies deep, counts as
+ * a failure of the side trying to win. A proven win is always right, but a
+ * position may not be proven although it is won.
+ */
+public class ProofNumberSearch extends Negamax {
+
+	/**
+	 * The default amount of nodes the search may expand.
+	 */
+	public static final int DEFAULT_NODES = 1000000;
+
+	private static final int TABLE_BITS = 20;
+	private static final int MAX_PLIES = 256;
+	private static final int CHECK_NODES = 1024;
+
+	private ProofTable table = new ProofTable(TABLE_BITS);
+	private int nodes;
+	private int limit;
+	private int expanded;
+	private long deadline;
+	private char attacker;
+	private long[] path = new long[64];
+	private int plies;
+	private String result = "UNKNOWN";
+
+	/**
+	 * Constructor for the ProofNumberSearch class.
+	 * 
+	 * @param iaBoard
+	 *            a reference to the game IABoard.
+	 * @param side
+	 *            the char of the Blobs of the side to move.
+	 * @param nodes
+	 *            the amount of nodes the search may expand.
+	 * @param timeMillis
+	 *            the time when the search must end, or -1 if there is no time
+	 *            limit.
+	 */
+	public ProofNumberSearch(IABoard iaBoard, char side, int nodes,
+			long timeMillis) {
+		super(iaBoard, side, 1, 1, true, timeMillis);
+		this.nodes = nodes;
+	}
+
+	/**
+	 * Tries to prove that the side to move wins, and then that its opponent
+	 * does, each one with half of the nodes and of the time. If the side to
+	 * move wins, the movement of the search is the one that proves it.
+	 * 
+	 * @param cycles
+	 *            the Cycle object of the search.
+	 * @return a boolean value that determines weather a win of any side was
+	 *         proven.
+	 */
+	public boolean prove(Cycle cycles) {
+		long begining = System.currentTimeMillis();
+		limit = nodes / 2;
+		deadline = time() ? begining + (timeMillis() - begining) / 2 : -1;
+		if (search(side(), cycles) == 0) {
+			result = "WIN";
+			return true;
+		}
+		table.clear();
+		setTimedOut(false);
+		limit = nodes;
+		deadline = time() ? timeMillis() : -1;
+		if (search(IABoard.opponent(side()), cycles) == 0) {
+			result = "LOSS";
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the result of the last call to prove(), for the side to move.
+	 * 
+	 * @return "WIN", "LOSS", or "UNKNOWN" if no win could be proven, which
+	 *         includes the drawn positions.
+	 */
+	public String result() {
+		return result;
+	}
+
+	/**
+	 * Searches the root until it is proven or disproven for the attacker, or
+	 * the search runs out of nodes or time.
+	 * 
+	 * @return 0 if the attacker wins.
+	 */
+	private int search(char attacker, Cycle cycles) {
+		this.attacker = attacker;
+		plies = 0;
+		long key = key(side());
+		long entry;
+		if (!board().canMove(side())) {
+			entry = evaluate(side(), key, cycles);
+		} else {
+			push(key);
+			entry = expand(side(), INFINITY, INFINITY, cycles);
+			plies--;
+		}
+		return side() == attacker ? ProofTable.phi(entry) : ProofTable
+				.delta(entry);
+	}
+
+	/**
+	 * Expands a node until its proof numbers reach one of the thresholds.
+	 * 
+	 * @return the packed proof numbers of the node.
+	 */
+	private long expand(char side, int thPhi, int thDelta, Cycle cycles) {
+		cycles.increment();
+		int first = ++expanded;
+		char next = IABoard.opponent(side);
+		int[] moves = moves(side, -1);
+		long[] keys = new long[moves.length];
+		int[] phis = new int[moves.length];
+		int[] deltas = new int[moves.length];
+		for (int k = 0; k < moves.length; k++) {
+			makeMove(moves[k]);
+			keys[k] = key(next);
+			long entry = evaluate(next, keys[k], cycles);
+			if (entry == ProofTable.NONE) {
+				entry = ProofTable.pack(1, 1);
+			}
+			phis[k] = ProofTable.phi(entry);
+			deltas[k] = ProofTable.delta(entry);
+			board().undoMove();
+		}
+		int phi = 0;
+		int delta = 0;
+		while (true) {
+			int best = 0;
+			int second = INFINITY;
+			phi = INFINITY;
+			delta = 0;
+			for (int k = 0; k < moves.length; k++) {
+				if (deltas[k] < phi) {
+					second = phi;
+					phi = deltas[k];
+					best = k;
+				} else if (deltas[k] < second) {
+					second = deltas[k];
+				}
+				delta = add(delta, phis[k]);
+			}
+			if (phi >= thPhi || delta >= thDelta || stopped()) {
+				break;
+			}
+			int childPhi = add(thDelta - delta, phis[best]);
+			if (thDelta == INFINITY) {
+				childPhi = INFINITY;
+			}
+			int childDelta = Math.min(thPhi, add(second, 1));
+			makeMove(moves[best]);
+			push(keys[best]);
+			long entry = expand(next, childPhi, childDelta, cycles);
+			plies--;
+			board().undoMove();
+			phis[best] = ProofTable.phi(entry);
+			deltas[best] = ProofTable.delta(entry);
+		}
+		if (plies == 1 && phi == 0) {
+			for (int k = 0; k < moves.length; k++) {
+				if (deltas[k] == 0) {
+					setMovement(board().row(moves[k] / 64),
+							board().column(moves[k] / 64),
+							board().row(moves[k] % 64),
+							board().column(moves[k] % 64));
+					break;
+				}
+			}
+		}
+		long entry = ProofTable.pack(phi, delta);
+		if (table.crowded()) {
+			cycles.collection(table.collect());
+		}
+		table.store(path[plies - 1], entry, expanded - first + 1);
+		return entry;
+	}
+
+	/**
+	 * Returns the proof numbers of a position that is over, repeated, too
+	 * deep or already in the table.
+	 * 
+	 * @return the packed proof numbers of the position, or ProofTable.NONE if
+	 *         it must be expanded.
+	 */
+	private long evaluate(char side, long key, Cycle cycles) {
+		long won = ProofTable.pack(0, INFINITY);
+		long lost = ProofTable.pack(INFINITY, 0);
+		if (!board().canMove(side)) {
+			int empties = Long.bitCount(board().empty());
+			char defender = IABoard.opponent(attacker);
+			int difference = board().count(attacker) - board().count(defender);
+			difference += side == attacker ? -empties : empties;
+			return (difference > 0) == (side == attacker) ? won : lost;
+		}
+		if (plies >= MAX_PLIES || repeated(key)) {
+			return side == attacker ? lost : won;
+		}
+		long entry = table.probe(key);
+		cycles.probe(entry != ProofTable.NONE);
+		return entry;
+	}
+
+	/**
+	 * Checks weather the search ran out of nodes, and once every CHECK_NODES
+	 * nodes weather it ran out of time.
+	 */
+	private boolean stopped() {
+		if (!timedOut() && expanded >= limit || expanded % CHECK_NODES == 0
+				&& deadline != -1 && System.currentTimeMillis() >= deadline) {
+			setTimedOut(true);
+		}
+		return timedOut();
+	}
+
+	private boolean repeated(long key) {
+		for (int k = 0; k < plies; k++) {
+			if (path[k] == key) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void push(long key) {
+		if (plies == path.length) {
+			path = Arrays.copyOf(path, plies * 2);
+		}
+		path[plies++] = key;
+	}
+
+	private void makeMove(int move) {
+		board().makeMove(board().row(move / 64), board().column(move / 64),
+				board().row(move % 64), board().column(move % 64));
+	}
+
+	private long key(char turn) {
+		return board().hash(turn, board().canonicalSymmetry(turn));
+	}
+
+	/**
+	 * Adds two proof numbers, which never go beyond INFINITY.
+	 */
+	private static int add(int a, int b) {
+		return (int) Math.min(INFINITY, (long) a + b);
+	}
+}
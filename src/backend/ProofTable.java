@@ -0,0 +1,188 @@
+package backend;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size hash table for the ProofNumberSearch, which stores the proof
+ * numbers of the positions already searched, packed into a long, and the
+ * amount of nodes expanded below each of them. The slots are grouped in
+ * buckets of four, and when the bucket of a new position is full, the entry
+ * with the smallest subtree is replaced.
+ * 
+ * The memory used by the search is bounded by the size of the table: when it
+ * is three quarters full, collect() removes the entries of the smallest
+ * subtrees. Most of them are the nodes inside subtrees that are already
+ * solved, which are not needed any more once the root of the subtree has its
+ * result stored.
+ */
+public class ProofTable {
+
+	/**
+	 * The value returned by probe() when the position is not in the table.
+	 */
+	public static final long NONE = -1;
+
+	private static final int WAYS = 4;
+
+	private long[] keys;
+	private long[] entries;
+	private int[] works;
+	private int mask;
+	private int size;
+
+	/**
+	 * Constructor for the ProofTable class.
+	 * 
+	 * @param bits
+	 *            the table will have 2^bits entries.
+	 */
+	public ProofTable(int bits) {
+		keys = new long[1 << bits];
+		entries = new long[1 << bits];
+		works = new int[1 << bits];
+		mask = (1 << bits) / WAYS - 1;
+	}
+
+	/**
+	 * Returns the amount of entries the table can hold.
+	 * 
+	 * @return the amount of entries the table can hold.
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Returns the amount of entries stored in the table.
+	 * 
+	 * @return the amount of entries stored in the table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the table is full
+	 * enough to be collected.
+	 * 
+	 * @return a boolean value that determines weather collect() should be
+	 *         called.
+	 */
+	public boolean crowded() {
+		return size >= keys.length / 4 * 3;
+	}
+
+	/**
+	 * Removes every entry from the table.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(entries, 0);
+		Arrays.fill(works, 0);
+		size = 0;
+	}
+
+	/**
+	 * Looks for the entry of the position with the given hash.
+	 * 
+	 * @param key
+	 *            the hash of the position.
+	 * @return the packed proof numbers of the position, or NONE if the
+	 *         position is not in the table.
+	 */
+	public long probe(long key) {
+		int bucket = ((int) key & mask) * WAYS;
+		for (int slot = bucket; slot < bucket + WAYS; slot++) {
+			if (works[slot] != 0 && keys[slot] == key) {
+				return entries[slot];
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * Stores the proof numbers of a position. If the position is not in the
+	 * table and its bucket is full, the entry with the smallest subtree is
+	 * replaced, unless the new one is smaller.
+	 * 
+	 * @param key
+	 *            the hash of the position.
+	 * @param entry
+	 *            the packed proof numbers of the position.
+	 * @param work
+	 *            the amount of nodes expanded below the position.
+	 */
+	public void store(long key, long entry, int work) {
+		int bucket = ((int) key & mask) * WAYS;
+		int victim = -1;
+		for (int slot = bucket; slot < bucket + WAYS; slot++) {
+			if (works[slot] != 0 && keys[slot] == key) {
+				victim = slot;
+				break;
+			}
+			if (victim == -1 || works[slot] < works[victim]) {
+				victim = slot;
+			}
+		}
+		if (works[victim] == 0) {
+			size++;
+		} else if (keys[victim] != key && works[victim] > work) {
+			return;
+		}
+		keys[victim] = key;
+		entries[victim] = entry;
+		works[victim] = Math.max(1, work);
+	}
+
+	/**
+	 * Removes the entries of the smallest subtrees until at most half of the
+	 * table is used: first the ones of a single node, then the ones of at
+	 * most two nodes, four nodes, and so on.
+	 * 
+	 * @return the amount of removed entries.
+	 */
+	public int collect() {
+		int removed = 0;
+		for (int limit = 1; size > keys.length / 2; limit *= 2) {
+			for (int slot = 0; slot < keys.length; slot++) {
+				if (works[slot] != 0 && works[slot] <= limit) {
+					works[slot] = 0;
+					size--;
+					removed++;
+				}
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Packs a proof number and a disproof number into an entry.
+	 * 
+	 * @param phi
+	 *            the proof number of the side to move.
+	 * @param delta
+	 *            the disproof number of the side to move.
+	 * @return the packed entry.
+	 */
+	public static long pack(int phi, int delta) {
+		return (long) phi << 32 | delta;
+	}
+
+	/**
+	 * Returns the proof number of the side to move of a packed entry.
+	 * 
+	 * @return the proof number of the side to move.
+	 */
+	public static int phi(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	/**
+	 * Returns the disproof number of the side to move of a packed entry.
+	 * 
+	 * @return the disproof number of the side to move.
+	 */
+	public static int delta(long entry) {
+		return (int) entry;
+	}
+}
@@ -0,0 +1,223 @@
+package backend;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Solves every position of a small board by retrograde analysis, and writes
+ * the results as a Tablebase file. The positions where the side to move
+ * can't move are solved first, as the game is over and its opponent claims
+ * all the empty cells left. Then every sweep d over the positions still
+ * unknown finds the ones won in d plies, which have a movement to a position
+ * lost in d - 1 plies, and the ones lost in d plies, whose movements all go
+ * to positions won in less than d plies. A position whose movements all go
+ * to solved positions, none of them lost, and some of them drawn, is a draw.
+ * When a sweep solves nothing, the positions left are draws too, as none of
+ * the sides can force the end of the game.
+ * 
+ * There are 3^cells positions, so only boards of up to Tablebase.MAX_CELLS
+ * cells can be solved, which is 4x4.
+ */
+public class Retrograde {
+
+	private static final byte UNKNOWN = Byte.MIN_VALUE;
+
+	private int rows;
+	private int columns;
+	private int cells;
+	private long full;
+	private IABoard geometry;
+	private byte[] values;
+	private int sweeps;
+
+	/**
+	 * Constructor for the Retrograde class.
+	 * 
+	 * @param rows
+	 *            the amount of rows of the board.
+	 * @param columns
+	 *            the amount of columns of the board.
+	 */
+	public Retrograde(int rows, int columns) {
+		geometry = new IABoard(rows, columns);
+		if (rows * columns > Tablebase.MAX_CELLS) {
+			throw new IllegalArgumentException(
+					"Error: a tablebase can have at most "
+							+ Tablebase.MAX_CELLS + " cells.");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		cells = rows * columns;
+		full = (1L << cells) - 1;
+	}
+
+	/**
+	 * Solves every position of the board.
+	 */
+	public void solve() {
+		values = new byte[Tablebase.size(cells)];
+		Arrays.fill(values, UNKNOWN);
+		sweeps = 0;
+		boolean changed = true;
+		for (int distance = 0; changed; distance++) {
+			if (distance == Byte.MAX_VALUE) {
+				throw new IllegalStateException(
+						"Error: the distances don't fit in the tablebase.");
+			}
+			changed = sweep(distance);
+			sweeps++;
+		}
+		for (int index = 0; index < values.length; index++) {
+			if (values[index] == UNKNOWN) {
+				values[index] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Solves the unknown positions won or lost in the given amount of plies,
+	 * and the drawn ones that can be told already.
+	 * 
+	 * @return a boolean value that determines weather any position was
+	 *         solved.
+	 */
+	private boolean sweep(int distance) {
+		boolean changed = false;
+		long own = 0;
+		long opp = 0;
+		for (int index = 0; index < values.length; index++) {
+			if (values[index] == UNKNOWN) {
+				byte value = value(own, opp, distance);
+				if (value != UNKNOWN) {
+					values[index] = value;
+					changed = true;
+				}
+			}
+			for (int square = 0; square < cells; square++) {
+				long bit = 1L << square;
+				if ((own & bit) != 0) {
+					own &= ~bit;
+					opp |= bit;
+					break;
+				}
+				if ((opp & bit) == 0) {
+					own |= bit;
+					break;
+				}
+				opp &= ~bit;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns the value of a position, as stored by the Tablebase, if it is
+	 * won or lost in the given amount of plies or if it is a draw.
+	 * 
+	 * @return the value of the position, or UNKNOWN.
+	 */
+	private byte value(long own, long opp, int distance) {
+		long empty = full & ~(own | opp);
+		if ((geometry.dilate(geometry.dilate(own)) & empty) == 0) {
+			int difference = Long.bitCount(own) - Long.bitCount(opp)
+					- Long.bitCount(empty);
+			return (byte) Integer.signum(difference);
+		}
+		if (distance == 0) {
+			return UNKNOWN;
+		}
+		boolean solved = true;
+		boolean draw = false;
+		long clones = geometry.dilate(own) & empty;
+		for (; clones != 0; clones &= clones - 1) {
+			int to = Long.numberOfTrailingZeros(clones);
+			int from = Long.numberOfTrailingZeros(geometry.distanceOne(to)
+					& own);
+			byte next = next(own, opp, from * 64 + to);
+			if (next < 0 && -next <= distance) {
+				return (byte) (distance + 1);
+			}
+			draw |= next == 0;
+			solved &= next == 0 || Math.abs(next) <= distance;
+		}
+		for (long blobs = own; blobs != 0; blobs &= blobs - 1) {
+			int from = Long.numberOfTrailingZeros(blobs);
+			long targets = geometry.distanceTwo(from) & empty;
+			for (; targets != 0; targets &= targets - 1) {
+				int to = Long.numberOfTrailingZeros(targets);
+				byte next = next(own, opp, from * 64 + to);
+				if (next < 0 && -next <= distance) {
+					return (byte) (distance + 1);
+				}
+				draw |= next == 0;
+				solved &= next == 0 || Math.abs(next) <= distance;
+			}
+		}
+		if (!solved) {
+			return UNKNOWN;
+		}
+		return draw ? 0 : (byte) -(distance + 1);
+	}
+
+	/**
+	 * Returns the stored value of the position after a movement, seen from
+	 * the opponent, which moves next.
+	 */
+	private byte next(long own, long opp, int move) {
+		return values[Tablebase.index(
+				Tablebase.opponentAfter(geometry, opp, move),
+				Tablebase.moverAfter(geometry, own, opp, move))];
+	}
+
+	/**
+	 * Returns the amount of sweeps made by the last call to solve().
+	 * 
+	 * @return the amount of sweeps.
+	 */
+	public int sweeps() {
+		return sweeps;
+	}
+
+	/**
+	 * Returns the amount of positions with a value of the given sign.
+	 * 
+	 * @param sign
+	 *            1 for the won positions, 0 for the drawn ones and -1 for the
+	 *            lost ones.
+	 * @return the amount of positions.
+	 */
+	public int count(int sign) {
+		int count = 0;
+		for (byte value : values) {
+			if (Integer.signum(value) == sign) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Writes the solved positions as a Tablebase file.
+	 * 
+	 * @param file
+	 *            the file to be written.
+	 * @throws IOException
+	 *             if the file can't be written.
+	 */
+	public void write(File file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(Tablebase.MAGIC);
+			out.writeInt(rows);
+			out.writeInt(columns);
+			out.write(values);
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package backend;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A parallel version of Negamax for the root of the search: every movement of
+ * the computer is searched by a different task of a SearchPool. The tasks
+ * share the best value found so far through an atomic integer, which is used
+ * as the alpha of the searches started later, so they still prune.
+ */
+public class RootSplit extends Negamax {
+
+	private SearchPool pool;
+
+	/**
+	 * Constructor for the RootSplit class.
+	 * 
+	 * @param iaBoard
+	 *            a reference to the game IABoard.
+	 * @param side
+	 *            the char of the Blobs of the computer.
+	 * @param depth
+	 *            the depth value for the minimax algorithm.
+	 * @param prune
+	 *            a boolean value that determines weather the minimax algorithm
+	 *            will be executed with or without pruning.
+	 * @param timeMillis
+	 *            the maximum time to find the best movement for the minimax
+	 *            algorithm.
+	 * @param pool
+	 *            the SearchPool whose threads will search the root movements.
+	 */
+	public RootSplit(IABoard iaBoard, char side, int depth, boolean prune,
+			long timeMillis, SearchPool pool) {
+		super(iaBoard, side, depth, 1, prune, timeMillis);
+		this.pool = pool;
+	}
+
+	/**
+	 * Searches all the root movements in parallel and keeps the best one. A
+	 * movement whose value is not greater than the alpha it was searched with
+	 * might have been pruned, so its value is only an upper bound: such
+	 * movements are only chosen if no other movement has a greater value.
+	 * 
+	 * @param alpha
+	 *            the value the computer is already sure to get.
+	 * @param beta
+	 *            the value the player is already sure to get, with its sign
+	 *            changed.
+	 * @param cycles
+	 *            the Cycle object where the cycles of all the tasks are added.
+	 * @return the value of the best movement, or -1 if the algorithm ran out
+	 *         of time.
+	 */
+	@Override
+	public int minimax(int alpha, int beta, Cycle cycles) {
+		setValue(-INFINITY);
+		if (!prune()) {
+			alpha = -INFINITY;
+			beta = INFINITY;
+		}
+		int[] moves = rootMoves(side());
+		AtomicInteger shared = new AtomicInteger(alpha);
+		final RootTask[] tasks = new RootTask[moves.length];
+		for (int k = 0; k < moves.length; k++) {
+			tasks[k] = new RootTask(moves[k], shared, beta);
+		}
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+		for (RootTask task : tasks) {
+			cycles.add(task.cycles);
+			if (task.timedOut) {
+				setTimedOut(true);
+			}
+		}
+		if (timedOut()) {
+			return -1;
+		}
+		for (RootTask task : tasks) {
+			recordRootScore(task.move, task.score);
+			if (task.score > task.bound) {
+				assignBestMove(task.score, task.move);
+			}
+		}
+		if (!hasMovement()) {
+			for (RootTask task : tasks) {
+				assignBestMove(task.score, task.move);
+			}
+		}
+		return value();
+	}
+
+	private void assignBestMove(int value, int move) {
+		if (!hasMovement() || value() < value) {
+			IABoard iaBoard = board();
+			setMovement(iaBoard.row(move / 64), iaBoard.column(move / 64),
+					iaBoard.row(move % 64), iaBoard.column(move % 64));
+			setValue(value);
+		}
+	}
+
+	/**
+	 * The search of one root movement, made on its own copy of the IABoard.
+	 */
+	private class RootTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private int move;
+		private AtomicInteger alpha;
+		private int beta, bound, score;
+		private boolean timedOut;
+		private Cycle cycles = new Cycle();
+
+		public RootTask(int move, AtomicInteger alpha, int beta) {
+			this.move = move;
+			this.alpha = alpha;
+			this.beta = beta;
+		}
+
+		@Override
+		protected void compute() {
+			IABoard iaBoard = board().clone();
+			iaBoard.makeMove(iaBoard.row(move / 64), iaBoard.column(move / 64),
+					iaBoard.row(move % 64), iaBoard.column(move % 64));
+			cycles.increment();
+			bound = alpha.get();
+			if (gameOver(iaBoard)) {
+				score = finalValue(iaBoard);
+			} else if (depth() == 1) {
+				score = evaluate(iaBoard);
+				cycles.evaluation();
+			} else {
+				Negamax next = child(iaBoard);
+				next.setTable(pool.table());
+				next.minimax(-beta, -bound, cycles);
+				if (next.timedOut()) {
+					timedOut = true;
+					return;
+				}
+				score = -next.value();
+			}
+			int current = alpha.get();
+			while (score > current && !alpha.compareAndSet(current, score)) {
+				current = alpha.get();
+			}
+		}
+	}
+}
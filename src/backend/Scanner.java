@@ -5,10 +5,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 
 public class Scanner {
 	private BufferedReader inStream;
-	private static final int SIZE = 8;
 
 	/**
 	 * Constructor for the Scanner class.
@@ -55,26 +55,44 @@ public class Scanner {
 		if (line == null) {
 			return null;
 		}
-		line = line.replaceAll("\t", "");
+		line = line.replaceAll("[\t\r]", "");
 		return line.toCharArray();
 	}
 
 	/**
-	 * Constructs and initialize a Board object.
+	 * Constructs and initialize a Board object. The size of the Board is
+	 * given by the file: a row for each line, and as many columns as
+	 * characters in the first line. Every line must have the same length, and
+	 * the Board can't have more than 64 cells.
 	 * 
 	 * @return a Board object.
 	 * @throws ScanException
-	 *             in case an IOException occurs, a ScanException will be
-	 *             thrown.
+	 *             in case an IOException occurs, or the lines of the file
+	 *             don't make a valid Board, a ScanException will be thrown.
 	 */
 	public Board loadBoard() throws ScanException {
-		Board board = new Board(SIZE, SIZE);
+		ArrayList<char[]> lines = new ArrayList<char[]>();
 		char[] line = null;
-		int i = 0;
-		int j = 0;
-
 		while ((line = getLine()) != null) {
-			while (j < SIZE) {
+			lines.add(line);
+		}
+		while (!lines.isEmpty() && lines.get(lines.size() - 1).length == 0) {
+			lines.remove(lines.size() - 1);
+		}
+		int rows = lines.size();
+		int columns = rows == 0 ? 0 : lines.get(0).length;
+		if (rows == 0 || columns == 0 || rows * columns > 64) {
+			throw new ScanException(
+					"El tablero debe tener entre 1 y 64 celdas");
+		}
+		Board board = new Board(rows, columns);
+		for (int i = 0; i < rows; i++) {
+			line = lines.get(i);
+			if (line.length != columns) {
+				throw new ScanException("Las filas del tablero deben tener "
+						+ columns + " celdas");
+			}
+			for (int j = 0; j < columns; j++) {
 				Blob blob = new Emptyness(board, i, j);
 				Cell cell = new Cell(blob);
 				if (line[j] == '1') {
@@ -86,11 +104,8 @@ public class Scanner {
 				}
 				cell.setBlob(blob);
 				board.put(cell);
-				j++;
 			}
-			j = 0;
-			i++;
 		}
 		return board;
 	}
-}
\ No newline at end of file
+}
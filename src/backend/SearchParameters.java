@@ -0,0 +1,229 @@
+package backend;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * The numbers that control the search and can't be told apart by hand: how many
+ * cycles go by between two checks of the time, the half width of the aspiration
+ * window of the iterative deepening, how much it grows after a failed search
+ * and up to which half width it grows before the search is repeated without a
+ * window, and the amount of empty cells up to which the EndgameSolver is tried.
+ * The widths of the window are in the units of the Evaluator, so they must be
+ * tuned again for a different one. They are tuned by the SpsaTuner and read
+ * from a file with a line "name value" for each parameter; the parameters left
+ * out keep their default values, and the lines starting with # are comments.
+ * The objects of this class can't be modified, so a search can share them with
+ * its threads.
+ */
+public class SearchParameters {
+
+	/**
+	 * The names of the parameters, in the order of values().
+	 */
+	public static final String[] NAMES = { "checkInterval",
+			"aspirationWindow", "aspirationGrowth", "aspirationLimit",
+			"endgameEmpties" };
+
+	/**
+	 * The index of each parameter in values().
+	 */
+	public static final int CHECK_INTERVAL = 0, ASPIRATION_WINDOW = 1,
+			ASPIRATION_GROWTH = 2, ASPIRATION_LIMIT = 3, ENDGAME_EMPTIES = 4;
+
+	private static final int[] MINIMUM = { 16, 1, 2, 1, 0 };
+	private static final int[] MAXIMUM = { 10000, 256, 16, 4096, 12 };
+
+	/**
+	 * The parameters used when none are given.
+	 */
+	public static final SearchParameters DEFAULT = new SearchParameters(
+			new int[] { 500, 2, 4, 64, EndgameSolver.DEFAULT_EMPTIES });
+
+	private int[] values;
+
+	/**
+	 * Constructor for the SearchParameters class. The values out of the range
+	 * of a parameter are moved to its closest end.
+	 * 
+	 * @param values
+	 *            the value of each parameter, in the order of NAMES.
+	 */
+	public SearchParameters(int[] values) {
+		if (values.length != NAMES.length) {
+			throw new IllegalArgumentException("Error: the search needs "
+					+ NAMES.length + " parameters.");
+		}
+		this.values = new int[NAMES.length];
+		for (int k = 0; k < NAMES.length; k++) {
+			this.values[k] = Math.max(MINIMUM[k], Math.min(MAXIMUM[k],
+					values[k]));
+		}
+	}
+
+	/**
+	 * Reads the SearchParameters of a file.
+	 * 
+	 * @param file
+	 *            the parameters file.
+	 * @return the SearchParameters of the file.
+	 * @throws IOException
+	 *             if the file can't be read or has an unknown parameter.
+	 */
+	public static SearchParameters load(File file) throws IOException {
+		int[] values = DEFAULT.values();
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				line = line.trim();
+				if (line.length() == 0 || line.startsWith("#")) {
+					continue;
+				}
+				String[] fields = line.split("\\s+");
+				int parameter = parameter(fields[0]);
+				if (parameter == -1 || fields.length != 2
+						|| !fields[1].matches("-?\\d+")) {
+					throw new IOException("Error: " + file
+							+ " has an invalid line: " + line);
+				}
+				values[parameter] = Integer.parseInt(fields[1]);
+			}
+		} finally {
+			in.close();
+		}
+		return new SearchParameters(values);
+	}
+
+	/**
+	 * Writes the parameters to a file that load() can read.
+	 * 
+	 * @param file
+	 *            the file to be written.
+	 * @throws IOException
+	 *             if the file can't be written.
+	 */
+	public void write(File file) throws IOException {
+		PrintWriter out = new PrintWriter(file);
+		try {
+			out.print(this);
+		} finally {
+			out.close();
+		}
+		if (out.checkError()) {
+			throw new IOException("Error: " + file + " could not be written.");
+		}
+	}
+
+	/**
+	 * Returns the index of the parameter with the given name.
+	 * 
+	 * @param name
+	 *            the name of the parameter.
+	 * @return the index of the parameter, or -1 if there is no such
+	 *         parameter.
+	 */
+	public static int parameter(String name) {
+		for (int k = 0; k < NAMES.length; k++) {
+			if (NAMES[k].equals(name)) {
+				return k;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the smallest value of a parameter.
+	 * 
+	 * @param parameter
+	 *            the index of the parameter.
+	 * @return the smallest value.
+	 */
+	public static int minimum(int parameter) {
+		return MINIMUM[parameter];
+	}
+
+	/**
+	 * Returns the largest value of a parameter.
+	 * 
+	 * @param parameter
+	 *            the index of the parameter.
+	 * @return the largest value.
+	 */
+	public static int maximum(int parameter) {
+		return MAXIMUM[parameter];
+	}
+
+	/**
+	 * Returns a copy of the values of the parameters.
+	 * 
+	 * @return the values, in the order of NAMES.
+	 */
+	public int[] values() {
+		return values.clone();
+	}
+
+	/**
+	 * Returns the amount of cycles between two checks of the time.
+	 * 
+	 * @return the check interval.
+	 */
+	public int checkInterval() {
+		return values[CHECK_INTERVAL];
+	}
+
+	/**
+	 * Returns the half width of the first aspiration window.
+	 * 
+	 * @return the aspiration window.
+	 */
+	public int aspirationWindow() {
+		return values[ASPIRATION_WINDOW];
+	}
+
+	/**
+	 * Returns the factor the aspiration window grows by when the value falls
+	 * outside of it.
+	 * 
+	 * @return the aspiration growth.
+	 */
+	public int aspirationGrowth() {
+		return values[ASPIRATION_GROWTH];
+	}
+
+	/**
+	 * Returns the half width of the aspiration window over which a failed
+	 * search is repeated with no window at all.
+	 * 
+	 * @return the aspiration limit.
+	 */
+	public int aspirationLimit() {
+		return values[ASPIRATION_LIMIT];
+	}
+
+	/**
+	 * Returns the amount of empty cells up to which the EndgameSolver is
+	 * tried.
+	 * 
+	 * @return the endgame empty cells.
+	 */
+	public int endgameEmpties() {
+		return values[ENDGAME_EMPTIES];
+	}
+
+	/**
+	 * Returns the parameters with the format of the parameters files.
+	 * 
+	 * @return a line "name value" for each parameter.
+	 */
+	public String toString() {
+		String ans = "";
+		for (int k = 0; k < NAMES.length; k++) {
+			ans += NAMES[k] + " " + values[k] + "\n";
+		}
+		return ans;
+	}
+}
@@ -0,0 +1,94 @@
+package backend;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The threads used by the parallel engines. Each thread has its own
+ * TranspositionTable, which is kept while the SearchPool lives, so the
+ * iterations of the iterative deepening can use the results of the previous
+ * ones.
+ */
+public class SearchPool {
+
+	private ForkJoinPool pool;
+	private ThreadLocal<TranspositionTable> tables;
+	private int minSplitDepth;
+
+	/**
+	 * Constructor for the SearchPool class.
+	 * 
+	 * @param threads
+	 *            the amount of threads of the pool.
+	 * @param tableBits
+	 *            the TranspositionTable of each thread will have 2^tableBits
+	 *            entries.
+	 */
+	public SearchPool(int threads, final int tableBits) {
+		pool = new ForkJoinPool(threads);
+		tables = new ThreadLocal<TranspositionTable>() {
+			@Override
+			protected TranspositionTable initialValue() {
+				return new TranspositionTable(tableBits);
+			}
+		};
+	}
+
+	/**
+	 * Returns the amount of threads of the pool.
+	 * 
+	 * @return the amount of threads of the pool.
+	 */
+	public int threads() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Runs the task in the pool and waits for its result.
+	 * 
+	 * @param task
+	 *            the task to be run.
+	 * @return the result of the task.
+	 */
+	public <T> T invoke(ForkJoinTask<T> task) {
+		return pool.invoke(task);
+	}
+
+	/**
+	 * Returns the minimum amount of plies left for a node to be split by the
+	 * YoungBrothers search.
+	 * 
+	 * @return the minimum split depth, or 0 if the pool is used by RootSplit.
+	 */
+	public int minSplitDepth() {
+		return minSplitDepth;
+	}
+
+	/**
+	 * Setter for the minimum amount of plies left for a node to be split by
+	 * the YoungBrothers search.
+	 * 
+	 * @param minSplitDepth
+	 *            the minimum split depth, or 0 if the pool is used by
+	 *            RootSplit.
+	 */
+	public void setMinSplitDepth(int minSplitDepth) {
+		this.minSplitDepth = minSplitDepth;
+	}
+
+	/**
+	 * Returns the TranspositionTable of the current thread.
+	 * 
+	 * @return the TranspositionTable of the current thread.
+	 */
+	public TranspositionTable table() {
+		return tables.get();
+	}
+
+	/**
+	 * Stops the threads of the pool.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+}
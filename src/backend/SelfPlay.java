@@ -0,0 +1,183 @@
+package backend;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays games of the engine against itself and writes their positions to a
+ * DatasetWriter, to train and tune the evaluators. Every thread has its own
+ * Contender, with its own TranspositionTable, and its own random numbers, so
+ * the threads share nothing but the writer and the count of games. A game
+ * starts from one of the openings, chosen at random, with a few random
+ * movements so the games don't repeat, and then the Contender plays both
+ * sides. Every position it searches is written, with the value of its
+ * search and the final result of the game.
+ */
+public class SelfPlay {
+
+	/**
+	 * The default amount of random movements at the start of a game.
+	 */
+	public static final int DEFAULT_RANDOM_PLIES = 8;
+
+	private int n;
+	private boolean time;
+	private SearchParameters parameters;
+	private Evaluator evaluator;
+	private int randomPlies = DEFAULT_RANDOM_PLIES;
+	private ArrayList<IABoard> openings = new ArrayList<IABoard>();
+	private ArrayList<Character> sides = new ArrayList<Character>();
+
+	/**
+	 * Constructor for the SelfPlay class.
+	 * 
+	 * @param n
+	 *            the depth of the searches, or their time in milliseconds.
+	 * @param time
+	 *            a boolean value that determines weather n is a time or a
+	 *            depth.
+	 * @param parameters
+	 *            the SearchParameters of the searches.
+	 * @param evaluator
+	 *            the Evaluator, or null to evaluate the difference of Blobs.
+	 */
+	public SelfPlay(int n, boolean time, SearchParameters parameters,
+			Evaluator evaluator) {
+		if (n <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible depth value.");
+		}
+		this.n = n;
+		this.time = time;
+		this.parameters = parameters;
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * Setter for the amount of random movements at the start of a game.
+	 * 
+	 * @param randomPlies
+	 *            the amount of random movements.
+	 */
+	public void setRandomPlies(int randomPlies) {
+		this.randomPlies = randomPlies;
+	}
+
+	/**
+	 * Adds a position the games can start from.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the position.
+	 * @param side
+	 *            the char of the Blobs that move first.
+	 */
+	public void addOpening(IABoard iaBoard, char side) {
+		openings.add(iaBoard.clone());
+		sides.add(side);
+	}
+
+	/**
+	 * Plays the games and writes their positions.
+	 * 
+	 * @param games
+	 *            the amount of games.
+	 * @param threads
+	 *            the amount of games played at the same time.
+	 * @param writer
+	 *            the DatasetWriter of the positions.
+	 * @param seed
+	 *            the seed of the random numbers of the threads.
+	 * @return the amount of positions written.
+	 * @throws IOException
+	 *             if the positions can't be written.
+	 */
+	public long play(int games, int threads, final DatasetWriter writer,
+			long seed) throws IOException {
+		if (openings.isEmpty()) {
+			throw new IllegalStateException("Error: there are no openings.");
+		}
+		final AtomicInteger left = new AtomicInteger(games);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<Long>> results = new ArrayList<Future<Long>>();
+		for (int k = 0; k < threads; k++) {
+			final Random random = new Random(seed + k);
+			results.add(pool.submit(new Callable<Long>() {
+				@Override
+				public Long call() throws IOException {
+					Contender contender = new Contender(n, time, parameters,
+							evaluator);
+					long positions = 0;
+					while (left.getAndDecrement() > 0) {
+						positions += game(contender, random, writer);
+					}
+					return positions;
+				}
+			}));
+		}
+		pool.shutdown();
+		long positions = 0;
+		try {
+			for (Future<Long> result : results) {
+				positions += result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Error: the self-play was interrupted.");
+		} catch (ExecutionException e) {
+			pool.shutdownNow();
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		return positions;
+	}
+
+	/**
+	 * Plays a game and writes its positions, returning how many there are.
+	 */
+	private int game(Contender contender, Random random, DatasetWriter writer)
+			throws IOException {
+		int opening = random.nextInt(openings.size());
+		Match match = new Match(openings.get(opening), sides.get(opening));
+		for (int k = 0; k < randomPlies && !match.over(); k++) {
+			IABoard iaBoard = match.board();
+			int[] moves = new Negamax(iaBoard, match.side(), 1, 1, false, -1)
+					.moves(match.side(), -1);
+			match.makeMove(moves[random.nextInt(moves.length)]);
+		}
+		ArrayList<IABoard> boards = new ArrayList<IABoard>();
+		ArrayList<Character> movers = new ArrayList<Character>();
+		ArrayList<Integer> values = new ArrayList<Integer>();
+		Cycle cycles = new Cycle();
+		while (!match.over()) {
+			char side = match.side();
+			int move = contender.move(match.board(), side, cycles);
+			if (move == -1) {
+				throw new IllegalStateException("Error: the contender "
+						+ side + " didn't move.");
+			}
+			boards.add(match.board().clone());
+			movers.add(side);
+			values.add(contender.value());
+			match.makeMove(move);
+		}
+		double computer = match.result();
+		ArrayList<TrainingPosition> positions;
+		positions = new ArrayList<TrainingPosition>();
+		for (int k = 0; k < boards.size(); k++) {
+			char side = movers.get(k);
+			positions.add(new TrainingPosition(boards.get(k), side,
+					side == 'c' ? computer : 1 - computer));
+		}
+		writer.write(positions, values);
+		return positions.size();
+	}
+}
@@ -0,0 +1,89 @@
+package backend;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A split point of the YoungBrothers search: a node whose younger brothers
+ * are being searched in parallel. The searches of the brothers share the best
+ * value found so far, and a cutoff flag which is set when one of them makes
+ * the node prune the rest. A split point is aborted when its own flag or the
+ * flag of any split point above it is set, so the searches below it can stop
+ * as soon as possible.
+ */
+public class Split {
+
+	private Split parent;
+	private AtomicBoolean cutoff = new AtomicBoolean();
+	private AtomicInteger best;
+
+	/**
+	 * Constructor for the Split class.
+	 * 
+	 * @param parent
+	 *            the closest split point above this one, or null.
+	 * @param best
+	 *            the value of the node when its brothers are split.
+	 */
+	public Split(Split parent, int best) {
+		this.parent = parent;
+		this.best = new AtomicInteger(best);
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the searches below this
+	 * split point are no longer needed, because of a cutoff in this split point
+	 * or in any split point above it.
+	 * 
+	 * @return a boolean value that determines weather the split point was
+	 *         aborted.
+	 */
+	public boolean aborted() {
+		for (Split split = this; split != null; split = split.parent) {
+			if (split.cutoff.get()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a boolean value that determines weather one of the brothers made
+	 * the node prune the rest.
+	 * 
+	 * @return a boolean value that determines weather there was a cutoff.
+	 */
+	public boolean cutoff() {
+		return cutoff.get();
+	}
+
+	/**
+	 * Sets the cutoff flag, aborting the searches of the remaining brothers.
+	 */
+	public void cut() {
+		cutoff.set(true);
+	}
+
+	/**
+	 * Returns the best value found so far by the node.
+	 * 
+	 * @return the best value found so far by the node.
+	 */
+	public int best() {
+		return best.get();
+	}
+
+	/**
+	 * Replaces the best value of the node with score, if it is greater.
+	 * 
+	 * @param score
+	 *            the value of one of the brothers.
+	 */
+	public void raise(int score) {
+		int current = best.get();
+		while (score > current
+				&& !best.compareAndSet(current, score)) {
+			current = best.get();
+		}
+	}
+}
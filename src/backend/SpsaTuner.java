@@ -0,0 +1,202 @@
+package backend;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the SearchParameters by Simultaneous Perturbation Stochastic
+ * Approximation: at every iteration all the parameters are moved at once by
+ * a random sign, in one direction for a Contender and in the other one for
+ * its rival, and both play a round of games against each other. The result
+ * of the round estimates the gradient of the strength along that direction,
+ * so the parameters are moved towards the winner. The steps shrink with the
+ * iterations, so the parameters converge.
+ * 
+ * The parameters are tuned in units of their ranges, from 0 for their
+ * minimum to 1 for their maximum. The games of a round start from the
+ * openings given, each one played twice with the colors swapped, and they
+ * are played in parallel, every game with new Contenders.
+ */
+public class SpsaTuner {
+
+	/**
+	 * The default amount of games of each iteration.
+	 */
+	public static final int DEFAULT_GAMES = 16;
+
+	private static final double STEP = 0.05;
+	private static final double PERTURBATION = 0.1;
+	private static final double STABILITY = 10;
+	private static final double STEP_DECAY = 0.602;
+	private static final double PERTURBATION_DECAY = 0.101;
+
+	private double[] theta;
+	private Random random;
+	private int millis;
+	private ExecutorService pool;
+	private ArrayList<IABoard> openings = new ArrayList<IABoard>();
+	private ArrayList<Character> sides = new ArrayList<Character>();
+	private int iterations;
+	private int games;
+
+	/**
+	 * Constructor for the SpsaTuner class.
+	 * 
+	 * @param start
+	 *            the SearchParameters the tuning starts from.
+	 * @param millis
+	 *            the time of every movement of the games, in milliseconds.
+	 * @param threads
+	 *            the amount of games played at the same time.
+	 * @param seed
+	 *            the seed of the random perturbations.
+	 */
+	public SpsaTuner(SearchParameters start, int millis, int threads,
+			long seed) {
+		if (millis <= 0 || threads <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible tuning values.");
+		}
+		int[] values = start.values();
+		theta = new double[values.length];
+		for (int k = 0; k < values.length; k++) {
+			int minimum = SearchParameters.minimum(k);
+			theta[k] = (double) (values[k] - minimum)
+					/ (SearchParameters.maximum(k) - minimum);
+		}
+		random = new Random(seed);
+		this.millis = millis;
+		pool = Executors.newFixedThreadPool(threads);
+	}
+
+	/**
+	 * Adds a position the games start from.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the position.
+	 * @param side
+	 *            the char of the Blobs that move first.
+	 */
+	public void addOpening(IABoard iaBoard, char side) {
+		openings.add(iaBoard.clone());
+		sides.add(side);
+	}
+
+	/**
+	 * Runs an iteration: plays a round of games between the parameters moved
+	 * in both directions, and moves the parameters towards the winner.
+	 * 
+	 * @param round
+	 *            the amount of games, which is rounded up to an even number.
+	 * @return the score of the parameters moved in the first direction, from
+	 *         -1 if they lost every game to 1 if they won every one.
+	 */
+	public double step(int round) {
+		if (openings.isEmpty()) {
+			throw new IllegalStateException("Error: there are no openings.");
+		}
+		double step = STEP / Math.pow(iterations + 1 + STABILITY, STEP_DECAY);
+		double perturbation = PERTURBATION
+				/ Math.pow(iterations + 1, PERTURBATION_DECAY);
+		int[] delta = new int[theta.length];
+		double[] plus = new double[theta.length];
+		double[] minus = new double[theta.length];
+		for (int k = 0; k < theta.length; k++) {
+			delta[k] = random.nextBoolean() ? 1 : -1;
+			plus[k] = theta[k] + perturbation * delta[k];
+			minus[k] = theta[k] - perturbation * delta[k];
+		}
+		double score = score(parameters(plus), parameters(minus), round);
+		for (int k = 0; k < theta.length; k++) {
+			theta[k] += step * score * delta[k] / (2 * perturbation);
+			theta[k] = Math.max(0, Math.min(1, theta[k]));
+		}
+		iterations++;
+		return score;
+	}
+
+	/**
+	 * Plays a round of games between two SearchParameters, each opening once
+	 * with each color.
+	 */
+	private double score(final SearchParameters plus,
+			final SearchParameters minus, int round) {
+		ArrayList<Future<Double>> results = new ArrayList<Future<Double>>();
+		for (int k = 0; k < round; k += 2) {
+			int index = games++ % openings.size();
+			final IABoard opening = openings.get(index);
+			final char side = sides.get(index);
+			for (int color = 0; color < 2; color++) {
+				final boolean plusComputer = color == 0;
+				results.add(pool.submit(new Callable<Double>() {
+					@Override
+					public Double call() {
+						Contender first = new Contender(millis, true, plus,
+								null);
+						Contender second = new Contender(millis, true, minus,
+								null);
+						Match match = new Match(opening, side);
+						double result = plusComputer ? match.play(first,
+								second, new Cycle()) : match.play(second,
+								first, new Cycle());
+						return plusComputer ? result : 1 - result;
+					}
+				}));
+			}
+		}
+		double points = 0;
+		for (Future<Double> result : results) {
+			try {
+				points += result.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		return 2 * points / results.size() - 1;
+	}
+
+	/**
+	 * Returns the SearchParameters of a point, in units of the ranges.
+	 */
+	private static SearchParameters parameters(double[] point) {
+		int[] values = new int[point.length];
+		for (int k = 0; k < point.length; k++) {
+			int minimum = SearchParameters.minimum(k);
+			values[k] = (int) Math.round(minimum + point[k]
+					* (SearchParameters.maximum(k) - minimum));
+		}
+		return new SearchParameters(values);
+	}
+
+	/**
+	 * Returns the current SearchParameters of the tuning.
+	 * 
+	 * @return the SearchParameters.
+	 */
+	public SearchParameters parameters() {
+		return parameters(theta);
+	}
+
+	/**
+	 * Returns the amount of iterations run.
+	 * 
+	 * @return the amount of iterations.
+	 */
+	public int iterations() {
+		return iterations;
+	}
+
+	/**
+	 * Stops the threads of the tuner.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+}
@@ -0,0 +1,250 @@
+package backend;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The result of every position of a small board, computed by Retrograde and
+ * read from a memory-mapped file, so the operating system only loads the
+ * pages that are looked up. It gives the perfect movement of any position of
+ * its board size, and it is also a reference to check the results of the
+ * search engines.
+ * 
+ * The positions are seen from the side to move: the index of a position is
+ * the number in base three whose digit for each square is 0 if the cell is
+ * empty, 1 if it has a Blob of the side to move and 2 if it has a Blob of its
+ * opponent. The table stores a byte for each index: d + 1 if the side to move
+ * wins in d plies, -(d + 1) if it loses in d plies, and 0 if the game is
+ * drawn, either because both sides end with the same amount of Blobs or
+ * because none of them can force the end of the game. The file starts with
+ * three ints: MAGIC, the rows and the columns of the board.
+ */
+public class Tablebase {
+
+	/**
+	 * The largest amount of cells of a board with a Tablebase.
+	 */
+	public static final int MAX_CELLS = 16;
+
+	/**
+	 * The first int of a Tablebase file.
+	 */
+	public static final int MAGIC = 0x424C4254;
+
+	/**
+	 * The size in bytes of the header of a Tablebase file.
+	 */
+	public static final int HEADER = 12;
+
+	private static final int[] TERNARY = new int[256];
+	private static final int WORST_WIN = 1000;
+	private static final int BYTE_POSITIONS = pow(8);
+
+	private int rows;
+	private int columns;
+	private IABoard geometry;
+	private MappedByteBuffer values;
+
+	static {
+		for (int bits = 1; bits < 256; bits++) {
+			int square = Integer.numberOfTrailingZeros(bits);
+			TERNARY[bits] = TERNARY[bits & (bits - 1)] + pow(square);
+		}
+	}
+
+	/**
+	 * Opens a Tablebase file written by Retrograde.
+	 * 
+	 * @param file
+	 *            the Tablebase file.
+	 * @return the Tablebase of the file.
+	 * @throws IOException
+	 *             if the file can't be read or is not a valid Tablebase.
+	 */
+	public static Tablebase open(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			Tablebase tablebase = new Tablebase();
+			if (in.length() < HEADER || in.readInt() != MAGIC) {
+				throw new IOException("Error: " + file
+						+ " is not a tablebase file.");
+			}
+			tablebase.rows = in.readInt();
+			tablebase.columns = in.readInt();
+			int cells = tablebase.rows * tablebase.columns;
+			if (tablebase.rows <= 0 || tablebase.columns <= 0
+					|| cells > MAX_CELLS
+					|| in.length() != HEADER + size(cells)) {
+				throw new IOException("Error: the size of the tablebase "
+						+ file + " doesn't match its board.");
+			}
+			tablebase.geometry = new IABoard(tablebase.rows, tablebase.columns);
+			tablebase.values = in.getChannel().map(
+					FileChannel.MapMode.READ_ONLY, HEADER, size(cells));
+			return tablebase;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Returns a boolean value that determines weather the positions of the
+	 * IABoard are in this Tablebase.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard to be looked up.
+	 * @return a boolean value that determines weather the IABoard has the
+	 *         size of the Tablebase.
+	 */
+	public boolean covers(IABoard iaBoard) {
+		return iaBoard.rows() == rows && iaBoard.columns() == columns;
+	}
+
+	/**
+	 * Returns the value of a position, seen from the side to move.
+	 * 
+	 * @param own
+	 *            the Blobs of the side to move.
+	 * @param opp
+	 *            the Blobs of its opponent.
+	 * @return d + 1 for a win in d plies, -(d + 1) for a loss in d plies, or
+	 *         0 for a draw.
+	 */
+	public int value(long own, long opp) {
+		return values.get(index(own, opp));
+	}
+
+	/**
+	 * Returns the perfect movement of the side to move: the fastest win, or
+	 * else a draw, or else the slowest loss. The clones are made by the Blob
+	 * given by IABoard.cloneOrigin().
+	 * 
+	 * @param iaBoard
+	 *            an IABoard covered by this Tablebase.
+	 * @param side
+	 *            the char of the Blobs of the side to move.
+	 * @return the movement, as from * 64 + to, or -1 if the side to move
+	 *         can't move.
+	 */
+	public int bestMove(IABoard iaBoard, char side) {
+		long own = iaBoard.blobs(side);
+		long opp = iaBoard.blobs(IABoard.opponent(side));
+		int best = -1;
+		int bestScore = Integer.MIN_VALUE;
+		long clones = iaBoard.cloneTargets(side);
+		while (clones != 0) {
+			int to = Long.numberOfTrailingZeros(clones);
+			clones &= clones - 1;
+			int move = iaBoard.cloneOrigin(side, to) * 64 + to;
+			int score = score(own, opp, move);
+			if (score > bestScore) {
+				best = move;
+				bestScore = score;
+			}
+		}
+		for (long blobs = own; blobs != 0; blobs &= blobs - 1) {
+			int from = Long.numberOfTrailingZeros(blobs);
+			long targets = iaBoard.jumpTargets(from);
+			while (targets != 0) {
+				int to = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				int score = score(own, opp, from * 64 + to);
+				if (score > bestScore) {
+					best = from * 64 + to;
+					bestScore = score;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns how good a movement is for the side that makes it: the wins
+	 * are better the faster they are, and the losses the slower they are.
+	 */
+	private int score(long own, long opp, int move) {
+		int value = -value(opponentAfter(geometry, opp, move),
+				moverAfter(geometry, own, opp, move));
+		if (value > 0) {
+			return WORST_WIN - value;
+		}
+		return value < 0 ? -WORST_WIN - value : 0;
+	}
+
+	/**
+	 * Returns the Blobs of the side that moves after a movement.
+	 * 
+	 * @param geometry
+	 *            an IABoard with the size of the board.
+	 * @param own
+	 *            the Blobs of the side that moves.
+	 * @param opp
+	 *            the Blobs of its opponent.
+	 * @param move
+	 *            the movement, as from * 64 + to.
+	 * @return the Blobs of the side that moves after the movement.
+	 */
+	public static long moverAfter(IABoard geometry, long own, long opp,
+			int move) {
+		int from = move / 64;
+		int to = move % 64;
+		if ((geometry.distanceOne(from) & (1L << to)) == 0) {
+			own &= ~(1L << from);
+		}
+		return own | (1L << to) | (geometry.distanceOne(to) & opp);
+	}
+
+	/**
+	 * Returns the Blobs of the opponent of the side that moves after a
+	 * movement, without the ones it contaminated.
+	 * 
+	 * @param geometry
+	 *            an IABoard with the size of the board.
+	 * @param opp
+	 *            the Blobs of the opponent.
+	 * @param move
+	 *            the movement, as from * 64 + to.
+	 * @return the Blobs of the opponent after the movement.
+	 */
+	public static long opponentAfter(IABoard geometry, long opp, int move) {
+		return opp & ~geometry.distanceOne(move % 64);
+	}
+
+	/**
+	 * Returns the index of a position in the table.
+	 * 
+	 * @param own
+	 *            the Blobs of the side to move.
+	 * @param opp
+	 *            the Blobs of its opponent.
+	 * @return the index of the position.
+	 */
+	public static int index(long own, long opp) {
+		int low = TERNARY[(int) own & 0xFF] + 2 * TERNARY[(int) opp & 0xFF];
+		int high = TERNARY[(int) (own >>> 8) & 0xFF] + 2
+				* TERNARY[(int) (opp >>> 8) & 0xFF];
+		return low + high * BYTE_POSITIONS;
+	}
+
+	/**
+	 * Returns the amount of positions of a board.
+	 * 
+	 * @param cells
+	 *            the amount of cells of the board.
+	 * @return 3^cells.
+	 */
+	public static int size(int cells) {
+		return pow(cells);
+	}
+
+	private static int pow(int exponent) {
+		int power = 1;
+		for (int k = 0; k < exponent; k++) {
+			power *= 3;
+		}
+		return power;
+	}
+}
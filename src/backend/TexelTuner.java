@@ -0,0 +1,319 @@
+package backend;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the weights of a FeatureEvaluator on a dataset of TrainingPositions
+ * in the way of the Texel method: the value of a position, times the weights
+ * in real units, is turned into the probability that the side to move wins
+ * with the logistic function, and the weights are moved by gradient descent
+ * to minimize the logistic loss against the results of the games.
+ * 
+ * The dataset is read in batches of lines, whose features are extracted by
+ * all the threads, and only the features are kept, a byte each, so the
+ * memory needed is a few bytes per position whatever the size of the file.
+ * The gradient is computed by all the threads too, each over a slice of the
+ * positions. Every step is scaled for each feature by the spread of its
+ * values, and the step is halved whenever the loss grows, in which case the
+ * step is undone.
+ */
+public class TexelTuner {
+
+	/**
+	 * The value in the weights of a FeatureEvaluator of one unit of the real
+	 * weights tuned.
+	 */
+	public static final int SCALE = 256;
+
+	/**
+	 * The default amount of gradient descent steps.
+	 */
+	public static final int DEFAULT_ITERATIONS = 200;
+
+	private static final int BATCH = 4096;
+	private static final int FEATURES = FeatureEvaluator.FEATURES.length;
+	private static final int RECORD = FEATURES + 1;
+	private static final double RATE = 1;
+
+	private int threads;
+	private ExecutorService pool;
+	private byte[] records = new byte[RECORD * BATCH];
+	private int size;
+
+	/**
+	 * Constructor for the TexelTuner class.
+	 * 
+	 * @param threads
+	 *            the amount of threads used to read the dataset and to
+	 *            compute the loss.
+	 */
+	public TexelTuner(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException(
+					"Error: incompatible threads value.");
+		}
+		this.threads = threads;
+		pool = Executors.newFixedThreadPool(threads);
+	}
+
+	/**
+	 * Reads the positions of a dataset and keeps their features. The
+	 * positions where the side to move can't move are skipped, as the game is
+	 * already decided there.
+	 * 
+	 * @param dataset
+	 *            the file with a TrainingPosition on each line, or the
+	 *            directory of a dataset written by DatasetWriter, whose
+	 *            records are turned into lines.
+	 * @throws IOException
+	 *             if the file can't be read or has an invalid line.
+	 */
+	public void load(File dataset) throws IOException {
+		BufferedReader in = null;
+		DatasetReader reader = null;
+		if (dataset.isDirectory()) {
+			reader = new DatasetReader(dataset);
+		} else {
+			in = new BufferedReader(new FileReader(dataset));
+		}
+		ArrayDeque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+		try {
+			String[] lines = new String[BATCH];
+			int read = 0;
+			String line;
+			while ((line = in != null ? in.readLine() : reader.next() ? reader
+					.position().toString() : null) != null) {
+				if (line.trim().length() == 0) {
+					continue;
+				}
+				lines[read++] = line;
+				if (read == BATCH) {
+					pending.add(pool.submit(extraction(lines, read)));
+					lines = new String[BATCH];
+					read = 0;
+					if (pending.size() > 2 * threads) {
+						append(pending.poll());
+					}
+				}
+			}
+			if (read > 0) {
+				pending.add(pool.submit(extraction(lines, read)));
+			}
+			while (!pending.isEmpty()) {
+				append(pending.poll());
+			}
+		} finally {
+			if (in != null) {
+				in.close();
+			} else {
+				reader.close();
+			}
+			for (Future<byte[]> future : pending) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Returns the task that extracts the features of a batch of lines: the
+	 * features of the side to move, followed by twice its result.
+	 */
+	private Callable<byte[]> extraction(final String[] lines, final int count) {
+		return new Callable<byte[]>() {
+			@Override
+			public byte[] call() {
+				byte[] batch = new byte[count * RECORD];
+				int kept = 0;
+				for (int k = 0; k < count; k++) {
+					TrainingPosition position = TrainingPosition
+							.parse(lines[k]);
+					IABoard iaBoard = position.board();
+					char side = position.side();
+					if (!iaBoard.canMove(side)) {
+						continue;
+					}
+					int[] features = FeatureEvaluator.features(iaBoard,
+							IABoard.opponent(side));
+					for (int f = 0; f < FEATURES; f++) {
+						batch[kept * RECORD + f] = (byte) -features[f];
+					}
+					batch[kept * RECORD + FEATURES] = (byte) (2 * position
+							.result());
+					kept++;
+				}
+				return Arrays.copyOf(batch, kept * RECORD);
+			}
+		};
+	}
+
+	private void append(Future<byte[]> future) throws IOException {
+		byte[] batch;
+		try {
+			batch = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(
+					"Error: the dataset reading was interrupted.");
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause().getMessage());
+		}
+		if (size * RECORD + batch.length > records.length) {
+			records = Arrays.copyOf(records, Math.max(records.length * 2, size
+					* RECORD + batch.length));
+		}
+		System.arraycopy(batch, 0, records, size * RECORD, batch.length);
+		size += batch.length / RECORD;
+	}
+
+	/**
+	 * Returns the amount of positions kept from the dataset.
+	 * 
+	 * @return the amount of positions.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the mean logistic loss of the positions with the given
+	 * weights.
+	 * 
+	 * @param weights
+	 *            the weights of a FeatureEvaluator.
+	 * @return the mean logistic loss.
+	 */
+	public double loss(int[] weights) {
+		return gradient(real(weights))[FEATURES];
+	}
+
+	/**
+	 * Tunes the weights of a FeatureEvaluator by gradient descent.
+	 * 
+	 * @param weights
+	 *            the initial weights.
+	 * @param iterations
+	 *            the amount of steps.
+	 * @return the tuned weights.
+	 */
+	public int[] tune(int[] weights, int iterations) {
+		if (size == 0) {
+			throw new IllegalStateException("Error: the dataset is empty.");
+		}
+		double[] spread = spread();
+		double[] current = real(weights);
+		double[] gradient = gradient(current);
+		double rate = RATE;
+		for (int step = 0; step < iterations; step++) {
+			double[] next = new double[FEATURES];
+			for (int f = 0; f < FEATURES; f++) {
+				next[f] = current[f] - rate * gradient[f] / spread[f];
+			}
+			double[] nextGradient = gradient(next);
+			if (nextGradient[FEATURES] > gradient[FEATURES]) {
+				rate /= 2;
+			} else {
+				current = next;
+				gradient = nextGradient;
+			}
+		}
+		int[] tuned = new int[FEATURES];
+		for (int f = 0; f < FEATURES; f++) {
+			tuned[f] = (int) Math.round(current[f] * SCALE);
+		}
+		return tuned;
+	}
+
+	private static double[] real(int[] weights) {
+		double[] real = new double[FEATURES];
+		for (int f = 0; f < FEATURES; f++) {
+			real[f] = (double) weights[f] / SCALE;
+		}
+		return real;
+	}
+
+	/**
+	 * Returns the mean square of each feature, so the step of a feature with
+	 * small values is larger. The features that are always zero get 1.
+	 */
+	private double[] spread() {
+		double[] spread = new double[FEATURES];
+		for (int k = 0; k < size; k++) {
+			for (int f = 0; f < FEATURES; f++) {
+				double value = records[k * RECORD + f];
+				spread[f] += value * value;
+			}
+		}
+		for (int f = 0; f < FEATURES; f++) {
+			spread[f] = spread[f] == 0 ? 1 : spread[f] / size;
+		}
+		return spread;
+	}
+
+	/**
+	 * Returns the gradient of the mean logistic loss, followed by the loss
+	 * itself, adding up the slices of the positions computed by the threads.
+	 */
+	private double[] gradient(final double[] weights) {
+		Future<?>[] slices = new Future<?>[threads];
+		final double[][] sums = new double[threads][FEATURES + 1];
+		for (int t = 0; t < threads; t++) {
+			final double[] sum = sums[t];
+			final int from = (int) ((long) size * t / threads);
+			final int to = (int) ((long) size * (t + 1) / threads);
+			slices[t] = pool.submit(new Runnable() {
+				@Override
+				public void run() {
+					slice(weights, from, to, sum);
+				}
+			});
+		}
+		double[] gradient = new double[FEATURES + 1];
+		for (int t = 0; t < threads; t++) {
+			try {
+				slices[t].get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+			for (int f = 0; f <= FEATURES; f++) {
+				gradient[f] += sums[t][f] / size;
+			}
+		}
+		return gradient;
+	}
+
+	private void slice(double[] weights, int from, int to, double[] sum) {
+		for (int k = from; k < to; k++) {
+			int record = k * RECORD;
+			double value = 0;
+			for (int f = 0; f < FEATURES; f++) {
+				value += weights[f] * records[record + f];
+			}
+			double result = records[record + FEATURES] / 2.0;
+			double probability = 1 / (1 + Math.exp(-value));
+			for (int f = 0; f < FEATURES; f++) {
+				sum[f] += (probability - result) * records[record + f];
+			}
+			sum[FEATURES] += Math.log1p(Math.exp(-Math.abs(value)))
+					+ Math.max(value, 0) - result * value;
+		}
+	}
+
+	/**
+	 * Stops the threads of the tuner.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+}
@@ -0,0 +1,438 @@
+package backend;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A tournament between two Contenders, to measure the difference of
+ * strength of two settings of the engine. The games are played in pairs:
+ * both games of a pair start from the same opening, after the same random
+ * movements, and the first Contender always plays the computer Blobs, but in
+ * the second game the colors of the opening are swapped, as by
+ * Board.iaBoard(true), so each Contender plays both sides of the opening and
+ * the luck of the opening cancels out. The pairs are played at the same time
+ * by several threads, each one with its own copies of the Contenders.
+ * 
+ * The score of the first Contender gives its difference of Elo with the
+ * second one, with a confidence interval of 95%. The variance is measured on
+ * the scores of the pairs, which are less spread than the ones of single
+ * games, so the interval is narrower. The tournament can also run a
+ * sequential probability ratio test of the hypothesis H0, that the
+ * difference is elo0, against H1, that it is elo1: the log-likelihood ratio
+ * of the scores is updated after every pair, and the tournament stops as
+ * soon as it leaves its bounds, which keep the errors of both kinds below
+ * the chosen probabilities. The ratio uses the normal approximation of the
+ * pair scores, and the pairs that end after the test is decided are not
+ * counted.
+ */
+public class Tournament {
+
+	/**
+	 * The default amount of random movements at the start of a pair.
+	 */
+	public static final int DEFAULT_RANDOM_PLIES = 4;
+
+	/**
+	 * The default probability of accepting H1 when H0 is true, and of
+	 * accepting H0 when H1 is true.
+	 */
+	public static final double DEFAULT_ERROR = 0.05;
+
+	private static final double Z = 1.959964;
+	private static final double PRIOR = 0.5;
+
+	/**
+	 * The state of the sequential probability ratio test.
+	 */
+	public enum Verdict {
+		UNDECIDED, H0, H1
+	}
+
+	private Contender first;
+	private Contender second;
+	private int randomPlies = DEFAULT_RANDOM_PLIES;
+	private ArrayList<IABoard> openings = new ArrayList<IABoard>();
+	private ArrayList<IABoard> swapped = new ArrayList<IABoard>();
+	private ArrayList<Character> sides = new ArrayList<Character>();
+	private boolean sprt;
+	private double elo0;
+	private double elo1;
+	private double lower;
+	private double upper;
+	private ExecutorService pool;
+	private ArrayList<Future<Object>> workers;
+	private AtomicBoolean stop;
+	private int[] pairs = new int[5];
+	private int wins;
+	private int draws;
+	private int losses;
+	private Verdict verdict = Verdict.UNDECIDED;
+
+	/**
+	 * Constructor for the Tournament class.
+	 * 
+	 * @param first
+	 *            the Contender whose difference of Elo is measured.
+	 * @param second
+	 *            the Contender it is measured against.
+	 */
+	public Tournament(Contender first, Contender second) {
+		this.first = first;
+		this.second = second;
+	}
+
+	/**
+	 * Setter for the amount of random movements at the start of a pair.
+	 * 
+	 * @param randomPlies
+	 *            the amount of random movements.
+	 */
+	public void setRandomPlies(int randomPlies) {
+		this.randomPlies = randomPlies;
+	}
+
+	/**
+	 * Adds an opening the pairs can start from, chosen at random.
+	 * 
+	 * @param board
+	 *            the Board of the opening.
+	 * @param side
+	 *            the char of the Blobs that move first.
+	 */
+	public void addOpening(Board board, char side) {
+		openings.add(board.iaBoard(false));
+		swapped.add(board.iaBoard(true));
+		sides.add(side);
+	}
+
+	/**
+	 * Turns on the sequential probability ratio test, which stops the
+	 * tournament when it accepts one of its hypotheses.
+	 * 
+	 * @param elo0
+	 *            the difference of Elo of the hypothesis H0.
+	 * @param elo1
+	 *            the difference of Elo of the hypothesis H1, greater than
+	 *            elo0.
+	 * @param alpha
+	 *            the probability of accepting H1 when H0 is true.
+	 * @param beta
+	 *            the probability of accepting H0 when H1 is true.
+	 */
+	public void setSprt(double elo0, double elo1, double alpha, double beta) {
+		if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0
+				|| beta >= 1) {
+			throw new IllegalArgumentException(
+					"Error: incompatible test values.");
+		}
+		sprt = true;
+		this.elo0 = elo0;
+		this.elo1 = elo1;
+		lower = Math.log(beta / (1 - alpha));
+		upper = Math.log((1 - beta) / alpha);
+	}
+
+	/**
+	 * Starts to play the pairs, without waiting for them.
+	 * 
+	 * @param games
+	 *            the amount of pairs, at most.
+	 * @param threads
+	 *            the amount of pairs played at the same time.
+	 * @param seed
+	 *            the seed of the random numbers of the threads.
+	 */
+	public void start(int games, int threads, long seed) {
+		if (openings.isEmpty()) {
+			throw new IllegalStateException("Error: there are no openings.");
+		}
+		if (pool != null) {
+			throw new IllegalStateException(
+					"Error: the tournament was already started.");
+		}
+		final AtomicInteger left = new AtomicInteger(games);
+		stop = new AtomicBoolean();
+		pool = Executors.newFixedThreadPool(threads);
+		workers = new ArrayList<Future<Object>>();
+		for (int k = 0; k < threads; k++) {
+			final Random random = new Random(seed + k);
+			workers.add(pool.submit(new Callable<Object>() {
+				@Override
+				public Object call() {
+					Contender one = first.copy();
+					Contender other = second.copy();
+					try {
+						while (!stop.get() && left.getAndDecrement() > 0) {
+							pair(one, other, random);
+						}
+					} catch (RuntimeException e) {
+						stop.set(true);
+						throw e;
+					}
+					return null;
+				}
+			}));
+		}
+		pool.shutdown();
+	}
+
+	/**
+	 * Plays a pair of games from a random opening and registers its result.
+	 */
+	private void pair(Contender one, Contender other, Random random) {
+		int opening = random.nextInt(openings.size());
+		char side = sides.get(opening);
+		Match match = new Match(openings.get(opening), side);
+		Match swap = new Match(swapped.get(opening), IABoard.opponent(side));
+		for (int k = 0; k < randomPlies && !match.over(); k++) {
+			int[] moves = new Negamax(match.board(), match.side(), 1, 1,
+					false, -1).moves(match.side(), -1);
+			int move = moves[random.nextInt(moves.length)];
+			match.makeMove(move);
+			swap.makeMove(move);
+		}
+		double result = match.play(one, other, new Cycle());
+		double swapResult = swap.play(one, other, new Cycle());
+		register(result, swapResult);
+	}
+
+	/**
+	 * Adds the results of a pair, and runs the test if it is on.
+	 */
+	private synchronized void register(double result, double swapResult) {
+		if (verdict != Verdict.UNDECIDED) {
+			return;
+		}
+		pairs[(int) Math.round(2 * (result + swapResult))]++;
+		for (double game : new double[] { result, swapResult }) {
+			if (game == 1) {
+				wins++;
+			} else if (game == 0) {
+				losses++;
+			} else {
+				draws++;
+			}
+		}
+		if (sprt) {
+			double llr = llr();
+			if (llr >= upper) {
+				verdict = Verdict.H1;
+			} else if (llr <= lower) {
+				verdict = Verdict.H0;
+			}
+			if (verdict != Verdict.UNDECIDED) {
+				stop.set(true);
+			}
+		}
+	}
+
+	/**
+	 * Waits for the tournament to end, for a while at most.
+	 * 
+	 * @param millis
+	 *            the time to wait, in milliseconds.
+	 * @return a boolean value that determines weather the tournament ended.
+	 */
+	public boolean waitFor(long millis) {
+		try {
+			if (!pool.awaitTermination(millis, TimeUnit.MILLISECONDS)) {
+				return false;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		for (Future<Object> worker : workers) {
+			try {
+				worker.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the amount of pairs played.
+	 * 
+	 * @return the amount of pairs.
+	 */
+	public synchronized int pairs() {
+		int total = 0;
+		for (int count : pairs) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the amount of games won by the first Contender.
+	 * 
+	 * @return the amount of wins.
+	 */
+	public synchronized int wins() {
+		return wins;
+	}
+
+	/**
+	 * Returns the amount of games drawn.
+	 * 
+	 * @return the amount of draws.
+	 */
+	public synchronized int draws() {
+		return draws;
+	}
+
+	/**
+	 * Returns the amount of games lost by the first Contender.
+	 * 
+	 * @return the amount of losses.
+	 */
+	public synchronized int losses() {
+		return losses;
+	}
+
+	/**
+	 * Returns the average score of the first Contender.
+	 * 
+	 * @return the score, from 0 if it lost every game to 1 if it won every
+	 *         one.
+	 */
+	public synchronized double score() {
+		int total = pairs();
+		if (total == 0) {
+			return 0.5;
+		}
+		double sum = 0;
+		for (int k = 0; k < pairs.length; k++) {
+			sum += pairs[k] * k / 4.0;
+		}
+		return sum / total;
+	}
+
+	/**
+	 * Returns the score of the pairs as if every kind of pair had been played
+	 * PRIOR more times.
+	 */
+	private double priorScore() {
+		double count = pairs() + PRIOR * pairs.length;
+		double score = 0;
+		for (int k = 0; k < pairs.length; k++) {
+			score += (pairs[k] + PRIOR) * k / 4.0 / count;
+		}
+		return score;
+	}
+
+	/**
+	 * Returns the variance of the scores of the pairs, each one from 0 to 1,
+	 * as if every kind of pair had been played PRIOR more times, so it is not
+	 * zero while all the pairs end the same way.
+	 */
+	private double priorVariance() {
+		double count = pairs() + PRIOR * pairs.length;
+		double score = priorScore();
+		double variance = 0;
+		for (int k = 0; k < pairs.length; k++) {
+			double deviation = k / 4.0 - score;
+			variance += (pairs[k] + PRIOR) * deviation * deviation / count;
+		}
+		return variance;
+	}
+
+	/**
+	 * Returns the difference of Elo of the first Contender with the second
+	 * one.
+	 * 
+	 * @return the difference of Elo, which is infinite if one of them won
+	 *         every game.
+	 */
+	public synchronized double elo() {
+		return elo(score());
+	}
+
+	/**
+	 * Returns the bounds of the confidence interval of 95% of the difference
+	 * of Elo. The interval is centered on the score of the pairs, but its
+	 * width comes from the variance with the prior of llr(), so it doesn't
+	 * shrink to a point while all the pairs end the same way.
+	 * 
+	 * @return the lower and the upper bounds, which are infinite before two
+	 *         pairs are played, and one of which is infinite if one of the
+	 *         Contenders won every game.
+	 */
+	public synchronized double[] interval() {
+		int total = pairs();
+		if (total < 2) {
+			return new double[] { Double.NEGATIVE_INFINITY,
+					Double.POSITIVE_INFINITY };
+		}
+		double error = Z * Math.sqrt(priorVariance() / (total - 1));
+		double score = score();
+		return new double[] { elo(Math.max(score - error, 0)),
+				elo(Math.min(score + error, 1)) };
+	}
+
+	/**
+	 * Returns the difference of Elo of a score.
+	 */
+	private static double elo(double score) {
+		return 400 * Math.log10(score / (1 - score));
+	}
+
+	/**
+	 * Returns the expected score of a difference of Elo.
+	 */
+	private static double score(double elo) {
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+
+	/**
+	 * Returns the log-likelihood ratio of H1 against H0. The score and the
+	 * variance are taken as if every kind of pair had been played PRIOR more
+	 * times, so the variance is not zero while all the pairs end the same
+	 * way, and the first pairs don't decide the test on their own.
+	 * 
+	 * @return the ratio.
+	 */
+	public synchronized double llr() {
+		int total = pairs();
+		if (total == 0) {
+			return 0;
+		}
+		double score = priorScore();
+		double variance = priorVariance();
+		double score0 = score(elo0);
+		double score1 = score(elo1);
+		return total * (score1 - score0) * (2 * score - score0 - score1)
+				/ (2 * variance);
+	}
+
+	/**
+	 * Returns the bounds of the log-likelihood ratio, under which H0 is
+	 * accepted, and over which H1 is.
+	 * 
+	 * @return the lower and the upper bounds.
+	 */
+	public double[] bounds() {
+		return new double[] { lower, upper };
+	}
+
+	/**
+	 * Returns the state of the test.
+	 * 
+	 * @return the hypothesis accepted, or UNDECIDED.
+	 */
+	public synchronized Verdict verdict() {
+		return verdict;
+	}
+}
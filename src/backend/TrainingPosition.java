@@ -0,0 +1,123 @@
+package backend;
+
+/**
+ * A position of a game together with the final result of the game, seen from
+ * the side to move, as stored in the datasets used to tune the evaluation.
+ * Each position is a line of text with five fields separated by spaces: the
+ * rows and the columns of the board, its cells row by row with the digits of
+ * the board files ('1' for a player Blob, '2' for a computer Blob) and '0'
+ * for an empty cell, the char of the side to move, and the result: 1 if the
+ * side to move won, 0.5 for a draw and 0 if it lost.
+ */
+public class TrainingPosition {
+
+	private IABoard iaBoard;
+	private char side;
+	private double result;
+
+	/**
+	 * Constructor for the TrainingPosition class.
+	 * 
+	 * @param iaBoard
+	 *            the IABoard of the position.
+	 * @param side
+	 *            the char of the Blobs of the side to move.
+	 * @param result
+	 *            the result of the game for the side to move: 1, 0.5 or 0.
+	 */
+	public TrainingPosition(IABoard iaBoard, char side, double result) {
+		this.iaBoard = iaBoard;
+		this.side = side;
+		this.result = result;
+	}
+
+	/**
+	 * Reads a position from a line of a dataset.
+	 * 
+	 * @param line
+	 *            the line of the dataset.
+	 * @return the position of the line.
+	 * @throws IllegalArgumentException
+	 *             if the line is not a valid position.
+	 */
+	public static TrainingPosition parse(String line) {
+		String[] fields = line.trim().split("\\s+");
+		if (fields.length != 5 || !fields[0].matches("\\d+")
+				|| !fields[1].matches("\\d+")) {
+			throw new IllegalArgumentException("Error: invalid position "
+					+ line + ".");
+		}
+		int rows = Integer.parseInt(fields[0]);
+		int columns = Integer.parseInt(fields[1]);
+		String cells = fields[2];
+		if (cells.length() != rows * columns
+				|| !(fields[3].equals("c") || fields[3].equals("p"))
+				|| !fields[4].matches("0|0\\.5|1")) {
+			throw new IllegalArgumentException("Error: invalid position "
+					+ line + ".");
+		}
+		IABoard iaBoard = new IABoard(rows, columns);
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				char cell = cells.charAt(i * columns + j);
+				if (cell == '1') {
+					iaBoard.put(i, j, 'p');
+				} else if (cell == '2') {
+					iaBoard.put(i, j, 'c');
+				} else if (cell != '0') {
+					throw new IllegalArgumentException(
+							"Error: invalid position " + line + ".");
+				}
+			}
+		}
+		return new TrainingPosition(iaBoard, fields[3].charAt(0),
+				Double.parseDouble(fields[4]));
+	}
+
+	/**
+	 * Returns the position as a line of a dataset, without the line break.
+	 * 
+	 * @return the line of the position.
+	 */
+	public String toString() {
+		StringBuilder line = new StringBuilder();
+		line.append(iaBoard.rows()).append(' ').append(iaBoard.columns())
+				.append(' ');
+		for (int i = 0; i < iaBoard.rows(); i++) {
+			for (int j = 0; j < iaBoard.columns(); j++) {
+				char cell = iaBoard.at(i, j);
+				line.append(cell == 'p' ? '1' : cell == 'c' ? '2' : '0');
+			}
+		}
+		line.append(' ').append(side).append(' ');
+		line.append(result == 1 ? "1" : result == 0 ? "0" : "0.5");
+		return line.toString();
+	}
+
+	/**
+	 * Getter for the IABoard of the position.
+	 * 
+	 * @return the IABoard of the position.
+	 */
+	public IABoard board() {
+		return iaBoard;
+	}
+
+	/**
+	 * Getter for the side to move.
+	 * 
+	 * @return the char of the Blobs of the side to move.
+	 */
+	public char side() {
+		return side;
+	}
+
+	/**
+	 * Getter for the result of the game.
+	 * 
+	 * @return 1 if the side to move won, 0.5 for a draw and 0 if it lost.
+	 */
+	public double result() {
+		return result;
+	}
+}
@@ -0,0 +1,171 @@
+package backend;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size hash table that stores the results of the minimax algorithm
+ * for the positions already searched, indexed by the Zobrist hash of the
+ * IABoard. Each entry is packed into a long: the score in the lower 32 bits,
+ * then the searched depth, the bound type, the best movement and the
+ * symmetry that took the stored position to the canonical one.
+ * 
+ * The table can be shared by several threads without locks: the key is
+ * stored XORed with the entry, so an entry written by one thread while
+ * another one was writing the key of the same slot doesn't match any key and
+ * is simply ignored.
+ */
+public class TranspositionTable {
+
+	/**
+	 * The stored score is the exact value of the position.
+	 */
+	public static final int EXACT = 0;
+
+	/**
+	 * The stored score is a lower bound of the value of the position.
+	 */
+	public static final int LOWER = 1;
+
+	/**
+	 * The stored score is an upper bound of the value of the position.
+	 */
+	public static final int UPPER = 2;
+
+	private static final long VALID = 1L << 63;
+
+	private long[] keys;
+	private long[] entries;
+	private int mask;
+
+	/**
+	 * Constructor for the TranspositionTable class.
+	 * 
+	 * @param bits
+	 *            the table will have 2^bits entries.
+	 */
+	public TranspositionTable(int bits) {
+		keys = new long[1 << bits];
+		entries = new long[1 << bits];
+		mask = (1 << bits) - 1;
+	}
+
+	/**
+	 * Returns the amount of entries of the table.
+	 * 
+	 * @return the amount of entries of the table.
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Removes every entry from the table.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(entries, 0);
+	}
+
+	/**
+	 * Looks for the entry of the position with the given hash.
+	 * 
+	 * @param key
+	 *            the hash of the position.
+	 * @return the packed entry of the position, or 0 if the position is not
+	 *         in the table.
+	 */
+	public long probe(long key) {
+		int index = (int) key & mask;
+		long entry = entries[index];
+		if ((keys[index] ^ entry) == key) {
+			return entry;
+		}
+		return 0;
+	}
+
+	/**
+	 * Stores the result of a search. An entry of another position is only
+	 * replaced if the new search was at least as deep.
+	 * 
+	 * @param key
+	 *            the hash of the position.
+	 * @param depth
+	 *            the depth that was searched from the position.
+	 * @param bound
+	 *            EXACT, LOWER or UPPER.
+	 * @param score
+	 *            the value of the position.
+	 * @param move
+	 *            the best movement found, as from * 64 + to, or -1 if there is
+	 *            none.
+	 * @param symmetry
+	 *            the symmetry of the IABoard used to compute the key.
+	 * @return true if the entry of another position was replaced.
+	 */
+	public boolean store(long key, int depth, int bound, int score, int move,
+			int symmetry) {
+		int index = (int) key & mask;
+		long old = entries[index];
+		boolean replaced = old != 0 && (keys[index] ^ old) != key;
+		if (replaced && depth(old) > depth) {
+			return false;
+		}
+		long entry = pack(depth, bound, score, move, symmetry);
+		keys[index] = key ^ entry;
+		entries[index] = entry;
+		return replaced;
+	}
+
+	/**
+	 * Returns the depth of a packed entry.
+	 * 
+	 * @return the depth of a packed entry.
+	 */
+	public static int depth(long entry) {
+		return (int) (entry >>> 32) & 0xFF;
+	}
+
+	/**
+	 * Returns the bound type of a packed entry.
+	 * 
+	 * @return EXACT, LOWER or UPPER.
+	 */
+	public static int bound(long entry) {
+		return (int) (entry >>> 40) & 0x3;
+	}
+
+	/**
+	 * Returns the score of a packed entry.
+	 * 
+	 * @return the score of a packed entry.
+	 */
+	public static int score(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * Returns the best movement of a packed entry.
+	 * 
+	 * @return the best movement as from * 64 + to, or -1 if there is none.
+	 */
+	public static int move(long entry) {
+		return ((int) (entry >>> 42) & 0x1FFF) - 1;
+	}
+
+	/**
+	 * Returns the symmetry stored in a packed entry.
+	 * 
+	 * @return the symmetry of the IABoard used to compute the key.
+	 */
+	public static int symmetry(long entry) {
+		return (int) (entry >>> 55) & 0x7;
+	}
+
+	private static long pack(int depth, int bound, int score, int move,
+			int symmetry) {
+		return VALID | ((long) symmetry << 55) | ((long) (move + 1) << 42)
+				| ((long) bound << 40)
+				| ((long) Math.min(depth, 0xFF) << 32)
+				| (score & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,100 @@
+package backend;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A parallel engine based on the Young Brothers Wait Concept: the search of
+ * Negamax runs in a SearchPool, and at every node with enough plies left
+ * the first movement is searched alone, then the rest of the movements, its
+ * younger brothers, are offered to the idle threads of the pool, which steal
+ * them. Waiting for the eldest brother gives the younger ones a good pruning
+ * value, and when one of them prunes the node, the others are aborted.
+ * Without pruning the search is sequential.
+ */
+public class YoungBrothers {
+
+	/**
+	 * The default minimum amount of plies left for a node to be split.
+	 */
+	public static final int MIN_SPLIT_DEPTH = 3;
+
+	private SearchPool pool;
+	private TranspositionTable table;
+	private SearchParameters parameters = SearchParameters.DEFAULT;
+
+	/**
+	 * Constructor for the YoungBrothers class.
+	 * 
+	 * @param pool
+	 *            the SearchPool that runs the search, with its minimum split
+	 *            depth set.
+	 * @param table
+	 *            the TranspositionTable shared by all the threads.
+	 */
+	public YoungBrothers(SearchPool pool, TranspositionTable table) {
+		this.pool = pool;
+		this.table = table;
+	}
+
+	/**
+	 * Setter for the SearchParameters of the search.
+	 * 
+	 * @param parameters
+	 *            the SearchParameters.
+	 */
+	public void setParameters(SearchParameters parameters) {
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Searches the best movement for the computer, up to the depth n, or with
+	 * iterative deepening for n milliseconds in time mode. The splits, the
+	 * aborted subtrees and the idle time of the threads are registered in the
+	 * Cycle object.
+	 * 
+	 * @param iaBoard
+	 *            a reference to the game IABoard.
+	 * @param side
+	 *            the char of the Blobs of the computer.
+	 * @param n
+	 *            the depth, or the time in milliseconds.
+	 * @param time
+	 *            a boolean value that determines weather n is a time or a
+	 *            depth.
+	 * @param prune
+	 *            a boolean value that determines weather the minimax algorithm
+	 *            will be executed with or without pruning.
+	 * @param cycles
+	 *            the Cycle object where the statistics of all the threads are
+	 *            added.
+	 * @return the Minimax object with the best movement.
+	 */
+	public Minimax search(final IABoard iaBoard, final char side,
+			final int n, final boolean time, final boolean prune,
+			final Cycle cycles) {
+		long begining = System.nanoTime();
+		Minimax result = pool.invoke(new RecursiveTask<Minimax>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected Minimax compute() {
+				long begining = System.nanoTime();
+				Minimax max;
+				if (time) {
+					max = Minimax.timeMinimax(n, prune, iaBoard, side, cycles,
+							table, pool, parameters);
+				} else {
+					max = new Negamax(iaBoard, side, n, 1, prune, -1);
+					max.setTable(table);
+					max.setParameters(parameters);
+					max.setSplitting(pool.minSplitDepth());
+					max.minimax(-Minimax.INFINITY, Minimax.INFINITY, cycles);
+				}
+				cycles.busy(System.nanoTime() - begining);
+				return max;
+			}
+		});
+		cycles.idle(pool.threads(), System.nanoTime() - begining);
+		return result;
+	}
+}
@@ -0,0 +1,45 @@
+package frontend;
+
+import java.io.File;
+import java.io.IOException;
+
+import backend.Board;
+import backend.BookBuilder;
+import backend.Cycle;
+
+/**
+ * @author German Romarion & Gabriel Zanzotti
+ * 
+ *         Builds the opening book of the default board by self-play, with
+ *         the player moving first, and writes it to a file, which the game
+ *         reads with the -book option to play the first movements without
+ *         searching.
+ * 
+ *         Usage: BookMaker plies depth bookFile [width]
+ */
+public class BookMaker {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.out.println("Usage: BookMaker plies depth bookFile "
+					+ "[width]");
+			return;
+		}
+		int plies = Integer.parseInt(args[0]);
+		int depth = Integer.parseInt(args[1]);
+		int width = BookBuilder.DEFAULT_WIDTH;
+		if (args.length > 3) {
+			width = Integer.parseInt(args[3]);
+		}
+		long millis = System.currentTimeMillis();
+		Cycle cycle = new Cycle();
+		BookBuilder builder = new BookBuilder(Board.defaultBoard().iaBoard(
+				false), plies, depth, width);
+		builder.build('p', cycle);
+		builder.write(new File(args[2]));
+		System.out.println(builder.positions() + " positions and "
+				+ builder.size() + " movements searched to depth " + depth
+				+ " in " + (System.currentTimeMillis() - millis)
+				+ " milliseconds, " + cycle + " states.");
+	}
+}
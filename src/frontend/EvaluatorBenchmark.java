@@ -0,0 +1,114 @@
+package frontend;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import backend.Cycle;
+import backend.Evaluator;
+import backend.FeatureEvaluator;
+import backend.IABoard;
+import backend.Minimax;
+import backend.Negamax;
+import backend.NeuralEvaluator;
+import backend.PatternEvaluator;
+import backend.ScanException;
+import backend.Scanner;
+import backend.TranspositionTable;
+
+/**
+ * @author German Romarion & Gabriel Zanzotti
+ * 
+ *         Measures the leaf evaluation throughput of the evaluators: every
+ *         board of a directory is searched at a fixed depth with alpha-beta,
+ *         first evaluating the difference of Blobs and then with the
+ *         evaluator of each file given: a FeatureEvaluator for a weights
+ *         file, and a NeuralEvaluator or a PatternEvaluator for a network or
+ *         a patterns file, which are only used on the boards of their size.
+ *         Every search is run
+ *         twice and only the second run is measured, so the times don't
+ *         include the warm up of the virtual machine. The evaluations per
+ *         second show what each set of features costs.
+ * 
+ *         Usage: EvaluatorBenchmark boardsDirectory depth
+ *         [evaluatorFile ...]
+ */
+public class EvaluatorBenchmark {
+
+	private static final int TABLE_BITS = 18;
+
+	public static void main(String[] args) throws IOException, ScanException {
+		if (args.length < 2) {
+			System.out.println("Usage: EvaluatorBenchmark boardsDirectory "
+					+ "depth [evaluatorFile ...]");
+			return;
+		}
+		File[] files = new File(args[0]).listFiles();
+		if (files == null) {
+			throw new IOException("ERROR: The directory " + args[0]
+					+ " has not been found...");
+		}
+		Arrays.sort(files);
+		int depth = Integer.parseInt(args[1]);
+		Evaluator[] evaluators = new Evaluator[args.length - 1];
+		String[] names = new String[evaluators.length];
+		names[0] = "blobs";
+		for (int k = 2; k < args.length; k++) {
+			evaluators[k - 1] = load(new File(args[k]));
+			names[k - 1] = new File(args[k]).getName();
+		}
+		System.out.println("board\tevaluator\tmillis\tevals\tevals/s\tvalue");
+		for (File file : files) {
+			if (!file.getName().endsWith(".txt")) {
+				continue;
+			}
+			IABoard iaBoard = new Scanner(file).loadBoard().iaBoard(false);
+			for (int k = 0; k < evaluators.length; k++) {
+				if (evaluators[k] instanceof NeuralEvaluator
+						&& !((NeuralEvaluator) evaluators[k]).fits(iaBoard)
+						|| evaluators[k] instanceof PatternEvaluator
+						&& !((PatternEvaluator) evaluators[k]).fits(iaBoard)) {
+					continue;
+				}
+				iaBoard.setEvaluator(evaluators[k]);
+				long millis = 0;
+				Cycle cycle = null;
+				Minimax max = null;
+				for (int run = 0; run < 2; run++) {
+					millis = System.currentTimeMillis();
+					cycle = new Cycle();
+					max = new Negamax(iaBoard, 'c', depth, 1, true, -1);
+					max.setTable(new TranspositionTable(TABLE_BITS));
+					max.minimax(-Minimax.INFINITY, Minimax.INFINITY, cycle);
+				}
+				long spent = Math.max(System.currentTimeMillis() - millis, 1);
+				System.out.println(file.getName() + "\t" + names[k] + "\t"
+						+ spent + "\t" + cycle.evaluations() + "\t"
+						+ cycle.evaluations() * 1000L / spent + "\t"
+						+ max.value());
+			}
+		}
+	}
+
+	/**
+	 * Reads a network or a patterns file, or else a weights file, by its
+	 * first int.
+	 */
+	static Evaluator load(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		int magic;
+		try {
+			magic = in.available() >= 4 ? in.readInt() : 0;
+		} finally {
+			in.close();
+		}
+		if (magic == NeuralEvaluator.MAGIC) {
+			return NeuralEvaluator.load(file);
+		} else if (magic == PatternEvaluator.MAGIC) {
+			return PatternEvaluator.load(file);
+		}
+		return FeatureEvaluator.load(file);
+	}
+}
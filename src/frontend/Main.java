@@ -2,10 +2,23 @@ package frontend;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
+import backend.Board;
+import backend.Engine;
+import backend.Evaluator;
+import backend.FeatureEvaluator;
 import backend.Game;
+import backend.IABoard;
+import backend.NeuralEvaluator;
+import backend.OpeningBook;
+import backend.PatternEvaluator;
+import backend.ProofNumberSearch;
 import backend.ScanException;
 import backend.Scanner;
+import backend.SearchParameters;
+import backend.Tablebase;
+import backend.YoungBrothers;
 
 public class Main {
 
@@ -13,38 +26,193 @@ public class Main {
 	private static int depthOrTimeLocation;
 	private static boolean time = false;
 	private static boolean prune = false;
+	private static Engine engine = Engine.MINIMAX;
+	private static int threads = Runtime.getRuntime().availableProcessors();
+	private static int minSplitDepth = YoungBrothers.MIN_SPLIT_DEPTH;
+	private static int endgameEmpties = -1;
+	private static boolean proof = false;
+	private static int proofNodes = ProofNumberSearch.DEFAULT_NODES;
+	private static String tablebaseFile;
+	private static String bookFile;
+	private static String weightsFile;
+	private static String networkFile;
+	private static String patternsFile;
+	private static String parametersFile;
+	private static Evaluator evaluator;
 
 	/**
 	 * @author German Romarion & Gabriel Zanzotti
 	 * 
-	 * Here is where everything starts. 
+	 * Here is where everything starts. After the depth/time value, the
+	 * options -prune, -engine name, -threads n, -splitdepth n, -endgame n,
+	 * -proof [nodes], -tablebase file, -book file, -weights file, -network
+	 * file, -patterns file and -parameters file can be given in any order.
+	 * With -proof, the console mode only says if the position is a forced
+	 * win, without moving. With -tablebase, the boards of the size of the
+	 * tablebase are played perfectly, and with -book, the positions of the
+	 * opening book are played without searching. The engine mcts runs a Monte
+	 * Carlo Tree Search, where the depth is thousands of playouts. With
+	 * -weights, the positions are evaluated by a FeatureEvaluator with the
+	 * weights of the file instead of by the difference of Blobs, with
+	 * -network, by the NeuralEvaluator of the file, and with -patterns, by
+	 * the tables of the PatternEvaluator of the file; only one of them can be
+	 * given, and the last two must be for the size of the board. With
+	 * -parameters, the search uses the SearchParameters of the file, whose
+	 * endgame value -endgame overrides.
 	 * 
 	 * @param args 
 	 *			arguments received for the execution of the program.
 	 * 
 	 */
 	public static void main(String[] args) {
-		if (args.length == 6 || args.length == 7) {
-			depthOrTimeLocation = 5;
-		} else {
+		if (args[0].equals("-visual")) {
 			depthOrTimeLocation = 2;
+		} else {
+			depthOrTimeLocation = 5;
 		}
 		checkDepthOrTime(Integer.parseInt(args[depthOrTimeLocation]));
 		time = args[depthOrTimeLocation - 1].equals("-maxtime");
-		if (args.length == 4 || args.length == 7) {
-			prune = args[depthOrTimeLocation + 1].equals("-prune");
+		for (int i = depthOrTimeLocation + 1; i < args.length; i++) {
+			if (args[i].equals("-prune")) {
+				prune = true;
+			} else if (args[i].equals("-engine") && i + 1 < args.length) {
+				engine = Engine.fromName(args[++i]);
+			} else if (args[i].equals("-threads") && i + 1 < args.length) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-splitdepth") && i + 1 < args.length) {
+				minSplitDepth = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-endgame") && i + 1 < args.length) {
+				endgameEmpties = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-tablebase") && i + 1 < args.length) {
+				tablebaseFile = args[++i];
+			} else if (args[i].equals("-book") && i + 1 < args.length) {
+				bookFile = args[++i];
+			} else if (args[i].equals("-weights") && i + 1 < args.length) {
+				weightsFile = args[++i];
+			} else if (args[i].equals("-network") && i + 1 < args.length) {
+				networkFile = args[++i];
+			} else if (args[i].equals("-patterns") && i + 1 < args.length) {
+				patternsFile = args[++i];
+			} else if (args[i].equals("-parameters") && i + 1 < args.length) {
+				parametersFile = args[++i];
+			} else if (args[i].equals("-proof")) {
+				proof = true;
+				if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+					proofNodes = Integer.parseInt(args[++i]);
+				}
+			} else {
+				throw new IllegalArgumentException("Error: unknown option "
+						+ args[i] + ".");
+			}
 		}
 		if (depthOrTime == -1) {
 			throw new IllegalArgumentException(
 					"Error: incompatible depth value.");
 		}
+		SearchParameters parameters = SearchParameters.DEFAULT;
+		if (parametersFile != null) {
+			try {
+				parameters = SearchParameters.load(new File(parametersFile));
+			} catch (IOException e) {
+				System.out.println("ERROR: The parameters file "
+						+ parametersFile + " could not be read...");
+				return;
+			}
+		}
+		Game.setEngine(engine, threads);
+		Game.setMinSplitDepth(minSplitDepth);
+		Game.setParameters(parameters);
+		Game.setEndgameEmpties(endgameEmpties == -1 ? parameters
+				.endgameEmpties() : endgameEmpties);
+		Game.setProofNodes(proofNodes);
+		if (tablebaseFile != null) {
+			try {
+				Game.setTablebase(Tablebase.open(new File(tablebaseFile)));
+			} catch (IOException e) {
+				System.out.println("ERROR: The tablebase " + tablebaseFile
+						+ " could not be read...");
+				return;
+			}
+		}
+		if (bookFile != null) {
+			try {
+				Game.setBook(OpeningBook.open(new File(bookFile)));
+			} catch (IOException e) {
+				System.out.println("ERROR: The opening book " + bookFile
+						+ " could not be read...");
+				return;
+			}
+		}
+		if ((weightsFile != null ? 1 : 0) + (networkFile != null ? 1 : 0)
+				+ (patternsFile != null ? 1 : 0) > 1) {
+			System.out.println("ERROR: Only one of the options -weights, "
+					+ "-network and -patterns can be given...");
+			return;
+		}
+		if (weightsFile != null) {
+			try {
+				evaluator = FeatureEvaluator.load(new File(weightsFile));
+			} catch (IOException e) {
+				System.out.println("ERROR: The weights file " + weightsFile
+						+ " could not be read...");
+				return;
+			}
+		}
+		if (networkFile != null) {
+			try {
+				evaluator = NeuralEvaluator.load(new File(networkFile));
+			} catch (IOException e) {
+				System.out.println("ERROR: The network file " + networkFile
+						+ " could not be read...");
+				return;
+			}
+		}
+		if (patternsFile != null) {
+			try {
+				evaluator = PatternEvaluator.load(new File(patternsFile));
+			} catch (IOException e) {
+				System.out.println("ERROR: The patterns file " + patternsFile
+						+ " could not be read...");
+				return;
+			}
+		}
+		Game.setEvaluator(evaluator);
 		if (args[0].equals("-visual")) {
+			if (!fits(Board.defaultBoard())) {
+				return;
+			}
 			visualMode(checkDepthOrTime(depthOrTime), time, prune);
 		} else {
 			consoleMode(args[1], args[3], depthOrTime, time, prune);
 		}
 	}
 
+	/**
+	 * @author German Romarion & Gabriel Zanzotti
+	 * 
+	 * checks that the network or the patterns evaluator is for the size of
+	 * the board, and prints an error otherwise.
+	 * 
+	 * @param board
+	 * 			the board to be played.
+	 * @return a boolean value that determines weather the board can be
+	 *         evaluated.
+	 * 
+	 */
+	private static boolean fits(Board board) {
+		IABoard iaBoard = board.iaBoard(false);
+		if (evaluator instanceof NeuralEvaluator
+				&& !((NeuralEvaluator) evaluator).fits(iaBoard)
+				|| evaluator instanceof PatternEvaluator
+				&& !((PatternEvaluator) evaluator).fits(iaBoard)) {
+			System.out.println("ERROR: The evaluator is not for "
+					+ iaBoard.rows() + "x" + iaBoard.columns()
+					+ " boards...");
+			return false;
+		}
+		return true;
+	}
+
 	/**
 	 * @author German Romarion & Gabriel Zanzotti
 	 * 
@@ -103,9 +271,17 @@ public class Main {
 		try {
 			Scanner scanner = new Scanner(new File(fileName));
 			try {
-				Game game = new Game(scanner.loadBoard());
+				Board board = scanner.loadBoard();
+				if (!fits(board)) {
+					return;
+				}
+				Game game = new Game(board);
 				Game.setProperties(n, time, prune, playerTurn.equals("1"));
-				System.out.println(game.calculateNextMovement());
+				if (proof) {
+					System.out.println(game.prove());
+				} else {
+					System.out.println(game.calculateNextMovement());
+				}
 			} catch (ScanException e) {
 				System.out
 						.println("ERROR: The board file sintaxis is incorrect...");
@@ -0,0 +1,58 @@
+package frontend;
+
+import java.io.File;
+import java.io.IOException;
+
+import backend.NeuralEvaluator;
+import backend.NeuralTrainer;
+
+/**
+ * @author German Romarion & Gabriel Zanzotti
+ * 
+ *         Trains the network of a NeuralEvaluator on a dataset of positions
+ *         with the results of their games, and writes it to a network file
+ *         after every pass over the dataset, which the game reads with the
+ *         -network option. The loss of the rounded network is shown next to
+ *         the one of the real weights, to see what the rounding costs. The
+ *         dataset can also be the directory of a SelfPlayGenerator dataset.
+ * 
+ *         Usage: NetworkTrainer datasetFile networkFile [hiddenUnits]
+ *         [epochs]
+ */
+public class NetworkTrainer {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: NetworkTrainer datasetFile "
+					+ "networkFile [hiddenUnits] [epochs]");
+			return;
+		}
+		int hidden = NeuralTrainer.DEFAULT_HIDDEN;
+		if (args.length > 2) {
+			hidden = Integer.parseInt(args[2]);
+		}
+		int epochs = NeuralTrainer.DEFAULT_EPOCHS;
+		if (args.length > 3) {
+			epochs = Integer.parseInt(args[3]);
+		}
+		long millis = System.currentTimeMillis();
+		NeuralTrainer trainer = new NeuralTrainer(hidden, 20101125);
+		trainer.load(new File(args[0]));
+		System.out.println(trainer.size() + " positions read in "
+				+ (System.currentTimeMillis() - millis) + " milliseconds.");
+		for (int k = 1; k <= epochs; k++) {
+			millis = System.currentTimeMillis();
+			trainer.epoch();
+			NeuralEvaluator network = trainer.network();
+			network.write(new File(args[1]));
+			System.out.println("Epoch " + k + " in "
+					+ (System.currentTimeMillis() - millis)
+					+ " milliseconds, loss " + format(trainer.loss())
+					+ ", rounded " + format(trainer.loss(network)) + ".");
+		}
+	}
+
+	private static String format(double loss) {
+		return String.format("%.5f", loss);
+	}
+}
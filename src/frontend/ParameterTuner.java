@@ -0,0 +1,91 @@
+package frontend;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+import backend.Board;
+import backend.SearchParameters;
+import backend.SpsaTuner;
+import backend.TrainingPosition;
+
+/**
+ * @author German Romarion & Gabriel Zanzotti
+ * 
+ *         Tunes the SearchParameters by SPSA, playing fast games of the
+ *         engine against itself on all the processors, and writes them to a
+ *         parameters file after every iteration, which the game reads with
+ *         the -parameters option. If the file already exists, the tuning
+ *         starts from its parameters. The games start from the default
+ *         board, with the player moving first, and from the positions of the
+ *         positions file, one per line with the format of the datasets.
+ * 
+ *         Usage: ParameterTuner parametersFile iterations [gamesPerIteration]
+ *         [millisPerMovement] [positionsFile]
+ */
+public class ParameterTuner {
+
+	private static final int MILLIS = 20;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: ParameterTuner parametersFile "
+					+ "iterations [gamesPerIteration] [millisPerMovement] "
+					+ "[positionsFile]");
+			return;
+		}
+		File file = new File(args[0]);
+		int iterations = Integer.parseInt(args[1]);
+		int games = SpsaTuner.DEFAULT_GAMES;
+		if (args.length > 2) {
+			games = Integer.parseInt(args[2]);
+		}
+		int millis = MILLIS;
+		if (args.length > 3) {
+			millis = Integer.parseInt(args[3]);
+		}
+		SearchParameters start = SearchParameters.DEFAULT;
+		if (file.exists()) {
+			start = SearchParameters.load(file);
+		}
+		SpsaTuner tuner = new SpsaTuner(start, millis, Runtime.getRuntime()
+				.availableProcessors(), System.currentTimeMillis());
+		try {
+			tuner.addOpening(Board.defaultBoard().iaBoard(false), 'p');
+			if (args.length > 4) {
+				addOpenings(tuner, new File(args[4]));
+			}
+			for (int k = 0; k < iterations; k++) {
+				long begining = System.currentTimeMillis();
+				double score = tuner.step(games);
+				SearchParameters parameters = tuner.parameters();
+				parameters.write(file);
+				System.out.println("Iteration " + tuner.iterations()
+						+ ": score " + String.format("%.2f", score) + " in "
+						+ (System.currentTimeMillis() - begining)
+						+ " milliseconds, "
+						+ parameters.toString().trim().replace('\n', ',')
+								.replace(",", ", ") + ".");
+			}
+		} finally {
+			tuner.shutdown();
+		}
+	}
+
+	private static void addOpenings(SpsaTuner tuner, File positions)
+			throws IOException {
+		BufferedReader in = new BufferedReader(new FileReader(positions));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.trim().length() > 0) {
+					TrainingPosition position = TrainingPosition.parse(line);
+					tuner.addOpening(position.board(), position.side());
+				}
+			}
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package frontend;
+
+import java.io.File;
+import java.io.IOException;
+
+import backend.PatternEvaluator;
+import backend.PatternFitter;
+
+/**
+ * @author German Romarion & Gabriel Zanzotti
+ * 
+ *         Fits the tables of a PatternEvaluator to a dataset of positions
+ *         with the results of their games, and writes them to a patterns
+ *         file after every pass over the dataset, which the game reads with
+ *         the -patterns option. The loss of the rounded tables is shown next
+ *         to the one of the real entries. The dataset can also be the
+ *         directory of a SelfPlayGenerator dataset.
+ * 
+ *         Usage: PatternBuilder datasetFile patternsFile [epochs]
+ */
+public class PatternBuilder {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: PatternBuilder datasetFile "
+					+ "patternsFile [epochs]");
+			return;
+		}
+		int epochs = PatternFitter.DEFAULT_EPOCHS;
+		if (args.length > 2) {
+			epochs = Integer.parseInt(args[2]);
+		}
+		long millis = System.currentTimeMillis();
+		PatternFitter fitter = new PatternFitter(20101125);
+		fitter.load(new File(args[0]));
+		System.out.println(fitter.size() + " positions read in "
+				+ (System.currentTimeMillis() - millis) + " milliseconds.");
+		for (int k = 1; k <= epochs; k++) {
+			millis = System.currentTimeMillis();
+			fitter.epoch();
+			PatternEvaluator evaluator = fitter.evaluator();
+			evaluator.write(new File(args[1]));
+			System.out.println("Epoch " + k + " in "
+					+ (System.currentTimeMillis() - millis)
+					+ " milliseconds, loss " + format(fitter.loss())
+					+ ", rounded " + format(fitter.loss(evaluator)) + ".");
+		}
+	}
+
+	private static String format(double loss) {
+		return String.format("%.5f", loss);
+	}
+}
@@ -0,0 +1,100 @@
+package frontend;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import backend.Board;
+import backend.DatasetWriter;
+import backend.IABoard;
+import backend.ScanException;
+import backend.Scanner;
+import backend.SearchParameters;
+import backend.SelfPlay;
+
+/**
+ * @author German Romarion & Gabriel Zanzotti
+ * 
+ *         Plays games of the engine against itself on all the processors and
+ *         adds their positions to a dataset directory, which the WeightTuner,
+ *         the NetworkTrainer and the PatternBuilder read in place of a
+ *         dataset file. The games start from the default board or, if a
+ *         boards directory is given, from its boards of the same size as the
+ *         first one, always with the player moving first, and the first
+ *         movements of every game are random. The throughput in positions per
+ *         second and per core is shown at the end.
+ * 
+ *         Usage: SelfPlayGenerator datasetDirectory games [millisPerMovement]
+ *         [threads] [boardsDirectory]
+ */
+public class SelfPlayGenerator {
+
+	private static final int MILLIS = 20;
+
+	public static void main(String[] args) throws IOException, ScanException {
+		if (args.length < 2) {
+			System.out.println("Usage: SelfPlayGenerator datasetDirectory "
+					+ "games [millisPerMovement] [threads] [boardsDirectory]");
+			return;
+		}
+		int games = Integer.parseInt(args[1]);
+		int millis = MILLIS;
+		if (args.length > 2) {
+			millis = Integer.parseInt(args[2]);
+		}
+		int cores = Runtime.getRuntime().availableProcessors();
+		int threads = cores;
+		if (args.length > 3) {
+			threads = Integer.parseInt(args[3]);
+		}
+		SelfPlay selfPlay = new SelfPlay(millis, true,
+				SearchParameters.DEFAULT, null);
+		IABoard first = null;
+		if (args.length > 4) {
+			File[] files = new File(args[4]).listFiles();
+			if (files == null) {
+				throw new IOException("ERROR: The directory " + args[4]
+						+ " has not been found...");
+			}
+			Arrays.sort(files);
+			for (File file : files) {
+				if (!file.getName().endsWith(".txt")) {
+					continue;
+				}
+				IABoard iaBoard = new Scanner(file).loadBoard().iaBoard(false);
+				if (first == null) {
+					first = iaBoard;
+				}
+				if (iaBoard.rows() == first.rows()
+						&& iaBoard.columns() == first.columns()) {
+					selfPlay.addOpening(iaBoard, 'p');
+				} else {
+					System.out.println("Skipping " + file.getName()
+							+ ", whose size is not the one of the dataset.");
+				}
+			}
+		} else {
+			first = Board.defaultBoard().iaBoard(false);
+			selfPlay.addOpening(first, 'p');
+		}
+		if (first == null) {
+			throw new IOException("ERROR: The directory " + args[4]
+					+ " has no boards...");
+		}
+		DatasetWriter writer = new DatasetWriter(new File(args[0]), first
+				.rows(), first.columns(), DatasetWriter.DEFAULT_CHUNK);
+		long begining = System.currentTimeMillis();
+		long positions;
+		try {
+			positions = selfPlay.play(games, threads, writer, begining);
+		} finally {
+			writer.close();
+		}
+		long spent = Math.max(System.currentTimeMillis() - begining, 1);
+		System.out.println(games + " games, " + positions + " positions in "
+				+ spent + " milliseconds: " + positions * 1000 / spent
+				+ " positions per second, "
+				+ positions * 1000 / spent / Math.min(threads, cores)
+				+ " per core.");
+	}
+}
@@ -0,0 +1,86 @@
+package frontend;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+
+import backend.Cycle;
+import backend.IABoard;
+import backend.Minimax;
+import backend.Negamax;
+import backend.RootSplit;
+import backend.ScanException;
+import backend.Scanner;
+import backend.SearchPool;
+import backend.TranspositionTable;
+
+/**
+ * @author German Romarion & Gabriel Zanzotti
+ * 
+ *         Measures the speedup of the rootsplit engine: every board of a
+ *         directory is searched at a fixed depth, first with Negamax and then
+ *         with RootSplit using 1, 2, 4, ... threads, up to the given amount.
+ *         The Negamax search is run twice and only the second run is measured,
+ *         so the times don't include the warm up of the virtual machine.
+ * 
+ *         Usage: SpeedupReport boardsDirectory depth maxThreads [-prune]
+ */
+public class SpeedupReport {
+
+	private static final int TABLE_BITS = 18;
+
+	public static void main(String[] args) throws FileNotFoundException,
+			ScanException {
+		if (args.length < 3) {
+			System.out.println("Usage: SpeedupReport boardsDirectory depth "
+					+ "maxThreads [-prune]");
+			return;
+		}
+		File[] files = new File(args[0]).listFiles();
+		if (files == null) {
+			throw new FileNotFoundException("ERROR: The directory " + args[0]
+					+ " has not been found...");
+		}
+		Arrays.sort(files);
+		int depth = Integer.parseInt(args[1]);
+		int maxThreads = Integer.parseInt(args[2]);
+		boolean prune = args.length > 3 && args[3].equals("-prune");
+		System.out.println("board\tthreads\tmillis\tspeedup\tstates\tvalue");
+		for (File file : files) {
+			if (!file.getName().endsWith(".txt")) {
+				continue;
+			}
+			IABoard iaBoard = new Scanner(file).loadBoard().iaBoard(false);
+			long millis = 0;
+			Cycle cycle = null;
+			Minimax max = null;
+			for (int run = 0; run < 2; run++) {
+				millis = System.currentTimeMillis();
+				cycle = new Cycle();
+				max = new Negamax(iaBoard, 'c', depth, 1, prune, -1);
+				max.setTable(new TranspositionTable(TABLE_BITS));
+				max.minimax(-Minimax.INFINITY, Minimax.INFINITY, cycle);
+			}
+			long base = Math.max(System.currentTimeMillis() - millis, 1);
+			print(file.getName(), "negamax", base, base, cycle, max);
+			for (int threads = 1; threads <= maxThreads; threads *= 2) {
+				SearchPool pool = new SearchPool(threads, TABLE_BITS);
+				millis = System.currentTimeMillis();
+				cycle = new Cycle();
+				Minimax split = new RootSplit(iaBoard, 'c', depth, prune, -1,
+						pool);
+				split.minimax(-Minimax.INFINITY, Minimax.INFINITY, cycle);
+				long spent = Math.max(System.currentTimeMillis() - millis, 1);
+				pool.shutdown();
+				print(file.getName(), "" + threads, base, spent, cycle, split);
+			}
+		}
+	}
+
+	private static void print(String board, String threads, long base,
+			long spent, Cycle cycle, Minimax result) {
+		System.out.println(board + "\t" + threads + "\t" + spent + "\t"
+				+ String.format("%.2f", (double) base / spent) + "\t" + cycle
+				+ "\t" + result.value());
+	}
+}
@@ -0,0 +1,38 @@
+package frontend;
+
+import java.io.File;
+import java.io.IOException;
+
+import backend.Retrograde;
+
+/**
+ * @author German Romarion & Gabriel Zanzotti
+ * 
+ *         Solves every position of a small board by retrograde analysis and
+ *         writes its tablebase, which the console mode reads with the
+ *         -tablebase option to play the boards of that size perfectly.
+ * 
+ *         Usage: TablebaseBuilder rows columns tablebaseFile
+ */
+public class TablebaseBuilder {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.out.println("Usage: TablebaseBuilder rows columns "
+					+ "tablebaseFile");
+			return;
+		}
+		int rows = Integer.parseInt(args[0]);
+		int columns = Integer.parseInt(args[1]);
+		long millis = System.currentTimeMillis();
+		Retrograde retrograde = new Retrograde(rows, columns);
+		retrograde.solve();
+		retrograde.write(new File(args[2]));
+		System.out.println(rows + "x" + columns + " solved in "
+				+ (System.currentTimeMillis() - millis) + " milliseconds, "
+				+ retrograde.sweeps() + " sweeps.");
+		System.out.println("Won: " + retrograde.count(1) + ", drawn: "
+				+ retrograde.count(0) + ", lost: " + retrograde.count(-1)
+				+ ".");
+	}
+}
@@ -0,0 +1,223 @@
+package frontend;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import backend.Board;
+import backend.Contender;
+import backend.Evaluator;
+import backend.IABoard;
+import backend.NeuralEvaluator;
+import backend.PatternEvaluator;
+import backend.ScanException;
+import backend.Scanner;
+import backend.SearchParameters;
+import backend.Tournament;
+
+/**
+ * @author German Romarion & Gabriel Zanzotti
+ * 
+ *         Plays a tournament between two settings of the engine, to check
+ *         that a change doesn't make it weaker. Each engine is given after
+ *         -first or -second, by -depth n or -maxtime n and the options
+ *         -prune, -threads n, -evaluator file and -parameters file, where the
+ *         evaluator file is a weights, a network or a patterns file. The
+ *         pairs of games start from the default board or, with -boards, from
+ *         the boards of a directory, always with the player moving first,
+ *         followed by -plies random movements, and -concurrency pairs are
+ *         played at the same time, by default as many as fit in the
+ *         processors. The score and the difference of Elo of the first engine
+ *         are shown every few seconds, and with -sprt elo0 elo1 the
+ *         tournament stops as soon as the test accepts one of the
+ *         differences, with errors of -error probability.
+ * 
+ *         Usage: TournamentRunner pairs -first engineOptions -second
+ *         engineOptions [-boards directory] [-concurrency n] [-plies n]
+ *         [-sprt elo0 elo1] [-error probability]
+ */
+public class TournamentRunner {
+
+	private static final int REPORT_MILLIS = 5000;
+
+	public static void main(String[] args) throws IOException, ScanException {
+		if (args.length < 5) {
+			System.out.println("Usage: TournamentRunner pairs -first "
+					+ "engineOptions -second engineOptions "
+					+ "[-boards directory] [-concurrency n] [-plies n] "
+					+ "[-sprt elo0 elo1] [-error probability]");
+			return;
+		}
+		int games = Integer.parseInt(args[0]);
+		int[] n = new int[2];
+		boolean[] time = new boolean[2];
+		boolean[] prune = new boolean[2];
+		int[] threads = { 1, 1 };
+		String[] evaluatorFiles = new String[2];
+		String[] parametersFiles = new String[2];
+		String boards = null;
+		int concurrency = 0;
+		int plies = Tournament.DEFAULT_RANDOM_PLIES;
+		double[] elo = null;
+		double error = Tournament.DEFAULT_ERROR;
+		int engine = -1;
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("-first")) {
+				engine = 0;
+			} else if (args[i].equals("-second")) {
+				engine = 1;
+			} else if (args[i].equals("-boards") && i + 1 < args.length) {
+				boards = args[++i];
+			} else if (args[i].equals("-concurrency") && i + 1 < args.length) {
+				concurrency = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-plies") && i + 1 < args.length) {
+				plies = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-sprt") && i + 2 < args.length) {
+				elo = new double[] { Double.parseDouble(args[++i]),
+						Double.parseDouble(args[++i]) };
+			} else if (args[i].equals("-error") && i + 1 < args.length) {
+				error = Double.parseDouble(args[++i]);
+			} else if (engine == -1) {
+				System.out.println("ERROR: The option " + args[i]
+						+ " is not valid...");
+				return;
+			} else if ((args[i].equals("-depth") || args[i]
+					.equals("-maxtime"))
+					&& i + 1 < args.length) {
+				time[engine] = args[i].equals("-maxtime");
+				n[engine] = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-prune")) {
+				prune[engine] = true;
+			} else if (args[i].equals("-threads") && i + 1 < args.length) {
+				threads[engine] = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-evaluator") && i + 1 < args.length) {
+				evaluatorFiles[engine] = args[++i];
+			} else if (args[i].equals("-parameters") && i + 1 < args.length) {
+				parametersFiles[engine] = args[++i];
+			} else {
+				System.out.println("ERROR: The option " + args[i]
+						+ " is not valid...");
+				return;
+			}
+		}
+		Contender[] contenders = new Contender[2];
+		Evaluator[] evaluators = new Evaluator[2];
+		for (int k = 0; k < 2; k++) {
+			if (n[k] <= 0) {
+				System.out.println("ERROR: The " + (k == 0 ? "first" : "second")
+						+ " engine has no depth or time...");
+				return;
+			}
+			if (evaluatorFiles[k] != null) {
+				evaluators[k] = EvaluatorBenchmark.load(new File(
+						evaluatorFiles[k]));
+			}
+			SearchParameters parameters = SearchParameters.DEFAULT;
+			if (parametersFiles[k] != null) {
+				parameters = SearchParameters.load(new File(
+						parametersFiles[k]));
+			}
+			contenders[k] = new Contender(n[k], time[k], parameters,
+					evaluators[k]);
+			contenders[k].setPrune(prune[k]);
+			contenders[k].setThreads(threads[k]);
+		}
+		Tournament tournament = new Tournament(contenders[0], contenders[1]);
+		tournament.setRandomPlies(plies);
+		if (elo != null) {
+			tournament.setSprt(elo[0], elo[1], error, error);
+		}
+		int openings = 0;
+		if (boards != null) {
+			File[] files = new File(boards).listFiles();
+			if (files == null) {
+				throw new IOException("ERROR: The directory " + boards
+						+ " has not been found...");
+			}
+			Arrays.sort(files);
+			for (File file : files) {
+				if (!file.getName().endsWith(".txt")) {
+					continue;
+				}
+				Board board = new Scanner(file).loadBoard();
+				if (fits(evaluators, board.iaBoard(false))) {
+					tournament.addOpening(board, 'p');
+					openings++;
+				} else {
+					System.out.println("Skipping " + file.getName()
+							+ ", whose size is not the one of an evaluator.");
+				}
+			}
+		} else if (fits(evaluators, Board.defaultBoard().iaBoard(false))) {
+			tournament.addOpening(Board.defaultBoard(), 'p');
+			openings++;
+		}
+		if (openings == 0) {
+			System.out.println("ERROR: There are no boards for the "
+					+ "evaluators...");
+			return;
+		}
+		if (concurrency <= 0) {
+			concurrency = Math.max(1, Runtime.getRuntime()
+					.availableProcessors()
+					/ Math.max(threads[0], threads[1]));
+		}
+		long begining = System.currentTimeMillis();
+		tournament.start(games, concurrency, begining);
+		while (!tournament.waitFor(REPORT_MILLIS)) {
+			System.out.println(report(tournament, elo != null));
+		}
+		System.out.println(report(tournament, elo != null));
+		System.out.println("Played in "
+				+ (System.currentTimeMillis() - begining) / 1000
+				+ " seconds, " + concurrency + " pairs at a time.");
+		if (elo != null) {
+			Tournament.Verdict verdict = tournament.verdict();
+			if (verdict == Tournament.Verdict.H0) {
+				System.out.println("The test accepted H0: the difference is "
+						+ elo[0] + " Elo.");
+			} else if (verdict == Tournament.Verdict.H1) {
+				System.out.println("The test accepted H1: the difference is "
+						+ elo[1] + " Elo.");
+			} else {
+				System.out.println("The test was not decided.");
+			}
+		}
+	}
+
+	/**
+	 * Returns weather the network and the patterns evaluators are for the
+	 * size of a board.
+	 */
+	private static boolean fits(Evaluator[] evaluators, IABoard iaBoard) {
+		for (Evaluator evaluator : evaluators) {
+			if (evaluator instanceof NeuralEvaluator
+					&& !((NeuralEvaluator) evaluator).fits(iaBoard)
+					|| evaluator instanceof PatternEvaluator
+					&& !((PatternEvaluator) evaluator).fits(iaBoard)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a line with the results of the tournament so far.
+	 */
+	private static String report(Tournament tournament, boolean sprt) {
+		double[] interval = tournament.interval();
+		String ans = "Pairs " + tournament.pairs() + ": +"
+				+ tournament.wins() + " =" + tournament.draws() + " -"
+				+ tournament.losses() + ", score "
+				+ String.format("%.1f", 100 * tournament.score())
+				+ "%, Elo " + String.format("%.1f", tournament.elo()) + " ["
+				+ String.format("%.1f", interval[0]) + ", "
+				+ String.format("%.1f", interval[1]) + "]";
+		if (sprt) {
+			ans += ", LLR " + String.format("%.2f", tournament.llr()) + " ["
+					+ String.format("%.2f", tournament.bounds()[0]) + ", "
+					+ String.format("%.2f", tournament.bounds()[1]) + "]";
+		}
+		return ans + ".";
+	}
+}
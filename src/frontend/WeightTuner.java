@@ -0,0 +1,67 @@
+package frontend;
+
+import java.io.File;
+import java.io.IOException;
+
+import backend.FeatureEvaluator;
+import backend.TexelTuner;
+
+/**
+ * @author German Romarion & Gabriel Zanzotti
+ * 
+ *         Tunes the weights of the FeatureEvaluator on a dataset of positions
+ *         with the results of their games, and writes them to a weights file,
+ *         which the game reads with the -weights option. The tuning starts
+ *         from the weights of the given file, or else from the difference of
+ *         Blobs alone. The dataset can also be the directory of a
+ *         SelfPlayGenerator dataset.
+ * 
+ *         Usage: WeightTuner datasetFile weightsFile [iterations]
+ *         [initialWeightsFile]
+ */
+public class WeightTuner {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: WeightTuner datasetFile weightsFile "
+					+ "[iterations] [initialWeightsFile]");
+			return;
+		}
+		int iterations = TexelTuner.DEFAULT_ITERATIONS;
+		if (args.length > 2) {
+			iterations = Integer.parseInt(args[2]);
+		}
+		int[] weights = new int[FeatureEvaluator.FEATURES.length];
+		weights[FeatureEvaluator.MATERIAL] = TexelTuner.SCALE / 4;
+		if (args.length > 3) {
+			weights = FeatureEvaluator.load(new File(args[3])).weights();
+		}
+		long millis = System.currentTimeMillis();
+		TexelTuner tuner = new TexelTuner(Runtime.getRuntime()
+				.availableProcessors());
+		try {
+			tuner.load(new File(args[0]));
+			System.out.println(tuner.size() + " positions read in "
+					+ (System.currentTimeMillis() - millis)
+					+ " milliseconds, loss " + format(tuner.loss(weights))
+					+ ".");
+			millis = System.currentTimeMillis();
+			int[] tuned = tuner.tune(weights, iterations);
+			System.out.println(iterations + " iterations in "
+					+ (System.currentTimeMillis() - millis)
+					+ " milliseconds, loss " + format(tuner.loss(tuned)) + ".");
+			FeatureEvaluator evaluator = new FeatureEvaluator(tuned);
+			evaluator.write(new File(args[1]));
+			for (int k = 0; k < tuned.length; k++) {
+				System.out.println(FeatureEvaluator.FEATURES[k] + " "
+						+ tuned[k]);
+			}
+		} finally {
+			tuner.shutdown();
+		}
+	}
+
+	private static String format(double loss) {
+		return String.format("%.5f", loss);
+	}
+}